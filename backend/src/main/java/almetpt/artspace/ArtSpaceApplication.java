@@ -6,10 +6,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import almetpt.artspace.model.Role;
 import almetpt.artspace.repository.RoleRepository;
 
 @SpringBootApplication
+@EnableScheduling
 public class ArtSpaceApplication implements CommandLineRunner {
 
     @Autowired
@@ -42,7 +44,7 @@ public class ArtSpaceApplication implements CommandLineRunner {
             artistRole.setTitle("ARTIST");
             artistRole.setDescription("Художник");
 
-            // Сохраняем роли
+            // Сохраняем роли (одним JDBC batch'ем, id берутся из последовательности)
             roleRepository.saveAll(Arrays.asList(adminRole, userRole, artistRole));
         }
         
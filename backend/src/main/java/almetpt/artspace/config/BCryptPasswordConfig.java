@@ -1,8 +1,14 @@
 package almetpt.artspace.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
 
 @Configuration
 public class BCryptPasswordConfig {
@@ -10,4 +16,16 @@ public class BCryptPasswordConfig {
     public BCryptPasswordEncoder bCryptPasswordEncoder() {
         return new BCryptPasswordEncoder();
     }
+
+    // Все проверки и хэширование паролей идут через ограниченный пул, а не на потоках Tomcat
+    @Bean
+    @Primary
+    public BoundedPasswordEncoder passwordEncoder(BCryptPasswordEncoder bCryptPasswordEncoder,
+                                                  @Value("${security.password-hashing.threads:0}") int threads,
+                                                  @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${security.password-hashing.wait-timeout:5s}") Duration waitTimeout,
+                                                  MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(bCryptPasswordEncoder, poolSize, queueCapacity, waitTimeout, meterRegistry);
+    }
 }
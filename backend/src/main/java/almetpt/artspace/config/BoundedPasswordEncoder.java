@@ -0,0 +1,188 @@
+package almetpt.artspace.config;
+
+import almetpt.artspace.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder, который выполняет BCrypt на отдельном ограниченном пуле потоков.
+ * Хэширование занимает десятки миллисекунд CPU, и при всплеске логинов/регистраций
+ * потоки Tomcat не должны съедать все ядра, нужные для остальных запросов.
+ * Если очередь пула заполнена, запрос сразу отклоняется с {@link TooManyRequestsException} (429).
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    // Как часто пачка импорта повторяет попытку встать в заполненную очередь
+    private static final long BULK_RETRY_DELAY_MS = 10;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMs;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+    // Массовое хэширование (импорт) занимает не больше threads задач одновременно,
+    // чтобы очередь оставалась свободной для интерактивных логинов
+    private final Semaphore bulkPermits;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int threads,
+                                  int queueCapacity,
+                                  Duration waitTimeout,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.waitTimeoutMs = waitTimeout.toMillis();
+        this.bulkPermits = new Semaphore(threads);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // executor.queued / executor.active / executor.completed с тегом name=passwordHashing
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+        this.encodeTimer = Timer.builder("password.hashing")
+                .description("Время выполнения BCrypt")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing")
+                .description("Время выполнения BCrypt")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Запросы, отклоненные из-за переполнения очереди хэширования")
+                .register(meterRegistry);
+        log.info("Пул хэширования паролей: {} потоков, очередь {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Хэширует пароли параллельно на всех потоках пула. Порядок результата совпадает с порядком входа.
+     * Если очередь занята интерактивными запросами, ждет места в ней не дольше wait-timeout,
+     * затем отклоняет всю пачку с {@link TooManyRequestsException}: в вызывающем потоке BCrypt не выполняется.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (CharSequence rawPassword : rawPasswords) {
+            try {
+                bulkPermits.acquire();
+            } catch (InterruptedException e) {
+                // Уже отправленные задачи не отменяем: они сами вернут свои разрешения
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Хэширование паролей прервано", e);
+            }
+            futures.add(submitBulk(rawPassword));
+        }
+
+        List<String> encoded = new ArrayList<>(futures.size());
+        for (Future<String> future : futures) {
+            try {
+                encoded.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Хэширование паролей прервано", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка хэширования пароля", e.getCause());
+            }
+        }
+        return encoded;
+    }
+
+    // Разрешение bulkPermits уже взято: его возвращает задача, а при отказе - этот метод
+    private Future<String> submitBulk(CharSequence rawPassword) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        while (true) {
+            try {
+                return executor.submit(() -> {
+                    try {
+                        return encodeTimer.recordCallable(() -> delegate.encode(rawPassword));
+                    } finally {
+                        bulkPermits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                if (System.nanoTime() >= deadline) {
+                    bulkPermits.release();
+                    rejected.increment();
+                    throw new TooManyRequestsException("Сервер перегружен, повторите попытку позже");
+                }
+            }
+            try {
+                Thread.sleep(BULK_RETRY_DELAY_MS);
+            } catch (InterruptedException e) {
+                bulkPermits.release();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Хэширование паролей прервано", e);
+            }
+        }
+    }
+
+    private <T> T execute(Callable<T> task, Timer timer) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Сервер перегружен, повторите попытку позже");
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new TooManyRequestsException("Сервер перегружен, повторите попытку позже");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хэширование пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Ошибка хэширования пароля", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
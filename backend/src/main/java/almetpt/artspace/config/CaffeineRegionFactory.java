@@ -0,0 +1,31 @@
+package almetpt.artspace.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Регионы кэша второго уровня на Caffeine JCache, свой CacheManager у каждой фабрики сессий.
+ * Провайдер JCache выдает один CacheManager на URI, а ключ записи - только сущность и id: две фабрики
+ * в одном процессе (контексты тестов на разных базах) читали бы записи друг друга, а закрытие одной
+ * закрывало бы кэши другой. Фрагмент URI делает менеджеры разными, файл конфигурации остается тем же.
+ * URI передается как есть (classpath:...): стандартная фабрика превращает его в jar:-URL,
+ * который Caffeine внутри собранного jar не читает.
+ */
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+
+    private static final AtomicInteger FACTORIES = new AtomicInteger();
+
+    @Override
+    protected URI getUri(SessionFactoryOptions settings, Map<String, Object> properties) {
+        Object uri = properties.get(ConfigSettings.CONFIG_URI);
+        if (uri == null) {
+            return super.getUri(settings, properties);
+        }
+        return URI.create(uri + "#" + FACTORIES.incrementAndGet());
+    }
+}
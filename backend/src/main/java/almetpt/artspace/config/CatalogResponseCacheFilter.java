@@ -0,0 +1,159 @@
+package almetpt.artspace.config;
+
+import almetpt.artspace.service.CatalogResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Отдает анонимные GET публичного каталога из {@link CatalogResponseCache}: при попадании ответ - копия
+ * готовых байт (gzip, если клиент его принимает), без контроллера, запросов к БД и сериализации.
+ * Фильтр стоит после цепочки Spring Security, поэтому CORS и заголовки безопасности выставляются как обычно,
+ * а аутентифицированные запросы (их ответы могут зависеть от пользователя) проходят мимо кэша.
+ */
+@Component
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    // GET-пути каталога из API_WHITE_LIST в WebSecurityConfig
+    static final Set<String> PATHS = Set.of(
+            "/artworks", "/artworks/getOneById",
+            "/artists", "/artists/getOneById",
+            "/exhibitions", "/exhibitions/getOneById", "/exhibitions/current");
+
+    // Заголовки ответа контроллера, которые повторяются при отдаче из кэша
+    private static final List<String> STORED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL);
+
+    private final CatalogResponseCache cache;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public CatalogResponseCacheFilter(CatalogResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !cache.isEnabled()
+                || !HttpMethod.GET.matches(request.getMethod())
+                || !PATHS.contains(urlPathHelper.getPathWithinApplication(request))
+                || !isAnonymous();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = key(request);
+        CatalogResponseCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            write(cached, request, response);
+            return;
+        }
+        long generation = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        CatalogResponseCache.Entry stored = null;
+        if (wrapper.getStatus() == HttpStatus.OK.value() && !response.isCommitted()
+                && !response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            stored = cache.put(key, generation, storedHeaders(wrapper), wrapper.getContentAsByteArray());
+        }
+        if (stored != null) {
+            write(stored, request, response);
+        } else {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Путь и параметры, отсортированные по имени (значения одного параметра - в исходном порядке:
+     * для sort он важен). Пустые параметры и page=0 отбрасываются - это значения по умолчанию.
+     */
+    static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            String name = parameter.getKey();
+            for (String value : parameter.getValue()) {
+                if (!StringUtils.hasText(value) || ("page".equals(name) && "0".equals(value.trim()))) {
+                    continue;
+                }
+                key.append(separator).append(name).append('=').append(value.trim());
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isAnonymous() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    private static HttpHeaders storedHeaders(ContentCachingResponseWrapper response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : STORED_HEADERS) {
+            String value = HttpHeaders.CONTENT_TYPE.equals(name) ? response.getContentType() : response.getHeader(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
+        }
+        return headers;
+    }
+
+    private static void write(CatalogResponseCache.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        HttpHeaders headers = entry.headers();
+        // add, а не set: CorsFilter уже добавил Vary: Origin
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (headers.getCacheControl() != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, headers.getCacheControl());
+        }
+        // Тот же условный GET, что в GenericController: checkNotModified выставляет ETag, Last-Modified и 304
+        if (headers.getETag() != null
+                && new ServletWebRequest(request, response).checkNotModified(headers.getETag(), headers.getLastModified())) {
+            return;
+        }
+        headers.forEach((name, values) -> response.setHeader(name, values.get(0)));
+        byte[] body = entry.identity();
+        if (entry.gzip() != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = entry.gzip();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // "gzip, deflate, br"; gzip;q=0 - явный отказ
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase().split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equals("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
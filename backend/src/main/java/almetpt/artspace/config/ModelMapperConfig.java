@@ -1,22 +0,0 @@
-package almetpt.artspace.config;
-
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.modelmapper.config.Configuration.AccessLevel;
-
-@Configuration
-public class ModelMapperConfig {
-    @Bean
-    public ModelMapper modelMapper() {
-        ModelMapper modelMapper = new ModelMapper();
-        modelMapper.getConfiguration()
-                .setMatchingStrategy(MatchingStrategies.STRICT)
-                .setFieldMatchingEnabled(true)
-                .setSkipNullEnabled(true)
-                .setAmbiguityIgnored(true) 
-                .setFieldAccessLevel(AccessLevel.PRIVATE);
-        return modelMapper;
-    }
-}
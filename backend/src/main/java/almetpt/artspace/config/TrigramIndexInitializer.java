@@ -0,0 +1,153 @@
+package almetpt.artspace.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Создает pg_trgm индексы из db/postgresql/trigram-indexes.sql для узлов, которые ищут подстроки в БД
+ * (без полнотекстового индекса в памяти). Выполняется только на PostgreSQL, в фоне после старта:
+ * построение GIN на больших таблицах занимает минуты, и приложение не ждет его.
+ * Вне миграций, потому что расширению нужны права, которых у пользователя приложения может не быть.
+ * Если прав на CREATE EXTENSION нет, приложение работает, а поиск остается последовательным сканированием.
+ * <p>
+ * Прерванный или упавший CREATE INDEX CONCURRENTLY оставляет невалидный индекс, который IF NOT EXISTS
+ * пропустил бы навсегда, поэтому перед каждым индексом проверяется pg_index.indisvalid
+ * и невалидный индекс пересоздается.
+ */
+@Slf4j
+@Component
+public class TrigramIndexInitializer {
+
+    private static final String SCRIPT = "db/postgresql/trigram-indexes.sql";
+    private static final Pattern CREATE_INDEX =
+            Pattern.compile("CREATE INDEX CONCURRENTLY IF NOT EXISTS (\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final String INDEX_VALID = "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+            + "WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace";
+
+    private final DataSource dataSource;
+
+    @Value("${catalog.search.trigram-indexes:true}")
+    private boolean enabled;
+
+    public TrigramIndexInitializer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::createIndexes, "trigram-index-builder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void createIndexes() {
+        // CREATE INDEX CONCURRENTLY не выполняется внутри транзакции: соединение в режиме autocommit
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+            connection.setAutoCommit(true);
+            int failed = 0;
+            for (String sql : statements()) {
+                Matcher index = CREATE_INDEX.matcher(sql);
+                if (!index.lookingAt()) {
+                    // CREATE EXTENSION: без него индексы не создать, ошибка прерывает весь скрипт
+                    execute(connection, sql);
+                } else if (!createIndex(connection, index.group(1), sql)) {
+                    failed++;
+                }
+            }
+            if (failed == 0) {
+                log.info("Триграммные индексы поиска проверены ({})", SCRIPT);
+            }
+        } catch (SQLException | IOException e) {
+            log.warn("Не удалось создать триграммные индексы, поиск подстрок будет выполняться без них", e);
+        }
+    }
+
+    private boolean createIndex(Connection connection, String name, String sql) {
+        try {
+            Boolean valid = isValid(connection, name);
+            if (Boolean.TRUE.equals(valid)) {
+                return true;
+            }
+            if (valid != null) {
+                log.warn("Триграммный индекс {} невалиден (построение было прервано), пересоздается", name);
+                execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            }
+            long started = System.nanoTime();
+            execute(connection, sql);
+            log.info("Триграммный индекс {} построен за {} мс", name, (System.nanoTime() - started) / 1_000_000);
+            return true;
+        } catch (SQLException e) {
+            log.error("Не удалось построить триграммный индекс {}, поиск по этому полю идет без него", name, e);
+            dropInvalid(connection, name);
+            return false;
+        }
+    }
+
+    // Невалидный индекс не используется в запросах, но замедляет запись: убираем сразу, не дожидаясь следующего старта
+    private void dropInvalid(Connection connection, String name) {
+        try {
+            if (Boolean.FALSE.equals(isValid(connection, name))) {
+                execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось удалить невалидный индекс {}, он будет пересоздан при следующем старте", name, e);
+        }
+    }
+
+    /** null - индекса нет. */
+    private static Boolean isValid(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INDEX_VALID)) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    // Скрипт из одиночных команд через ";" и строчных комментариев "--"
+    private static List<String> statements() throws IOException {
+        String script = new ClassPathResource(SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String sql : withoutComments.toString().split(";")) {
+            if (!sql.isBlank()) {
+                statements.add(sql.trim());
+            }
+        }
+        return statements;
+    }
+}
@@ -1,6 +1,7 @@
 package almetpt.artspace.config;
 
 import almetpt.artspace.config.jwt.JwtAuthenticationFilter;
+import almetpt.artspace.config.jwt.JwtLogoutHandler;
 import almetpt.artspace.service.userdetails.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -13,7 +14,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy; // Важно
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -31,8 +32,9 @@ import static almetpt.artspace.constants.UserRoleConstants.ADMIN;
 public class WebSecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final JwtLogoutHandler jwtLogoutHandler;
 
     @Value("${spring.mvc.cors.allowed-origins}")
     private String allowedOrigins;
@@ -58,11 +60,13 @@ public class WebSecurityConfig {
 
 
     public WebSecurityConfig(CustomUserDetailsService userDetailsService,
-                            BCryptPasswordEncoder bCryptPasswordEncoder,
-                            JwtAuthenticationFilter jwtAuthenticationFilter) {
+                            PasswordEncoder passwordEncoder,
+                            JwtAuthenticationFilter jwtAuthenticationFilter,
+                            JwtLogoutHandler jwtLogoutHandler) {
         this.userDetailsService = userDetailsService;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordEncoder = passwordEncoder;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.jwtLogoutHandler = jwtLogoutHandler;
     }
 
     private final List<String> RESOURCES_WHITE_LIST = List.of(
@@ -90,7 +94,7 @@ public class WebSecurityConfig {
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(bCryptPasswordEncoder);
+        provider.setPasswordEncoder(passwordEncoder); // BCrypt на ограниченном пуле (BoundedPasswordEncoder)
         return provider;
     }
 
@@ -113,7 +117,8 @@ public class WebSecurityConfig {
                 // Все запросы к /admin/** требуют роли ADMIN.
                 // @PreAuthorize на контроллерах/методах также будет работать.
                 .requestMatchers("/admin/**").hasRole(ADMIN) // Это для примера, если есть /admin в API
-                .requestMatchers("/users/getAll", "/users/add", "/users/update", "/users/delete/**").hasRole(ADMIN) // Защищаем CRUD пользователей
+                .requestMatchers("/actuator/**").hasRole(ADMIN) // Метрики (кэши и т.п.)
+                .requestMatchers("/users/getAll", "/users/scroll", "/users/add", "/users/addAll", "/users/update", "/users/delete/**", "/users/deleteAll").hasRole(ADMIN) // Защищаем CRUD пользователей
                 // Остальные запросы требуют аутентификации (т.е. валидного JWT)
                 .anyRequest().authenticated()
             )
@@ -121,6 +126,7 @@ public class WebSecurityConfig {
             // .formLogin(form -> form...)
             .logout(logout -> logout
                 .logoutUrl("/auth/logout") // Убедись, что этот URL обрабатывается в AuthController
+                .addLogoutHandler(jwtLogoutHandler) // Отзываем токен, а не только удаляем куку
                 .logoutSuccessHandler((request, response, authentication) -> SecurityContextHolder.clearContext()) // Просто очищаем контекст
                 .deleteCookies(jwtCookieName) // Удаляем нашу JWT куку
                 .permitAll()
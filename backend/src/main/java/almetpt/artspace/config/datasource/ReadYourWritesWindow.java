@@ -0,0 +1,59 @@
+package almetpt.artspace.config.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Окно read-your-writes: после коммита пишущей транзакции пользователь в течение окна читает
+ * с основного сервера, чтобы не увидеть на отстающей реплике данные до своего же изменения.
+ * Остальные пользователи продолжают читать с реплик.
+ * Окно хранится в памяти процесса: запрос пользователя на другой узел пойдет на реплику.
+ */
+public class ReadYourWritesWindow implements TransactionExecutionListener {
+
+    private static final long MAX_USERS = 100_000;
+
+    // null - окно выключено (datasource.replicas.read-your-writes=0)
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesWindow(Duration window) {
+        this.recentWriters = window.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(MAX_USERS)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (recentWriters == null || commitFailure != null || transaction.isReadOnly()) {
+            return;
+        }
+        String user = currentUser();
+        if (user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    public boolean requiresPrimary() {
+        if (recentWriters == null) {
+            return false;
+        }
+        String user = currentUser();
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
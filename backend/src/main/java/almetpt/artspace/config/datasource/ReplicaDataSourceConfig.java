@@ -0,0 +1,86 @@
+package almetpt.artspace.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик: транзакции @Transactional(readOnly = true) получают соединение с реплики,
+ * все остальные (запись, Flyway, JdbcTemplate вне транзакции) - с основного сервера из spring.datasource.*.
+ * LazyConnectionDataSourceProxy берет физическое соединение только на первом запросе, когда
+ * менеджер транзакций уже пометил его read-only, и по этому признаку выбирает источник.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    // Недоступная реплика не должна задерживать запрос надолго: после таймаута он уйдет на основной сервер
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 2000;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(@Value("${datasource.replicas.read-your-writes:5s}") Duration window) {
+        return new ReadYourWritesWindow(window);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties properties,
+                                                      ReadYourWritesWindow readYourWritesWindow,
+                                                      @Value("${datasource.replicas.urls:}") List<String> urls,
+                                                      @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                                      @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                                      @Value("${datasource.replicas.max-lag:10s}") Duration maxLag,
+                                                      MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(url);
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MS);
+            // Реплика, недоступная при старте, не мешает запуску: до восстановления читает основной сервер
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            log.warn("datasource.replicas.enabled=true, но datasource.replicas.urls пуст: чтение идет с основного сервера");
+        }
+        ReplicaRoutingDataSource replicaDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesWindow, maxLag);
+        Gauge.builder("datasource.replicas.healthy", replicaDataSource, ReplicaRoutingDataSource::healthyReplicas)
+                .description("Реплики, которые сейчас принимают чтение")
+                .register(meterRegistry);
+        return replicaDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
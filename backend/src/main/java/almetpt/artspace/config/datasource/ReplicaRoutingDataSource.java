@@ -0,0 +1,128 @@
+package almetpt.artspace.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Соединения для read-only транзакций: по кругу с исправных реплик, иначе с основного сервера.
+ * Реплика исправна, если отвечает и отстает не больше чем на max-lag; проверка идет по расписанию,
+ * а реплика, не выдавшая соединение, выключается сразу, не дожидаясь проверки.
+ * Пользователь внутри окна {@link ReadYourWritesWindow} читает с основного сервера.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    // Отставание в секундах; 0, если сервер не реплика или уже применил весь полученный WAL (без записи на основном
+    // pg_last_xact_replay_timestamp() стоит на месте, и разница с now() растет, хотя реплика не отстает)
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesWindow readYourWrites;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                    ReadYourWritesWindow readYourWrites, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWrites = readYourWrites;
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!readYourWrites.requiresPrimary()) {
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.setHealthy(false, e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Реплики подключаются с учетными данными из datasource.replicas.*");
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.setHealthy(false, "соединение не прошло проверку");
+                    continue;
+                }
+                double lag = lagSeconds(connection);
+                replica.setHealthy(lag <= maxLag.toMillis() / 1000.0, "отставание " + lag + " с");
+            } catch (SQLException e) {
+                replica.setHealthy(false, e.getMessage());
+            }
+        }
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private static double lagSeconds(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            return resultSet.getDouble(1);
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void setHealthy(boolean healthy, String reason) {
+            if (this.healthy != healthy) {
+                this.healthy = healthy;
+                if (healthy) {
+                    log.info("Реплика {} снова принимает чтение", dataSource.getJdbcUrl());
+                } else {
+                    log.warn("Реплика {} исключена из чтения, запросы идут на основной сервер: {}", dataSource.getJdbcUrl(), reason);
+                }
+            }
+        }
+    }
+}
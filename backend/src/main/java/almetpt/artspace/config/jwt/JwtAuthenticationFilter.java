@@ -1,6 +1,9 @@
 package almetpt.artspace.config.jwt;
 
+import almetpt.artspace.service.userdetails.CustomUserDetails;
 import almetpt.artspace.service.userdetails.CustomUserDetailsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -9,6 +12,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -17,6 +22,11 @@ import org.springframework.util.StringUtils; // Для проверки стро
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -24,14 +34,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final CustomUserDetailsService userDetailsService;
+    private final JwtRevocationList revocationList;
 
     // Используем имя куки для JWT, определенное в WebSecurityConfig
     @Value("${jwt.cookie-name:jwt-token}")
     private String jwtCookieName;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, CustomUserDetailsService userDetailsService) {
+    // Режим "доверенных claims": пользователь строится из userId/roles токена без запроса к БД.
+    // Раз в revalidate-interval claims сверяются с БД, чтобы заметить удаление пользователя или смену роли.
+    private final boolean trustedClaimsEnabled;
+
+    private static final int MAX_REVALIDATION_ENTRIES = 10_000;
+
+    // Результат сверки живет revalidate-interval; при переполнении Caffeine вытесняет редко используемые записи
+    private final Cache<String, Revalidation> revalidations;
+
+    public JwtAuthenticationFilter(JwtUtils jwtUtils,
+                                   CustomUserDetailsService userDetailsService,
+                                   JwtRevocationList revocationList,
+                                   @Value("${jwt.trusted-claims.enabled:false}") boolean trustedClaimsEnabled,
+                                   @Value("${jwt.trusted-claims.revalidate-interval:60000}") long revalidateIntervalMs) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
+        this.trustedClaimsEnabled = trustedClaimsEnabled;
+        this.revalidations = Caffeine.newBuilder()
+                .maximumSize(MAX_REVALIDATION_ENTRIES)
+                .expireAfterWrite(Duration.ofMillis(revalidateIntervalMs))
+                .build();
     }
 
     @Override
@@ -39,11 +69,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            // Добавлена проверка jwt на null и пустоту перед валидацией
-            if (StringUtils.hasText(jwt) && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            // Токен разбирается и проверяется один раз, claims используются дальше
+            Optional<JwtClaims> claims = StringUtils.hasText(jwt) ? jwtUtils.verifyAndExtract(jwt) : Optional.empty();
+            if (claims.isPresent() && revocationList.isRevoked(claims.get())) {
+                log.trace("JWT токен пользователя {} отозван", claims.get().getSubject());
+                claims = Optional.empty();
+            }
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = resolveUserDetails(claims.get());
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
 
@@ -65,6 +100,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolveUserDetails(JwtClaims claims) {
+        if (!trustedClaimsEnabled || claims.getUserId() == null || claims.getRoles().isEmpty()) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+
+        Revalidation revalidation = revalidations.get(claims.getSubject(), username -> {
+            UserDetails fromDb = userDetailsService.loadUserByUsername(username);
+            log.trace("Claims пользователя {} сверены с БД", username);
+            return new Revalidation(((CustomUserDetails) fromDb).getId(),
+                    fromDb.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        });
+
+        // Если токен выписан до смены роли или пересоздания пользователя, доверять ему нельзя
+        if (!revalidation.matches(claims)) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+
+        List<GrantedAuthority> authorities = claims.getRoles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        return new CustomUserDetails(claims.getUserId(), claims.getSubject(), null, authorities);
+    }
+
+    private record Revalidation(Long userId, Set<String> authorities) {
+
+        private boolean matches(JwtClaims claims) {
+            return userId.equals(claims.getUserId())
+                    && authorities.size() == claims.getRoles().size()
+                    && authorities.containsAll(claims.getRoles());
+        }
+    }
+
     private String parseJwt(HttpServletRequest request) {
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
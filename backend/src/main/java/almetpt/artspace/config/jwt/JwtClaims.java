@@ -0,0 +1,53 @@
+package almetpt.artspace.config.jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Неизменяемый результат проверки JWT токена.
+ * Создается один раз на запрос в {@link JwtUtils#verifyAndExtract(String)},
+ * чтобы фильтр не разбирал и не проверял подпись токена повторно.
+ */
+public final class JwtClaims {
+
+    private final String tokenId;
+    private final String subject;
+    private final Long userId;
+    private final List<String> roles;
+    private final Instant issuedAt;
+    private final Instant expiration;
+
+    public JwtClaims(String tokenId, String subject, Long userId, List<String> roles,
+                     Instant issuedAt, Instant expiration) {
+        this.tokenId = tokenId;
+        this.subject = subject;
+        this.userId = userId;
+        this.roles = roles == null ? List.of() : List.copyOf(roles);
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiration() {
+        return expiration;
+    }
+}
@@ -0,0 +1,44 @@
+package almetpt.artspace.config.jwt;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * При выходе из системы отзывает JWT из куки, чтобы скопированный токен
+ * перестал работать сразу, а не по истечении jwt.expiration.
+ */
+@Slf4j
+@Component
+public class JwtLogoutHandler implements LogoutHandler {
+
+    private final JwtUtils jwtUtils;
+    private final JwtRevocationList revocationList;
+
+    @Value("${jwt.cookie-name:jwt-token}")
+    private String jwtCookieName;
+
+    public JwtLogoutHandler(JwtUtils jwtUtils, JwtRevocationList revocationList) {
+        this.jwtUtils = jwtUtils;
+        this.revocationList = revocationList;
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return;
+        }
+        for (Cookie cookie : cookies) {
+            if (jwtCookieName.equals(cookie.getName())) {
+                jwtUtils.verifyAndExtract(cookie.getValue()).ifPresent(revocationList::revoke);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package almetpt.artspace.config.jwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Список отозванных JWT токенов (выход из системы, принудительный выход пользователя).
+ * Bloom-фильтр отвечает "точно не отозван" для подавляющего большинства токенов без обращения
+ * к точному множеству; записи точного множества живут до истечения срока действия токена.
+ * Список хранится в памяти процесса и не разделяется между узлами.
+ */
+@Slf4j
+@Component
+public class JwtRevocationList {
+
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    // userId -> момент отзыва, округленный вверх до секунды: все токены пользователя, выписанные до него, недействительны
+    private final Map<Long, Instant> revokedUsers = new ConcurrentHashMap<>();
+
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+    private final long jwtExpirationMs;
+
+    private volatile TokenIdBloomFilter filter;
+
+    public JwtRevocationList(@Value("${jwt.revocation.expected-tokens:100000}") int expectedTokens,
+                             @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                             @Value("${jwt.expiration:86400000}") long jwtExpirationMs) {
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.filter = new TokenIdBloomFilter(expectedTokens, falsePositiveRate);
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        String tokenId = claims.getTokenId();
+        if (tokenId != null && filter.mightContain(tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (revokedUsers.isEmpty() || claims.getUserId() == null || claims.getIssuedAt() == null) {
+            return false;
+        }
+        Instant revokedAt = revokedUsers.get(claims.getUserId());
+        return revokedAt != null && claims.getIssuedAt().isBefore(revokedAt);
+    }
+
+    public void revoke(JwtClaims claims) {
+        if (claims.getTokenId() == null) {
+            log.warn("Токен пользователя {} выписан без jti и не может быть отозван по отдельности", claims.getSubject());
+            return;
+        }
+        Instant expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration()
+                : Instant.now().plusMillis(jwtExpirationMs);
+        revokedTokens.put(claims.getTokenId(), expiresAt);
+        filter.put(claims.getTokenId());
+        log.debug("JWT {} пользователя {} отозван до {}", claims.getTokenId(), claims.getSubject(), expiresAt);
+    }
+
+    public void revokeAllForUser(Long userId) {
+        // iat хранится с точностью до секунды: токен, выписанный в секунду отзыва до него, округляется вниз
+        // и остается отозванным, а токен со следующей секундой уже действителен
+        Instant now = Instant.now();
+        Instant revokedAt = now.truncatedTo(ChronoUnit.SECONDS);
+        revokedUsers.put(userId, revokedAt.equals(now) ? revokedAt : revokedAt.plusSeconds(1));
+        log.info("Отозваны все JWT токены пользователя с ID {}", userId);
+    }
+
+    /**
+     * Удаляет записи об уже истекших токенах и перестраивает Bloom-фильтр,
+     * чтобы доля ложных срабатываний не росла со временем.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:300000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        Instant oldestValidIssue = now.minusMillis(jwtExpirationMs);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt.isBefore(oldestValidIssue));
+
+        TokenIdBloomFilter rebuilt = new TokenIdBloomFilter(Math.max(expectedTokens, revokedTokens.size() * 2), falsePositiveRate);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        // Токен, отозванный во время перестроения, мог не попасть в новый фильтр
+        revokedTokens.keySet().forEach(rebuilt::put);
+    }
+}
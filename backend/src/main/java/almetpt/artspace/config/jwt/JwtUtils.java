@@ -4,13 +4,19 @@ import almetpt.artspace.service.userdetails.CustomUserDetails;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @Component
@@ -27,10 +33,16 @@ public class JwtUtils {
     @Value("${jwt.cookie-name:jwt-token}")
     private String jwtCookieName; // Это для информации, напрямую здесь не используется, но важно для консистентности
 
+    // Ключ и парсер потокобезопасны, поэтому строим их один раз при старте,
+    // а не на каждый запрос (Base64-декодирование секрета + новый parserBuilder)
+    private Key signingKey;
+    private JwtParser jwtParser;
+
     public String generateJwtToken(Authentication authentication) {
         CustomUserDetails userPrincipal = (CustomUserDetails) authentication.getPrincipal();
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // jti нужен для отзыва токена
                 .setSubject(userPrincipal.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
@@ -40,38 +52,35 @@ public class JwtUtils {
                 .compact();
     }
 
-    private Key key() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
-    public Long getUserIdFromJwtToken(String token) { // Метод для извлечения ID пользователя из токена
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("userId", Long.class);
+    private Key key() {
+        return signingKey;
     }
 
-
-    public boolean validateJwtToken(String authToken) {
-        if (authToken == null || authToken.isEmpty()) {
+    /**
+     * Проверяет подпись и срок действия токена и за один разбор извлекает claims.
+     * @param token JWT строка из куки
+     * @return claims токена или пустой Optional, если токен невалиден
+     */
+    public Optional<JwtClaims> verifyAndExtract(String token) {
+        if (token == null || token.isEmpty()) {
             log.trace("JWT token is null or empty.");
-            return false;
+            return Optional.empty();
         }
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            Claims body = jwtParser.parseClaimsJws(token).getBody();
+            return Optional.of(new JwtClaims(
+                    body.getId(),
+                    body.getSubject(),
+                    body.get("userId", Long.class),
+                    parseRoles(body.get("roles")),
+                    body.getIssuedAt() != null ? body.getIssuedAt().toInstant() : null,
+                    body.getExpiration() != null ? body.getExpiration().toInstant() : null));
         } catch (MalformedJwtException e) {
             log.error("Недействительный JWT токен: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -82,7 +91,44 @@ public class JwtUtils {
             // Эта ошибка ("JWT strings must contain exactly 2 period characters. Found: 0")
             // будет возникать, если передана не JWT строка (например, ID сессии).
             log.error("JWT claims строка пуста или невалидна: {}", e.getMessage());
+        } catch (JwtException e) {
+            log.error("Подпись JWT токена не прошла проверку: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    // Роли пишутся в токен как authorities.toString(), т.е. "[ROLE_USER]"
+    private static List<String> parseRoles(Object rolesClaim) {
+        if (rolesClaim instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).toList();
         }
-        return false;
+        if (rolesClaim == null) {
+            return List.of();
+        }
+        String roles = rolesClaim.toString().trim();
+        if (roles.startsWith("[") && roles.endsWith("]")) {
+            roles = roles.substring(1, roles.length() - 1);
+        }
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .toList();
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    public Long getUserIdFromJwtToken(String token) { // Метод для извлечения ID пользователя из токена
+        return jwtParser.parseClaimsJws(token)
+                .getBody()
+                .get("userId", Long.class);
+    }
+
+
+    public boolean validateJwtToken(String authToken) {
+        return verifyAndExtract(authToken).isPresent();
     }
 }
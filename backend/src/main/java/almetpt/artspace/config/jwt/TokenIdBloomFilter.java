@@ -0,0 +1,66 @@
+package almetpt.artspace.config.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom-фильтр по идентификаторам токенов (jti).
+ * Проверка mightContain не выделяет память: хэши считаются прямо по символам строки.
+ * Удалять элементы нельзя, поэтому JwtRevocationList периодически строит фильтр заново.
+ */
+final class TokenIdBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    TokenIdBloomFilter(int expectedItems, double falsePositiveRate) {
+        int n = Math.max(expectedItems, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+    }
+
+    void put(String value) {
+        int h1 = value.hashCode();
+        int h2 = secondHash(value);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        int h1 = value.hashCode();
+        int h2 = secondHash(value);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // FNV-1a с финальным перемешиванием, независимый от String.hashCode
+    private static int secondHash(String value) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h | 1; // нечетный шаг, чтобы k позиций не совпадали
+    }
+}
@@ -2,7 +2,10 @@ package almetpt.artspace.controllers;
 
 import almetpt.artspace.dto.ArtistDTO;
 import almetpt.artspace.dto.ArtistSearchDTO;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.model.Artist;
+import almetpt.artspace.repository.TableVersions;
 import almetpt.artspace.service.ArtistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,9 +14,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @Slf4j
@@ -23,8 +28,8 @@ public class ArtistController extends GenericController<Artist, ArtistDTO> {
 
     private final ArtistService artistService;
 
-    public ArtistController(ArtistService artistService) {
-        super(artistService);
+    public ArtistController(ArtistService artistService, TableVersions tableVersions) {
+        super(artistService, tableVersions);
         this.artistService = artistService;
     }
 
@@ -33,10 +38,11 @@ public class ArtistController extends GenericController<Artist, ArtistDTO> {
     public ResponseEntity<Page<ArtistDTO>> findByName(
             @Parameter(description = "Часть имени художника") @RequestParam String name,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        return ResponseEntity.ok(artistService.findByName(name, pageable));
+        return conditional(request, () -> artistService.findByName(name, pageable));
     }
     
     @Operation(summary = "Поиск художников по стране происхождения", description = "Позволяет найти художников по стране")
@@ -44,20 +50,24 @@ public class ArtistController extends GenericController<Artist, ArtistDTO> {
     public ResponseEntity<Page<ArtistDTO>> findByCountry(
             @Parameter(description = "Страна происхождения") @RequestParam String country,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        return ResponseEntity.ok(artistService.findByCountry(country, pageable));
+        return conditional(request, () -> artistService.findByCountry(country, pageable));
     }
     
     @Operation(summary = "Расширенный поиск художников", description = "Позволяет искать художников по нескольким параметрам")
     @PostMapping("/search")
-    public ResponseEntity<Page<ArtistDTO>> search(
+    public ResponseEntity<Slice<ArtistDTO>> search(
             @Parameter(description = "Параметры поиска") @RequestBody ArtistSearchDTO searchDTO,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand,
+            @Parameter(description = "Общее число записей: exact (COUNT), estimate (приблизительно), none (без подсчёта)") @RequestParam(defaultValue = "exact") String total) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        return ResponseEntity.ok(artistService.search(searchDTO, pageable));
+        return ResponseEntity.ok(artistService.search(searchDTO, pageable, FieldSelection.of(fields, expand), PageTotal.of(total)));
     }
 }
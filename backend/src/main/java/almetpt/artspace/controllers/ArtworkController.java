@@ -2,8 +2,12 @@ package almetpt.artspace.controllers;
 
 import almetpt.artspace.dto.ArtworkDTO;
 import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.CursorPage;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.model.ArtCategory;
 import almetpt.artspace.model.Artwork;
+import almetpt.artspace.repository.TableVersions;
 import almetpt.artspace.service.ArtworkService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,9 +16,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @Slf4j
@@ -24,8 +30,8 @@ public class ArtworkController extends GenericController<Artwork, ArtworkDTO> {
 
     private final ArtworkService artworkService;
 
-    public ArtworkController(ArtworkService artworkService) {
-        super(artworkService);
+    public ArtworkController(ArtworkService artworkService, TableVersions tableVersions) {
+        super(artworkService, tableVersions);
         this.artworkService = artworkService;
     }
 
@@ -34,16 +40,18 @@ public class ArtworkController extends GenericController<Artwork, ArtworkDTO> {
     public ResponseEntity<Page<ArtworkDTO>> findByTitle(
             @Parameter(description = "Часть названия произведения") @RequestParam String title,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("title"));
-        return ResponseEntity.ok(artworkService.findByTitle(title, pageable));
+        return conditional(request, () -> artworkService.findByTitle(title, pageable));
     }
 
     @GetMapping("/search/by-category")
     public ResponseEntity<Page<ArtworkDTO>> findByCategory(
             @RequestParam ArtCategory category,
-            @Parameter(hidden = true) Pageable pageable) {
-        return ResponseEntity.ok(artworkService.findByCategory(category, pageable));
+            @Parameter(hidden = true) Pageable pageable,
+            WebRequest request) {
+        return conditional(request, () -> artworkService.findByCategory(category, pageable));
     }
 
     @Operation(summary = "Поиск произведений по имени художника", description = "Позволяет найти произведения по имени их создателя")
@@ -51,18 +59,33 @@ public class ArtworkController extends GenericController<Artwork, ArtworkDTO> {
     public ResponseEntity<Page<ArtworkDTO>> findByArtistName(
             @Parameter(description = "Имя художника") @RequestParam String artistName,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("title"));
-        return ResponseEntity.ok(artworkService.findByArtistName(artistName, pageable));
+        return conditional(request, () -> artworkService.findByArtistName(artistName, pageable));
     }
 
     @Operation(summary = "Расширенный поиск произведений", description = "Позволяет искать произведения по нескольким параметрам")
     @PostMapping("/search")
-    public ResponseEntity<Page<ArtworkDTO>> search(
+    public ResponseEntity<Slice<ArtworkDTO>> search(
             @Parameter(description = "Параметры поиска") @RequestBody ArtworkSearchDTO searchDTO,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand,
+            @Parameter(description = "Общее число записей: exact (COUNT), estimate (приблизительно), none (без подсчёта)") @RequestParam(defaultValue = "exact") String total) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("title"));
-        return ResponseEntity.ok(artworkService.search(searchDTO, pageable));
+        return ResponseEntity.ok(artworkService.search(searchDTO, pageable, FieldSelection.of(fields, expand), PageTotal.of(total)));
+    }
+
+    @Operation(summary = "Расширенный поиск с курсорной пагинацией", description = "Страница после курсора after, без подсчёта общего количества; сортировка по названию")
+    @PostMapping("/search/scroll")
+    public ResponseEntity<CursorPage<ArtworkDTO>> searchScroll(
+            @Parameter(description = "Параметры поиска") @RequestBody ArtworkSearchDTO searchDTO,
+            @Parameter(description = "Курсор nextCursor из предыдущего ответа") @RequestParam(required = false) String after,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand) {
+        return ResponseEntity.ok(artworkService.search(searchDTO, Sort.by("title"), size, after, FieldSelection.of(fields, expand)));
     }
 }
@@ -1,9 +1,11 @@
 package almetpt.artspace.controllers;
 
+import almetpt.artspace.config.jwt.JwtLogoutHandler;
 import almetpt.artspace.config.jwt.JwtUtils;
 import almetpt.artspace.constants.UserRoleConstants;
 import almetpt.artspace.dto.LoginDTO;
 import almetpt.artspace.dto.UserDTO;
+import almetpt.artspace.exception.TooManyRequestsException;
 import almetpt.artspace.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +14,7 @@ import jakarta.servlet.http.HttpServletRequest; // Добавлен импорт
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +34,7 @@ public class AuthController {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final JwtLogoutHandler jwtLogoutHandler;
 
     // Используем имя куки для JWT, определенное в WebSecurityConfig
     @Value("${jwt.cookie-name:jwt-token}")
@@ -44,10 +48,12 @@ public class AuthController {
 
     public AuthController(UserService userService,
             AuthenticationManager authenticationManager,
-            JwtUtils jwtUtils) {
+            JwtUtils jwtUtils,
+            JwtLogoutHandler jwtLogoutHandler) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
+        this.jwtLogoutHandler = jwtLogoutHandler;
     }
 
     @Operation(summary = "Регистрация нового пользователя", description = "Позволяет зарегистрировать нового пользователя в системе")
@@ -70,6 +76,9 @@ public class AuthController {
 
             UserDTO createdUser = userService.create(userDTO);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+        } catch (TooManyRequestsException e) {
+            log.warn("Регистрация {} отклонена: пул хэширования паролей перегружен", userDTO.getLogin());
+            return tooManyRequests();
         } catch (Exception e) {
             log.error("Ошибка при регистрации пользователя {}: {}", userDTO.getLogin(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build(); // 400 Bad Request
@@ -103,17 +112,39 @@ public class AuthController {
             log.info("Успешный вход пользователя: {}, JWT токен установлен в куки '{}'", loginRequest.getLogin(), jwtCookieName);
             return ResponseEntity.ok().body("Аутентификация успешна");
         } catch (Exception e) {
+            if (isOverloaded(e)) {
+                log.warn("Вход {} отклонен: пул хэширования паролей перегружен", loginRequest.getLogin());
+                return tooManyRequests();
+            }
             log.error("Ошибка аутентификации для {}: {}", loginRequest.getLogin(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Неверный логин или пароль");
         }
     }
 
+    // DaoAuthenticationProvider может обернуть отказ пула в InternalAuthenticationServiceException
+    private static boolean isOverloaded(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TooManyRequestsException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
     @Operation(summary = "Выход из системы", description = "Завершение сессии пользователя")
     @PostMapping("/logout")
     public ResponseEntity<String> logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
         if (authentication != null) {
              new SecurityContextLogoutHandler().logout(request, response, authentication);
         }
+        // Отзываем сам токен: удаления куки недостаточно, если токен был скопирован
+        jwtLogoutHandler.logout(request, response, authentication);
         
         // Удаляем куку с JWT токеном
         Cookie cookie = new Cookie(jwtCookieName, null);
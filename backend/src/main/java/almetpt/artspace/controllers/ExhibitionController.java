@@ -2,7 +2,10 @@ package almetpt.artspace.controllers;
 
 import almetpt.artspace.dto.ExhibitionDTO;
 import almetpt.artspace.dto.ExhibitionSearchDTO;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.repository.TableVersions;
 import almetpt.artspace.service.ExhibitionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,9 +14,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @Slf4j
@@ -23,8 +28,8 @@ public class ExhibitionController extends GenericController<Exhibition, Exhibiti
 
     private final ExhibitionService exhibitionService;
 
-    public ExhibitionController(ExhibitionService exhibitionService) {
-        super(exhibitionService);
+    public ExhibitionController(ExhibitionService exhibitionService, TableVersions tableVersions) {
+        super(exhibitionService, tableVersions);
         this.exhibitionService = exhibitionService;
     }
 
@@ -47,20 +52,24 @@ public class ExhibitionController extends GenericController<Exhibition, Exhibiti
     public ResponseEntity<Page<ExhibitionDTO>> findByTitle(
             @Parameter(description = "Часть названия выставки") @RequestParam String title,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("startDate").descending());
-        return ResponseEntity.ok(exhibitionService.findByTitle(title, pageable));
+        return conditional(request, () -> exhibitionService.findByTitle(title, pageable));
     }
 
     @Operation(summary = "Расширенный поиск выставок", description = "Позволяет искать выставки по нескольким параметрам")
     @PostMapping("/search")
-    public ResponseEntity<Page<ExhibitionDTO>> search(
+    public ResponseEntity<Slice<ExhibitionDTO>> search(
             @Parameter(description = "Параметры поиска") @RequestBody ExhibitionSearchDTO searchDTO,
             @Parameter(description = "Номер страницы (начиная с 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand,
+            @Parameter(description = "Общее число записей: exact (COUNT), estimate (приблизительно), none (без подсчёта)") @RequestParam(defaultValue = "exact") String total) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("startDate").descending());
-        return ResponseEntity.ok(exhibitionService.search(searchDTO, pageable));
+        return ResponseEntity.ok(exhibitionService.search(searchDTO, pageable, FieldSelection.of(fields, expand), PageTotal.of(total)));
     }
 }
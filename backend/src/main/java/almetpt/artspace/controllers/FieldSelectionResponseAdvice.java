@@ -0,0 +1,54 @@
+package almetpt.artspace.controllers;
+
+import almetpt.artspace.dto.Expandable;
+import almetpt.artspace.dto.FieldSelection;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Оставляет в JSON-ответе только поля из параметров fields= и expand=.
+ * Загрузку самих списков id сервисы пропускают по тому же {@link FieldSelection}.
+ */
+@RestControllerAdvice
+public class FieldSelectionResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        FieldSelection selection = FieldSelection.of(httpRequest.getParameter("fields"), httpRequest.getParameter("expand"));
+        if (selection.isAll()) {
+            return;
+        }
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER_ID, new SelectionFilter(selection)));
+    }
+
+    private static final class SelectionFilter extends SimpleBeanPropertyFilter {
+
+        private final FieldSelection selection;
+
+        private SelectionFilter(FieldSelection selection) {
+            this.selection = selection;
+        }
+
+        @Override
+        protected boolean include(PropertyWriter writer) {
+            return selection.includes(writer.getName(), writer.getAnnotation(Expandable.class) != null);
+        }
+    }
+}
@@ -1,46 +1,78 @@
 package almetpt.artspace.controllers;
 
+import almetpt.artspace.dto.CursorPage;
+import almetpt.artspace.dto.DeletionReport;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.dto.GenericDTO;
 import almetpt.artspace.model.GenericModel;
+import almetpt.artspace.repository.TableVersions;
 import almetpt.artspace.service.GenericService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page; // Import Page
 import org.springframework.data.domain.Pageable; // Import Pageable
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @Slf4j
 public abstract class GenericController<E extends GenericModel, D extends GenericDTO> {
     protected GenericService<E, D> service;
+    protected final TableVersions tableVersions;
 
-    protected GenericController(GenericService<E, D> genericService) {
+    protected GenericController(GenericService<E, D> genericService, TableVersions tableVersions) {
         this.service = genericService;
+        this.tableVersions = tableVersions;
     }
 
     @Operation(description = "Получить запись по Id", method = "getOneById")
     @GetMapping(value = "/getOneById") // More specific than @RequestMapping
-    public ResponseEntity<D> getOneById(@RequestParam(value = "id") Long id) {
-        return ResponseEntity.ok(service.getOne(id));
+    public ResponseEntity<D> getOneById(@RequestParam(value = "id") Long id,
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand,
+            WebRequest request) {
+        return conditional(request, id, () -> service.getOne(id, FieldSelection.of(fields, expand)));
     }
 
     // This method will handle GET requests to the base path of the controller
     // e.g., GET /users?page=0&size=10, GET /artworks?page=0&size=10
     @Operation(description = "Получить все записи с пагинацией", method = "getAllPaginated")
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Page<D>> getAll(Pageable pageable) {
-        return ResponseEntity.ok(service.listAll(pageable));
+    public ResponseEntity<Slice<D>> getAll(Pageable pageable,
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand,
+            @Parameter(description = "Общее число записей: exact (COUNT), estimate (приблизительно), none (без подсчёта)") @RequestParam(defaultValue = "exact") String total,
+            WebRequest request) {
+        return conditional(request, () -> service.listAll(pageable, FieldSelection.of(fields, expand), PageTotal.of(total)));
+    }
+
+    // Курсорная пагинация: GET /artworks/scroll?size=50&sort=title, далее ...&after=<nextCursor>
+    @Operation(description = "Получить записи после курсора (без подсчёта общего количества)", method = "scroll")
+    @GetMapping(value = "/scroll", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPage<D>> scroll(
+            @Parameter(description = "Курсор nextCursor из предыдущего ответа; без него - первая страница") @RequestParam(required = false) String after,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "20") int size,
+            @Parameter(hidden = true) Sort sort, // ?sort=title,desc; id добавляется автоматически
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand) {
+        return ResponseEntity.ok(service.scroll(sort, size, after, FieldSelection.of(fields, expand)));
     }
 
     // If you still need a non-paginated list for some specific "/getAll" endpoint
     @Operation(description = "Получить все записи (полный список)", method = "getAllList")
     @GetMapping(value = "/getAll", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<D>> getAllList() {
-        return ResponseEntity.ok(service.listAll());
+    public ResponseEntity<List<D>> getAllList(WebRequest request) {
+        return conditional(request, service::listAll);
     }
 
     @Operation(description = "Создать запись", method = "add")
@@ -51,6 +83,14 @@ public abstract class GenericController<E extends GenericModel, D extends Generi
         return ResponseEntity.status(HttpStatus.CREATED).body(service.create(newEntity));
     }
 
+    @Operation(description = "Создать несколько записей одним запросом", method = "addAll")
+    @PostMapping(value = "/addAll",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<D>> createAll(@RequestBody List<D> newEntities) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.createAll(newEntities));
+    }
+
     @Operation(description = "Обновить запись", method = "update")
     @PutMapping(value = "/update", // More specific
             produces = MediaType.APPLICATION_JSON_VALUE,
@@ -61,10 +101,37 @@ public abstract class GenericController<E extends GenericModel, D extends Generi
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(service.update(updateEntity));
     }
     
+    // В ответе - сколько строк удалено в каждой таблице (вместе с дочерними: билеты, произведения, связи с выставками)
     @Operation(description = "Удалить запись", method = "delete")
     @DeleteMapping(value = "/delete/{id}") // More specific
-    public ResponseEntity<Void> delete(@PathVariable(value = "id") Long id) {
-        service.delete(id);
-        return ResponseEntity.ok().build(); // Return 200 OK on successful deletion
+    public ResponseEntity<DeletionReport> delete(@PathVariable(value = "id") Long id) {
+        return ResponseEntity.ok(service.delete(id));
+    }
+
+    @Operation(description = "Удалить несколько записей", method = "deleteAll")
+    @DeleteMapping(value = "/deleteAll", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DeletionReport> deleteAll(
+            @Parameter(description = "id через запятую") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(service.deleteAll(ids));
+    }
+
+    /**
+     * Условный GET: сначала одним запросом читается версия таблиц ответа (см. {@link TableVersions}),
+     * и при совпадении If-None-Match (или If-Modified-Since не раньше Last-Modified) ответ - 304 без чтения данных.
+     * no-cache: ответ можно хранить, но перед каждым использованием клиент сверяет версию.
+     */
+    protected <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        return conditional(request, null, body);
+    }
+
+    // Ответ про одну запись: ее версия не зависит от изменений других строк той же таблицы
+    protected <T> ResponseEntity<T> conditional(WebRequest request, Long id, Supplier<T> body) {
+        return tableVersions.read(service.versionTables(), id, version -> {
+            // checkNotModified сам выставляет ETag, Last-Modified и, если версия совпала, статус 304
+            if (request.checkNotModified(version.etag(), version.lastModified().toEpochMilli())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+            }
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body.get());
+        });
     }
 }
@@ -1,7 +1,9 @@
 package almetpt.artspace.controllers;
 
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.dto.TicketDTO;
 import almetpt.artspace.model.Ticket;
+import almetpt.artspace.repository.TableVersions;
 import almetpt.artspace.service.TicketService;
 import almetpt.artspace.service.userdetails.CustomUserDetails;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,13 +11,14 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -27,8 +30,8 @@ public class TicketController extends GenericController<Ticket, TicketDTO> {
 
     private final TicketService ticketService;
 
-    public TicketController(TicketService ticketService) {
-        super(ticketService);
+    public TicketController(TicketService ticketService, TableVersions tableVersions) {
+        super(ticketService, tableVersions);
         this.ticketService = ticketService;
     }
 
@@ -56,11 +59,13 @@ public class TicketController extends GenericController<Ticket, TicketDTO> {
     }
 
     @GetMapping("/search/by-exhibition")
-    public ResponseEntity<Page<TicketDTO>> findByExhibition(
+    public ResponseEntity<Slice<TicketDTO>> findByExhibition(
             @RequestParam Long exhibitionId,
-            @Parameter(hidden = true) Pageable pageable) {
+            @Parameter(hidden = true) Pageable pageable,
+            @Parameter(description = "Общее число записей: exact (COUNT), estimate (приблизительно), none (без подсчёта)") @RequestParam(defaultValue = "exact") String total,
+            WebRequest request) {
 
-        return ResponseEntity.ok(ticketService.findByExhibitionId(exhibitionId, pageable));
+        return conditional(request, () -> ticketService.findByExhibitionId(exhibitionId, pageable, PageTotal.of(total)));
     }
 
 }
@@ -1,25 +1,35 @@
 package almetpt.artspace.controllers;
 
+import almetpt.artspace.config.jwt.JwtRevocationList;
 import almetpt.artspace.constants.UserRoleConstants;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.dto.UserDTO;
+import almetpt.artspace.dto.UserImportResultDTO;
 import almetpt.artspace.dto.UserSearchDTO; // Импорт UserSearchDTO
 import almetpt.artspace.model.User;
+import almetpt.artspace.repository.TableVersions;
+import almetpt.artspace.service.UserImportService;
 import almetpt.artspace.service.UserService;
 import almetpt.artspace.service.userdetails.CustomUserDetails;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault; // Для дефолтных значений пагинации
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @Slf4j
 @RequestMapping("/users")
@@ -27,13 +37,18 @@ import org.springframework.web.bind.annotation.*;
 public class UserController extends GenericController<User, UserDTO> {
 
     private final UserService userService;
+    private final JwtRevocationList jwtRevocationList;
+    private final UserImportService userImportService;
 
     private static final String ADMIN_USERNAME = "admin";
     private static final Long ADMIN_ID_FALLBACK = 0L;
 
-    public UserController(UserService userService) {
-        super(userService);
+    public UserController(UserService userService, JwtRevocationList jwtRevocationList,
+                          UserImportService userImportService, TableVersions tableVersions) {
+        super(userService, tableVersions);
         this.userService = userService;
+        this.jwtRevocationList = jwtRevocationList;
+        this.userImportService = userImportService;
     }
 
     // GET /users (с пагинацией) - наследуется от GenericController
@@ -128,9 +143,45 @@ public class UserController extends GenericController<User, UserDTO> {
     @Operation(summary = "Расширенный поиск пользователей", description = "Позволяет искать пользователей по нескольким параметрам")
     @PostMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<UserDTO>> search(
+    public ResponseEntity<Slice<UserDTO>> search(
             @RequestBody UserSearchDTO searchDTO,
-            @PageableDefault(size = 10, sort = "login") Pageable pageable) {
-        return ResponseEntity.ok(userService.search(searchDTO, pageable));
+            @PageableDefault(size = 10, sort = "login") Pageable pageable,
+            @Parameter(description = "Поля ответа через запятую (id возвращается всегда)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Списки id связей через запятую (exhibitionIds, artworkIds, ticketIds)") @RequestParam(required = false) String expand,
+            @Parameter(description = "Общее число записей: exact (COUNT), estimate (приблизительно), none (без подсчёта)") @RequestParam(defaultValue = "exact") String total) {
+        return ResponseEntity.ok(userService.search(searchDTO, pageable, FieldSelection.of(fields, expand), PageTotal.of(total)));
+    }
+
+    @Operation(summary = "Принудительный выход пользователя", description = "Отзывает все ранее выданные JWT токены пользователя")
+    @PostMapping("/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Long id) {
+        jwtRevocationList.revokeAllForUser(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Массовый импорт пользователей",
+            description = "Принимает CSV (text/csv, первая строка - заголовок) или JSON-массив пользователей. " +
+                    "Всем пользователям назначается роль USER. Ошибочные строки попадают в отчет и не прерывают импорт")
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResultDTO> importUsers(
+            @Parameter(description = "Идентификатор импорта для запроса прогресса (уникальный; без него создается на сервере)") @RequestParam(required = false) String importId,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        String createdBy = authentication != null ? authentication.getName() : null;
+        UserImportResultDTO result = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? userImportService.importJson(request.getInputStream(), importId, createdBy)
+                : userImportService.importCsv(request.getInputStream(), importId, createdBy);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Прогресс импорта пользователей", description = "Возвращает текущее состояние импорта по его идентификатору")
+    @GetMapping("/import/{importId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResultDTO> getImportProgress(@PathVariable String importId) {
+        return userImportService.getProgress(importId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 }
@@ -17,5 +17,6 @@ public class ArtistDTO extends GenericDTO {
     private String country;
     private String contactInfo;
     private String photoPath;
+    @Expandable
     private List<Long> artworkIds;
 }
@@ -7,5 +7,6 @@ import lombok.Setter;
 @Setter
 public class ArtistSearchDTO {
     private String name;
+    private String biography;
     private String country;
 }
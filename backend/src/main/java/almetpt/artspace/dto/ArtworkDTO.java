@@ -22,5 +22,6 @@ public class ArtworkDTO extends GenericDTO {
     private ArtCategory category;
     private Long artistId;
     private String artistName;
+    @Expandable
     private List<Long> exhibitionIds;
 }
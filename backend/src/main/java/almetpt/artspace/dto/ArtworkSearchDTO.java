@@ -9,6 +9,7 @@ import java.time.LocalDate;
 @Setter
 public class ArtworkSearchDTO {
     private String title;
+    private String description;
     private ArtCategory category;
     private LocalDate createdAfter;
     private String artistName;
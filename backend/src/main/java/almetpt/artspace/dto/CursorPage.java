@@ -0,0 +1,24 @@
+package almetpt.artspace.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации: записи и курсор для запроса следующей страницы (null - страниц больше нет).
+ * Общее число записей не считается.
+ */
+@Getter
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+    private final int size;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.size = content.size();
+    }
+}
@@ -0,0 +1,28 @@
+package almetpt.artspace.dto;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Результат удаления: сколько строк удалено в каждой таблице (в порядке удаления)
+ * и сколько транзакций на это ушло.
+ */
+@Getter
+public class DeletionReport {
+    private final Map<String, Long> deletedRows = new LinkedHashMap<>();
+    private int transactions;
+
+    public void add(String table, long rows) {
+        deletedRows.merge(table, rows, Long::sum);
+    }
+
+    public void transactionCommitted() {
+        transactions++;
+    }
+
+    public long deleted(String table) {
+        return deletedRows.getOrDefault(table, 0L);
+    }
+}
@@ -0,0 +1,28 @@
+package almetpt.artspace.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница с приблизительным totalElements (total=estimate).
+ * Признак следующей страницы при этом точный: он получен из самой выборки.
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total) {
+        super(content, pageable, total);
+    }
+
+    public boolean isTotalEstimated() {
+        return true;
+    }
+
+    @Override
+    public <U> Page<U> map(Function<? super T, ? extends U> converter) {
+        return new EstimatedPage<>(getConvertedContent(converter), getPageable(), getTotalElements());
+    }
+}
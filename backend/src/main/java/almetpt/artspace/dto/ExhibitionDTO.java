@@ -19,5 +19,6 @@ public class ExhibitionDTO extends GenericDTO {
     private String location;
     private BigDecimal price;
     private String imagePath;
+    @Expandable
     private List<Long> artworkIds;
 }
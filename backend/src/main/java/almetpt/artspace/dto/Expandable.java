@@ -0,0 +1,15 @@
+package almetpt.artspace.dto;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Поле DTO со списком id связей: при выборе полей (fields=/expand=) попадает в ответ
+ * и загружается из БД только по явному запросу, см. {@link FieldSelection}.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Expandable {
+}
@@ -0,0 +1,71 @@
+package almetpt.artspace.dto;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Выбор полей ответа из параметров fields= и expand=.
+ * fields - список полей DTO (id возвращается всегда); expand - списки id связей
+ * (exhibitionIds, artworkIds, ticketIds), которые иначе не загружаются.
+ * Без обоих параметров ответ полный, как и раньше.
+ */
+public final class FieldSelection {
+
+    // Имя Jackson-фильтра на GenericDTO
+    public static final String FILTER_ID = "fieldSelection";
+
+    public static final FieldSelection ALL = new FieldSelection(null, Set.of());
+
+    // null - выбраны все простые поля
+    private final Set<String> fields;
+    private final Set<String> expand;
+
+    private FieldSelection(Set<String> fields, Set<String> expand) {
+        this.fields = fields;
+        this.expand = expand;
+    }
+
+    public static FieldSelection of(String fields, String expand) {
+        Set<String> fieldSet = parse(fields);
+        Set<String> expandSet = parse(expand);
+        if (fieldSet.isEmpty() && expandSet.isEmpty()) {
+            return ALL;
+        }
+        return new FieldSelection(fieldSet.isEmpty() ? null : fieldSet, expandSet);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    /**
+     * Нужно ли поле в ответе. expandable - поле со списком id связей.
+     */
+    public boolean includes(String field, boolean expandable) {
+        if (isAll() || "id".equals(field)) {
+            return true;
+        }
+        if (expandable) {
+            return expands(field);
+        }
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Нужно ли загружать список id связей (artworkIds и т.п.).
+     */
+    public boolean expands(String association) {
+        return isAll() || expand.contains(association) || (fields != null && fields.contains(association));
+    }
+
+    private static Set<String> parse(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
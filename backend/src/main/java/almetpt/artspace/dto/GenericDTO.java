@@ -1,5 +1,6 @@
 package almetpt.artspace.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -9,6 +10,7 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @NoArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 public abstract class GenericDTO {
     private Long id;
     private LocalDateTime createdWhen;
@@ -0,0 +1,25 @@
+package almetpt.artspace.dto;
+
+import almetpt.artspace.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Как считать общее число записей страницы (параметр total=).
+ * exact - COUNT(*) на каждый запрос, как раньше; estimate - приблизительно, по статистике
+ * PostgreSQL или кэшированному на короткое время COUNT; none - без общего числа, только признак следующей страницы.
+ */
+public enum PageTotal {
+    EXACT, ESTIMATE, NONE;
+
+    public static PageTotal of(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Неизвестный режим total: " + value + " (exact, estimate, none)");
+        }
+    }
+}
@@ -20,5 +20,6 @@ public class UserDTO extends GenericDTO {
     private String address;
     private Long roleId;
     private String roleName;
+    @Expandable
     private List<Long> ticketIds;
 }
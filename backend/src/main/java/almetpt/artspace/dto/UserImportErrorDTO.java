@@ -0,0 +1,16 @@
+package almetpt.artspace.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportErrorDTO {
+    private long row;
+    private String login;
+    private String message;
+}
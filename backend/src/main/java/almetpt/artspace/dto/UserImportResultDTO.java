@@ -0,0 +1,22 @@
+package almetpt.artspace.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserImportResultDTO {
+    private String importId;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private long processed;
+    private long created;
+    private long failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<UserImportErrorDTO> errors;
+}
@@ -0,0 +1,22 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.ArtistDTO;
+import almetpt.artspace.model.Artist;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@org.mapstruct.Mapper(config = FieldMapperConfig.class)
+public interface ArtistFieldMapper extends FieldMapper<Artist, ArtistDTO> {
+
+    @Override
+    @Mapping(target = "artworkIds", ignore = true)
+    ArtistDTO toDTO(Artist entity);
+
+    @Override
+    @Mapping(target = "artworks", ignore = true)
+    Artist toEntity(ArtistDTO dto);
+
+    @Override
+    @Mapping(target = "artworks", ignore = true)
+    void updateEntity(ArtistDTO dto, @MappingTarget Artist entity);
+}
@@ -3,32 +3,24 @@ package almetpt.artspace.mapper;
 import almetpt.artspace.dto.ArtistDTO;
 import almetpt.artspace.model.Artist;
 import almetpt.artspace.model.GenericModel;
-import jakarta.annotation.PostConstruct;
-import org.modelmapper.ModelMapper;
+import almetpt.artspace.repository.AssociationIdLoader;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Component
 public class ArtistMapper extends GenericMapper<Artist, ArtistDTO> {
 
-    public ArtistMapper(ModelMapper mapper) {
-        super(Artist.class, ArtistDTO.class, mapper);
-    }
+    private final AssociationIdLoader associationIdLoader;
 
-    @Override
-    @PostConstruct
-    public void setupMapper() {
-        modelMapper.createTypeMap(Artist.class, ArtistDTO.class)
-                .addMappings(m -> m.skip(ArtistDTO::setArtworkIds))
-                .setPostConverter(toDTOConverter());
-
-        modelMapper.createTypeMap(ArtistDTO.class, Artist.class)
-                .addMappings(m -> m.skip(Artist::setArtworks))
-                .setPostConverter(toEntityConverter());
+    public ArtistMapper(ArtistFieldMapper fieldMapper, AssociationIdLoader associationIdLoader) {
+        super(fieldMapper);
+        this.associationIdLoader = associationIdLoader;
     }
 
     @Override
@@ -42,6 +34,21 @@ public class ArtistMapper extends GenericMapper<Artist, ArtistDTO> {
         destination.setArtworkIds(getIds(source));
     }
 
+    @Override
+    protected void mapSpecificFields(Artist source, ArtistDTO destination, long[] artworkIds) {
+        destination.setArtworkIds(LongArrayList.of(artworkIds));
+    }
+
+    @Override
+    protected String associationIdsField() {
+        return "artworkIds";
+    }
+
+    @Override
+    protected Map<Long, long[]> loadAssociationIds(Collection<Long> ids) {
+        return associationIdLoader.artworkIdsByArtist(ids);
+    }
+
     @Override
     protected List<Long> getIds(Artist artist) {
         return Objects.isNull(artist) || Objects.isNull(artist.getArtworks())
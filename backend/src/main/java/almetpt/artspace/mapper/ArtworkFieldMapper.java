@@ -0,0 +1,30 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.repository.projection.ArtworkView;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@org.mapstruct.Mapper(config = FieldMapperConfig.class)
+public interface ArtworkFieldMapper extends FieldMapper<Artwork, ArtworkDTO> {
+
+    @Override
+    @Mapping(target = "artistId", source = "artist.id")
+    @Mapping(target = "artistName", source = "artist.name")
+    @Mapping(target = "exhibitionIds", ignore = true)
+    ArtworkDTO toDTO(Artwork entity);
+
+    @Override
+    @Mapping(target = "artist", ignore = true)
+    @Mapping(target = "exhibitions", ignore = true)
+    Artwork toEntity(ArtworkDTO dto);
+
+    @Override
+    @Mapping(target = "artist", ignore = true)
+    @Mapping(target = "exhibitions", ignore = true)
+    void updateEntity(ArtworkDTO dto, @MappingTarget Artwork entity);
+
+    @Mapping(target = "exhibitionIds", ignore = true)
+    ArtworkDTO fromView(ArtworkView view);
+}
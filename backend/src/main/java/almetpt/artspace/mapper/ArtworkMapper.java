@@ -1,41 +1,49 @@
 package almetpt.artspace.mapper;
 
+import almetpt.artspace.dto.FieldSelection;
 import almetpt.artspace.dto.ArtworkDTO;
 import almetpt.artspace.model.Artwork;
 import almetpt.artspace.model.GenericModel;
-import jakarta.annotation.PostConstruct;
-import org.modelmapper.ModelMapper;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.projection.ArtworkView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Component
 public class ArtworkMapper extends GenericMapper<Artwork, ArtworkDTO> {
 
-    public ArtworkMapper(ModelMapper mapper) {
-        super(Artwork.class, ArtworkDTO.class, mapper);
+    private final ArtworkFieldMapper artworkFieldMapper;
+    private final AssociationIdLoader associationIdLoader;
+
+    public ArtworkMapper(ArtworkFieldMapper fieldMapper, AssociationIdLoader associationIdLoader) {
+        super(fieldMapper);
+        this.artworkFieldMapper = fieldMapper;
+        this.associationIdLoader = associationIdLoader;
     }
 
-    @Override
-    @PostConstruct
-    public void setupMapper() {
-        modelMapper.createTypeMap(Artwork.class, ArtworkDTO.class)
-                .addMappings(m -> {
-                    m.skip(ArtworkDTO::setExhibitionIds);
-                    m.map(src -> src.getArtist() != null ? src.getArtist().getId() : null, ArtworkDTO::setArtistId);
-                    m.map(src -> src.getArtist() != null ? src.getArtist().getName() : null, ArtworkDTO::setArtistName);
-                })
-                .setPostConverter(toDTOConverter());
-
-        modelMapper.createTypeMap(ArtworkDTO.class, Artwork.class)
-                .addMappings(m -> {
-                    m.skip(Artwork::setArtist);
-                    m.skip(Artwork::setExhibitions);
-                })
-                .setPostConverter(toEntityConverter());
+    // Проекции из списков и поиска; exhibitionIds - одним запросом на страницу и только если запрошены
+    public Page<ArtworkDTO> toDTOPageFromViews(Page<ArtworkView> views, FieldSelection selection) {
+        return (Page<ArtworkDTO>) toDTOSliceFromViews(views, selection);
+    }
+
+    // Page.map возвращает Page, поэтому для страницы с COUNT результат - тоже Page
+    public Slice<ArtworkDTO> toDTOSliceFromViews(Slice<ArtworkView> views, FieldSelection selection) {
+        Map<Long, long[]> exhibitionIds = views.isEmpty() || !loadsAssociationIds(selection)
+                ? null
+                : associationIdLoader.exhibitionIdsByArtwork(views.map(ArtworkView::getId).getContent());
+        return views.map(view -> {
+            ArtworkDTO dto = artworkFieldMapper.fromView(view);
+            dto.setExhibitionIds(exhibitionIds == null ? null : LongArrayList.of(exhibitionIds.getOrDefault(view.getId(), new long[0])));
+            return dto;
+        });
     }
 
     @Override
@@ -49,6 +57,21 @@ public class ArtworkMapper extends GenericMapper<Artwork, ArtworkDTO> {
         destination.setExhibitionIds(getIds(source));
     }
 
+    @Override
+    protected void mapSpecificFields(Artwork source, ArtworkDTO destination, long[] exhibitionIds) {
+        destination.setExhibitionIds(LongArrayList.of(exhibitionIds));
+    }
+
+    @Override
+    protected String associationIdsField() {
+        return "exhibitionIds";
+    }
+
+    @Override
+    protected Map<Long, long[]> loadAssociationIds(Collection<Long> ids) {
+        return associationIdLoader.exhibitionIdsByArtwork(ids);
+    }
+
     @Override
     protected List<Long> getIds(Artwork artwork) {
         return Objects.isNull(artwork) || Objects.isNull(artwork.getExhibitions())
@@ -0,0 +1,28 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.ExhibitionDTO;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.repository.projection.ExhibitionView;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@org.mapstruct.Mapper(config = FieldMapperConfig.class)
+public interface ExhibitionFieldMapper extends FieldMapper<Exhibition, ExhibitionDTO> {
+
+    @Override
+    @Mapping(target = "artworkIds", ignore = true)
+    ExhibitionDTO toDTO(Exhibition entity);
+
+    @Override
+    @Mapping(target = "artworks", ignore = true)
+    @Mapping(target = "tickets", ignore = true)
+    Exhibition toEntity(ExhibitionDTO dto);
+
+    @Override
+    @Mapping(target = "artworks", ignore = true)
+    @Mapping(target = "tickets", ignore = true)
+    void updateEntity(ExhibitionDTO dto, @MappingTarget Exhibition entity);
+
+    @Mapping(target = "artworkIds", ignore = true)
+    ExhibitionDTO fromView(ExhibitionView view);
+}
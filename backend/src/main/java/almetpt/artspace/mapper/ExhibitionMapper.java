@@ -1,37 +1,49 @@
 package almetpt.artspace.mapper;
 
+import almetpt.artspace.dto.FieldSelection;
 import almetpt.artspace.dto.ExhibitionDTO;
 import almetpt.artspace.model.Exhibition;
 import almetpt.artspace.model.GenericModel;
-import jakarta.annotation.PostConstruct;
-import org.modelmapper.ModelMapper;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.projection.ExhibitionView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Component
 public class ExhibitionMapper extends GenericMapper<Exhibition, ExhibitionDTO> {
 
-    public ExhibitionMapper(ModelMapper mapper) {
-        super(Exhibition.class, ExhibitionDTO.class, mapper);
+    private final ExhibitionFieldMapper exhibitionFieldMapper;
+    private final AssociationIdLoader associationIdLoader;
+
+    public ExhibitionMapper(ExhibitionFieldMapper fieldMapper, AssociationIdLoader associationIdLoader) {
+        super(fieldMapper);
+        this.exhibitionFieldMapper = fieldMapper;
+        this.associationIdLoader = associationIdLoader;
     }
 
-    @Override
-    @PostConstruct
-    public void setupMapper() {
-        modelMapper.createTypeMap(Exhibition.class, ExhibitionDTO.class)
-                .addMappings(m -> m.skip(ExhibitionDTO::setArtworkIds))
-                .setPostConverter(toDTOConverter());
+    // Проекции из списков и поиска; artworkIds - одним запросом на страницу и только если запрошены
+    public Page<ExhibitionDTO> toDTOPageFromViews(Page<ExhibitionView> views, FieldSelection selection) {
+        return (Page<ExhibitionDTO>) toDTOSliceFromViews(views, selection);
+    }
 
-        modelMapper.createTypeMap(ExhibitionDTO.class, Exhibition.class)
-                .addMappings(m -> {
-                    m.skip(Exhibition::setArtworks);
-                    m.skip(Exhibition::setTickets);
-                })
-                .setPostConverter(toEntityConverter());
+    // Page.map возвращает Page, поэтому для страницы с COUNT результат - тоже Page
+    public Slice<ExhibitionDTO> toDTOSliceFromViews(Slice<ExhibitionView> views, FieldSelection selection) {
+        Map<Long, long[]> artworkIds = views.isEmpty() || !loadsAssociationIds(selection)
+                ? null
+                : associationIdLoader.artworkIdsByExhibition(views.map(ExhibitionView::getId).getContent());
+        return views.map(view -> {
+            ExhibitionDTO dto = exhibitionFieldMapper.fromView(view);
+            dto.setArtworkIds(artworkIds == null ? null : LongArrayList.of(artworkIds.getOrDefault(view.getId(), new long[0])));
+            return dto;
+        });
     }
 
     @Override
@@ -46,6 +58,21 @@ public class ExhibitionMapper extends GenericMapper<Exhibition, ExhibitionDTO> {
         destination.setArtworkIds(getIds(source));
     }
 
+    @Override
+    protected void mapSpecificFields(Exhibition source, ExhibitionDTO destination, long[] artworkIds) {
+        destination.setArtworkIds(LongArrayList.of(artworkIds));
+    }
+
+    @Override
+    protected String associationIdsField() {
+        return "artworkIds";
+    }
+
+    @Override
+    protected Map<Long, long[]> loadAssociationIds(Collection<Long> ids) {
+        return associationIdLoader.artworkIdsByExhibition(ids);
+    }
+
     @Override
     protected List<Long> getIds(Exhibition exhibition) {
         return Objects.isNull(exhibition) || Objects.isNull(exhibition.getArtworks())
@@ -0,0 +1,18 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.GenericDTO;
+import almetpt.artspace.model.GenericModel;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Копирование простых полей между сущностью и DTO. Реализации генерирует MapStruct
+ * при компиляции, связи и списки идентификаторов заполняет GenericMapper#mapSpecificFields.
+ */
+public interface FieldMapper<E extends GenericModel, D extends GenericDTO> {
+
+    D toDTO(E entity);
+
+    E toEntity(D dto);
+
+    void updateEntity(D dto, @MappingTarget E entity);
+}
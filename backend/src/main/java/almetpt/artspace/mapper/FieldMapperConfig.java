@@ -0,0 +1,20 @@
+package almetpt.artspace.mapper;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.NullValueCheckStrategy;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Общие настройки сгенерированных мапперов. Повторяет прежнюю конфигурацию ModelMapper:
+ * null в источнике не затирает значение в приемнике (setSkipNullEnabled), а каждое поле
+ * приемника должно быть сопоставлено или явно пропущено, иначе сборка упадет.
+ */
+@MapperConfig(
+        componentModel = "spring",
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS,
+        nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE
+)
+public interface FieldMapperConfig {
+}
@@ -1,34 +1,57 @@
 package almetpt.artspace.mapper;
 
+import almetpt.artspace.dto.FieldSelection;
 import almetpt.artspace.dto.GenericDTO;
 import almetpt.artspace.model.GenericModel;
-import jakarta.annotation.PostConstruct;
-import org.modelmapper.Converter;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Component
 public abstract class GenericMapper<E extends GenericModel, D extends GenericDTO> {
 
-    private final Class<E> entityClass;
-    private final Class<D> dtoClass;
-    protected final ModelMapper modelMapper;
+    private static final long[] NO_IDS = new long[0];
 
-    public GenericMapper(Class<E> entityClass, Class<D> dtoClass, ModelMapper modelMapper) {
-        this.entityClass = entityClass;
-        this.dtoClass = dtoClass;
-        this.modelMapper = modelMapper;
+    // Сгенерированный MapStruct код: простые поля копируются без рефлексии
+    protected final FieldMapper<E, D> fieldMapper;
+
+    public GenericMapper(FieldMapper<E, D> fieldMapper) {
+        this.fieldMapper = fieldMapper;
     }
 
     public E toEntity(D dto) {
-        return Objects.isNull(dto) ? null : modelMapper.map(dto, entityClass);
+        if (Objects.isNull(dto)) {
+            return null;
+        }
+        E entity = fieldMapper.toEntity(dto);
+        mapSpecificFields(dto, entity);
+        return entity;
     }
 
     public D toDTO(E entity) {
-        return Objects.isNull(entity) ? null : modelMapper.map(entity, dtoClass);
+        if (Objects.isNull(entity)) {
+            return null;
+        }
+        D dto = fieldMapper.toDTO(entity);
+        mapSpecificFields(entity, dto);
+        return dto;
+    }
+
+    // Без запроса списка id связей (expand) ленивая коллекция не инициализируется
+    public D toDTO(E entity, FieldSelection selection) {
+        if (Objects.isNull(entity) || loadsAssociationIds(selection)) {
+            return toDTO(entity);
+        }
+        D dto = fieldMapper.toDTO(entity);
+        mapSpecificFields(entity, dto, null);
+        return dto;
     }
 
     public List<E> toEntityList(List<D> dtos) {
@@ -36,40 +59,71 @@ public abstract class GenericMapper<E extends GenericModel, D extends GenericDTO
     }
 
     public List<D> toDTOList(List<E> entities) {
-        return entities.stream().map(this::toDTO).toList();
+        return toDTOList(entities, FieldSelection.ALL);
     }
 
-    public void updateEntityFromDto(D dto, E entity) {
-        if (dto != null && entity != null) {
-            modelMapper.map(dto, entity);
-            mapSpecificFields(dto, entity);
+    // id связей загружаются одним запросом на весь список, а не ленивой коллекцией у каждой сущности
+    public List<D> toDTOList(List<E> entities, FieldSelection selection) {
+        if (!loadsAssociationIds(selection)) {
+            return entities.stream().map(entity -> toDTO(entity, selection)).toList();
         }
+        List<Long> ids = entities.stream().map(GenericModel::getId).filter(Objects::nonNull).toList();
+        Map<Long, long[]> associationIds = ids.isEmpty() ? null : loadAssociationIds(ids);
+        if (associationIds == null) {
+            return entities.stream().map(this::toDTO).toList();
+        }
+        return entities.stream()
+                .map(entity -> {
+                    D dto = fieldMapper.toDTO(entity);
+                    mapSpecificFields(entity, dto, associationIds.getOrDefault(entity.getId(), NO_IDS));
+                    return dto;
+                })
+                .toList();
     }
 
-    // Конвертеры для mapSpecificFields
-    protected Converter<E, D> toDTOConverter() {
-        return context -> {
-            E source = context.getSource();
-            D destination = context.getDestination();
-            mapSpecificFields(source, destination);
-            return context.getDestination();
-        };
+    public Page<D> toDTOPage(Page<E> page) {
+        return toDTOPage(page, FieldSelection.ALL);
     }
 
-    protected Converter<D, E> toEntityConverter() {
-        return context -> {
-            D source = context.getSource();
-            E destination = context.getDestination();
-            mapSpecificFields(source, destination);
-            return context.getDestination();
-        };
+    public Page<D> toDTOPage(Page<E> page, FieldSelection selection) {
+        return new PageImpl<>(toDTOList(page.getContent(), selection), page.getPageable(), page.getTotalElements());
+    }
+
+    // Slice, Page или EstimatedPage - результат того же вида: map() каждой реализации сохраняет свой тип
+    public Slice<D> toDTOSlice(Slice<E> slice, FieldSelection selection) {
+        Iterator<D> dtos = toDTOList(slice.getContent(), selection).iterator();
+        return slice.map(entity -> dtos.next());
+    }
+
+    public void updateEntityFromDto(D dto, E entity) {
+        if (dto != null && entity != null) {
+            fieldMapper.updateEntity(dto, entity);
+            mapSpecificFields(dto, entity);
+        }
     }
 
     protected abstract void mapSpecificFields(D source, E destination);
     protected abstract void mapSpecificFields(E source, D destination);
 
-    @PostConstruct
-    protected abstract void setupMapper();
-
     protected abstract List<Long> getIds(E entity);
+
+    // id связей для списка сущностей одним запросом; null - у DTO нет списков id
+    protected Map<Long, long[]> loadAssociationIds(Collection<Long> ids) {
+        return null;
+    }
+
+    // Вариант mapSpecificFields, когда id связей уже загружены пачкой (null - не запрошены)
+    protected void mapSpecificFields(E source, D destination, long[] associationIds) {
+        mapSpecificFields(source, destination);
+    }
+
+    // Поле DTO со списком id связей (см. @Expandable); null - у DTO таких полей нет
+    protected String associationIdsField() {
+        return null;
+    }
+
+    protected boolean loadsAssociationIds(FieldSelection selection) {
+        String field = associationIdsField();
+        return field == null || selection.expands(field);
+    }
 }
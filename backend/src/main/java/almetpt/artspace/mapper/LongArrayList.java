@@ -0,0 +1,33 @@
+package almetpt.artspace.mapper;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Неизменяемый список-обертка над long[] для полей вида artworkIds в DTO,
+ * чтобы не копировать загруженные пачкой id в ArrayList<Long>.
+ */
+final class LongArrayList extends AbstractList<Long> implements RandomAccess {
+
+    private final long[] values;
+
+    private LongArrayList(long[] values) {
+        this.values = values;
+    }
+
+    // null - список не загружался (не запрошен через expand)
+    static List<Long> of(long[] values) {
+        return values == null ? null : new LongArrayList(values);
+    }
+
+    @Override
+    public Long get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+}
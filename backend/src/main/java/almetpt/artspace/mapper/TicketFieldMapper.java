@@ -0,0 +1,27 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.TicketDTO;
+import almetpt.artspace.model.Ticket;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@org.mapstruct.Mapper(config = FieldMapperConfig.class)
+public interface TicketFieldMapper extends FieldMapper<Ticket, TicketDTO> {
+
+    @Override
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "userName", source = "user.firstName")
+    @Mapping(target = "exhibitionId", source = "exhibition.id")
+    @Mapping(target = "exhibitionTitle", source = "exhibition.title")
+    TicketDTO toDTO(Ticket entity);
+
+    @Override
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "exhibition", ignore = true)
+    Ticket toEntity(TicketDTO dto);
+
+    @Override
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "exhibition", ignore = true)
+    void updateEntity(TicketDTO dto, @MappingTarget Ticket entity);
+}
@@ -0,0 +1,28 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.UserDTO;
+import almetpt.artspace.model.User;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@org.mapstruct.Mapper(config = FieldMapperConfig.class)
+public interface UserFieldMapper extends FieldMapper<User, UserDTO> {
+
+    @Override
+    @Mapping(target = "roleId", ignore = true)
+    @Mapping(target = "roleName", ignore = true)
+    @Mapping(target = "ticketIds", ignore = true)
+    UserDTO toDTO(User entity);
+
+    @Override
+    @Mapping(target = "role", ignore = true)
+    @Mapping(target = "tickets", ignore = true)
+    @Mapping(target = "fullName", ignore = true)
+    User toEntity(UserDTO dto);
+
+    @Override
+    @Mapping(target = "role", ignore = true)
+    @Mapping(target = "tickets", ignore = true)
+    @Mapping(target = "fullName", ignore = true)
+    void updateEntity(UserDTO dto, @MappingTarget User entity);
+}
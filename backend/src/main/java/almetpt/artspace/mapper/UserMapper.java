@@ -4,48 +4,35 @@ import almetpt.artspace.dto.UserDTO;
 import almetpt.artspace.model.GenericModel;
 import almetpt.artspace.model.Role;
 import almetpt.artspace.model.User;
-import almetpt.artspace.repository.RoleRepository;
-import jakarta.annotation.PostConstruct;
-import org.modelmapper.ModelMapper;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.service.RoleRegistry;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Component
 public class UserMapper extends GenericMapper<User, UserDTO> {
 
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final AssociationIdLoader associationIdLoader;
 
-    public UserMapper(ModelMapper mapper, RoleRepository roleRepository) {
-        super(User.class, UserDTO.class, mapper);
-        this.roleRepository = roleRepository;
-    }
-
-    @Override
-    @PostConstruct
-    public void setupMapper() {
-        modelMapper.createTypeMap(User.class, UserDTO.class)
-                .addMappings(m -> {
-                    m.skip(UserDTO::setTicketIds);
-                })
-                .setPostConverter(toDTOConverter());
-
-        modelMapper.createTypeMap(UserDTO.class, User.class)
-                .addMappings(m -> {
-                    m.skip(User::setRole);
-                    m.skip(User::setTickets);
-                })
-                .setPostConverter(toEntityConverter());
+    public UserMapper(UserFieldMapper fieldMapper, RoleRegistry roleRegistry,
+                      AssociationIdLoader associationIdLoader) {
+        super(fieldMapper);
+        this.roleRegistry = roleRegistry;
+        this.associationIdLoader = associationIdLoader;
     }
 
     @Override
     protected void mapSpecificFields(UserDTO source, User destination) {
         // Устанавливаем роль, если указан roleId
         if (source.getRoleId() != null) {
-            roleRepository.findById(source.getRoleId())
+            roleRegistry.getReference(source.getRoleId())
                     .ifPresent(destination::setRole);
         }
         destination.setTickets(Collections.emptySet());
@@ -53,15 +40,38 @@ public class UserMapper extends GenericMapper<User, UserDTO> {
 
     @Override
     protected void mapSpecificFields(User source, UserDTO destination) {
+        mapRole(source, destination);
+        destination.setTicketIds(getIds(source));
+    }
+
+    @Override
+    protected void mapSpecificFields(User source, UserDTO destination, long[] ticketIds) {
+        mapRole(source, destination);
+        destination.setTicketIds(LongArrayList.of(ticketIds));
+    }
+
+    @Override
+    protected String associationIdsField() {
+        return "ticketIds";
+    }
+
+    @Override
+    protected Map<Long, long[]> loadAssociationIds(Collection<Long> ids) {
+        return associationIdLoader.ticketIdsByUser(ids);
+    }
+
+    private void mapRole(User source, UserDTO destination) {
         if (source != null && source.getRole() != null) {
+            // Название берем из справочника: роль может быть еще не загруженной ссылкой (см. toEntity)
             Role role = source.getRole();
             destination.setRoleId(role.getId());
-            destination.setRoleName(role.getTitle());
+            destination.setRoleName(roleRegistry.findById(role.getId())
+                    .map(RoleRegistry.RoleEntry::title)
+                    .orElseGet(role::getTitle));
         } else {
             destination.setRoleId(null);
             destination.setRoleName(null);
         }
-        destination.setTicketIds(getIds(source));
     }
 
     protected List<Long> getIds(User user) {
@@ -6,6 +6,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -13,6 +15,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "artists")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artists")
 @Getter
 @Setter
 @ToString
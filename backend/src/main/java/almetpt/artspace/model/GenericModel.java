@@ -3,6 +3,7 @@ package almetpt.artspace.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 
 import java.time.LocalDateTime;
 
@@ -11,8 +12,10 @@ import java.time.LocalDateTime;
 @Setter
 public abstract class GenericModel {
     
+    // id из последовательности пачками (см. PooledSequenceIdGenerator): вставки идут JDBC batch'ами
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "pooled-sequence")
+    @GenericGenerator(name = "pooled-sequence", type = PooledSequenceIdGenerator.class)
     private Long id;
     
     @Column(name = "created_when")
@@ -0,0 +1,39 @@
+package almetpt.artspace.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Генератор id для GenericModel: последовательность &lt;таблица&gt;_seq с оптимизатором pooled.
+ * Один nextval резервирует allocation_size id, поэтому id известен до INSERT и Hibernate может
+ * отправлять вставки JDBC batch'ами (с IDENTITY каждая строка - отдельный запрос за сгенерированным ключом).
+ * INCREMENT BY последовательности в БД должен совпадать с allocation_size.
+ */
+public class PooledSequenceIdGenerator extends SequenceStyleGenerator {
+
+    // spring.jpa.properties.artspace.id.allocation_size
+    public static final String ALLOCATION_SIZE = "artspace.id.allocation_size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Integer allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        parameters.putIfAbsent(SEQUENCE_PARAM, sequenceName(parameters.getProperty(PersistentIdentifierGenerator.TABLE)));
+        parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    public static String sequenceName(String table) {
+        return table + "_seq";
+    }
+}
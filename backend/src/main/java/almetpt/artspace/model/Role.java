@@ -1,16 +1,22 @@
 package almetpt.artspace.model;
 
 import jakarta.persistence.*;
+import almetpt.artspace.service.RoleChangeListener;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roles")
+@EntityListeners(RoleChangeListener.class)
 @Getter
 @Setter
 @ToString
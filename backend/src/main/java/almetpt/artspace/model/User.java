@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.GeneratedColumn;
 
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -34,6 +35,11 @@ public class User extends GenericModel {
     
     @Column(name = "last_name")
     private String lastName;
+
+    // Вычисляется БД (generated column), чтобы поиск по ФИО шел по триграммному индексу, а не по CONCAT
+    @GeneratedColumn("coalesce(first_name, '') || ' ' || coalesce(last_name, '')")
+    @Column(name = "full_name", insertable = false, updatable = false)
+    private String fullName;
     
     @Column(name = "birth_date")
     private LocalDate birthDate;
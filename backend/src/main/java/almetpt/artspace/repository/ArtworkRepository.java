@@ -2,41 +2,68 @@ package almetpt.artspace.repository;
 
 import almetpt.artspace.model.ArtCategory;
 import almetpt.artspace.model.Artwork;
+import almetpt.artspace.repository.projection.ArtworkView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface ArtworkRepository extends GenericRepository<Artwork> {
-    @Query("SELECT a FROM Artwork a JOIN a.artist art WHERE art.name LIKE %:artistName%")
+
+    // Колонки ArtworkView; художник через LEFT JOIN, чтобы не терять произведения без автора
+    String VIEW_COLUMNS = "a.id AS id, a.createdWhen AS createdWhen, a.createdBy AS createdBy, " +
+            "a.updatedWhen AS updatedWhen, a.updatedBy AS updatedBy, a.isDeleted AS isDeleted, " +
+            "a.title AS title, a.description AS description, a.price AS price, a.creationDate AS creationDate, " +
+            "a.medium AS medium, a.dimensions AS dimensions, a.imgPath AS imgPath, a.category AS category, " +
+            "art.id AS artistId, art.name AS artistName";
+
+    String VIEW_SELECT = "SELECT " + VIEW_COLUMNS + " FROM Artwork a LEFT JOIN a.artist art ";
+
+    // Маппер читает artist.id и artist.name у каждого произведения: списки сущностей загружают художника
+    // тем же запросом (LEFT JOIN по many-to-one не размножает строки, так что LIMIT/OFFSET остаются в БД)
+    String ARTIST = "artist";
+
+    @Override
+    @EntityGraph(attributePaths = ARTIST)
+    List<Artwork> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = ARTIST)
+    Page<Artwork> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = ARTIST)
+    Slice<Artwork> findAllBy(Pageable pageable);
+
+    @Query(value = "SELECT a FROM Artwork a JOIN FETCH a.artist art WHERE art.name LIKE %:artistName%",
+           countQuery = "SELECT count(a) FROM Artwork a JOIN a.artist art WHERE art.name LIKE %:artistName%")
     Page<Artwork> findByArtistNameContainingIgnoreCase(
             @Param("artistName") String artistName,
             Pageable pageable);
-            
+
+    @EntityGraph(attributePaths = ARTIST)
     Page<Artwork> findByCategory(ArtCategory category, Pageable pageable);
-    
+
+    @EntityGraph(attributePaths = ARTIST)
     Page<Artwork> findByTitleContainingIgnoreCase(String title, Pageable pageable);
 
-    @Query("SELECT a FROM Artwork a WHERE " +
-           "(:title IS NULL OR a.title LIKE %:title%) AND " +
-           "(:category IS NULL OR a.category = :category)")
-    Page<Artwork> findFiltered(
-            @Param("title") String title,
-            @Param("category") ArtCategory category,
-            Pageable pageable);
+    @Query(value = VIEW_SELECT,
+           countQuery = "SELECT count(a) FROM Artwork a")
+    Page<ArtworkView> findAllViews(Pageable pageable);
 
-    @Query("SELECT a FROM Artwork a WHERE " +
-           "(:title IS NULL OR a.title LIKE %:title%) AND " +
-           "(:category IS NULL OR a.category = :category) AND " +
-           "(:createdAfter IS NULL OR a.creationDate >= :createdAfter) AND " +
-           "(:artistName IS NULL OR a.artist.name LIKE %:artistName%)")
-    Page<Artwork> searchArtworks(
-            @Param("title") String title,
-            @Param("category") ArtCategory category,
-            @Param("createdAfter") LocalDate createdAfter,
-            @Param("artistName") String artistName,
-            Pageable pageable);
+    @Query(VIEW_SELECT)
+    Slice<ArtworkView> sliceAllViews(Pageable pageable);
+
+    @Query(VIEW_SELECT + "WHERE a.id IN :ids")
+    List<ArtworkView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = VIEW_SELECT + "WHERE art.name LIKE %:artistName%",
+           countQuery = "SELECT count(a) FROM Artwork a JOIN a.artist art WHERE art.name LIKE %:artistName%")
+    Page<ArtworkView> findViewsByArtistName(@Param("artistName") String artistName, Pageable pageable);
 }
@@ -0,0 +1,49 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Условия расширенного поиска произведений в виде Specification - для keyset-пагинации,
+ * которая в Spring Data доступна только через findBy(Specification, ...).
+ * Условия те же, что в SearchQueries.artworks.
+ */
+public final class ArtworkSpecifications {
+
+    private ArtworkSpecifications() {
+    }
+
+    public static Specification<Artwork> matching(ArtworkSearchDTO searchDTO) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.hasText(searchDTO.getTitle())) {
+                predicates.add(cb.like(root.get("title"), "%" + searchDTO.getTitle() + "%"));
+            }
+            if (StringUtils.hasText(searchDTO.getDescription())) {
+                predicates.add(cb.like(root.get("description"), "%" + searchDTO.getDescription() + "%"));
+            }
+            if (searchDTO.getCategory() != null) {
+                predicates.add(cb.equal(root.get("category"), searchDTO.getCategory()));
+            }
+            if (searchDTO.getCreatedAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("creationDate"), searchDTO.getCreatedAfter()));
+            }
+            if (searchDTO.getArtistId() != null) {
+                predicates.add(cb.equal(root.get("artist").get("id"), searchDTO.getArtistId()));
+            }
+            if (StringUtils.hasText(searchDTO.getArtistName())) {
+                predicates.add(cb.like(root.<Artwork, Artist>join("artist", JoinType.LEFT).get("name"),
+                        "%" + searchDTO.getArtistName() + "%"));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package almetpt.artspace.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Загрузка id связанных записей сразу для всей страницы.
+ * Вместо инициализации ленивой коллекции у каждой сущности (N+1) выполняется один запрос
+ * к таблице связи на страницу; id возвращаются компактными массивами long[] по id владельца.
+ */
+@Repository
+public class AssociationIdLoader {
+
+    // Ограничение на размер IN-списка; страницы обычно меньше, listAll() без пагинации - нет
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private static final String ARTWORK_IDS_BY_EXHIBITION =
+            "SELECT exhibition_id, artwork_id FROM exhibition_artwork WHERE exhibition_id IN (:ids) ORDER BY exhibition_id";
+    private static final String EXHIBITION_IDS_BY_ARTWORK =
+            "SELECT artwork_id, exhibition_id FROM exhibition_artwork WHERE artwork_id IN (:ids) ORDER BY artwork_id";
+    private static final String ARTWORK_IDS_BY_ARTIST =
+            "SELECT artist_id, id FROM artworks WHERE artist_id IN (:ids) ORDER BY artist_id";
+    private static final String TICKET_IDS_BY_USER =
+            "SELECT user_id, id FROM tickets WHERE user_id IN (:ids) ORDER BY user_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Map<Long, long[]> artworkIdsByExhibition(Collection<Long> exhibitionIds) {
+        return load(ARTWORK_IDS_BY_EXHIBITION, exhibitionIds);
+    }
+
+    public Map<Long, long[]> exhibitionIdsByArtwork(Collection<Long> artworkIds) {
+        return load(EXHIBITION_IDS_BY_ARTWORK, artworkIds);
+    }
+
+    public Map<Long, long[]> artworkIdsByArtist(Collection<Long> artistIds) {
+        return load(ARTWORK_IDS_BY_ARTIST, artistIds);
+    }
+
+    public Map<Long, long[]> ticketIdsByUser(Collection<Long> userIds) {
+        return load(TICKET_IDS_BY_USER, userIds);
+    }
+
+    // Native-запрос идет через тот же EntityManager: сессия сбрасывается перед ним,
+    // поэтому несохраненные изменения связей в текущей транзакции тоже видны
+    private Map<Long, long[]> load(String sql, Collection<Long> ownerIds) {
+        Map<Long, long[]> result = new HashMap<>();
+        if (ownerIds.isEmpty()) {
+            return result;
+        }
+        List<Long> ids = new ArrayList<>(ownerIds);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(sql)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            group(rows, result);
+        }
+        return result;
+    }
+
+    // Строки отсортированы по владельцу: нарезаем общий буфер на массивы без промежуточных коллекций
+    private static void group(List<Object[]> rows, Map<Long, long[]> result) {
+        long[] targets = new long[rows.size()];
+        int start = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            targets[i] = ((Number) rows.get(i)[1]).longValue();
+            long owner = ((Number) rows.get(i)[0]).longValue();
+            boolean last = i + 1 == rows.size() || ((Number) rows.get(i + 1)[0]).longValue() != owner;
+            if (last) {
+                result.put(owner, Arrays.copyOfRange(targets, start, i + 1));
+                start = i + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.dto.DeletionReport;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Удаление по {@link DeletePlan} запросами DELETE ... WHERE ... IN (...) без загрузки сущностей.
+ * Дочерние строки выбираются по id пачками по chunk-size и удаляются каждая пачка в своей транзакции,
+ * поэтому блокировки держатся недолго, а выставка с сотнями тысяч билетов не удаляется одной транзакцией.
+ * Родительские строки и их связи удаляются последней транзакцией пачки.
+ * Если удаление прервалось, повторный вызов доудаляет оставшееся.
+ * Вызванный внутри транзакции, работает в ней целиком (пачки не коммитятся по отдельности).
+ * Строки удаляются мимо Hibernate, поэтому удаленные сущности вытесняются из кэша второго уровня,
+ * а кэш запросов очищается. По той же причине здесь запоминается время последнего удаления из каждой таблицы
+ * (см. {@link TableVersions}).
+ */
+@Repository
+public class BulkDeleter {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Cache cache;
+    private final Map<String, Class<?>> entitiesByTable = new HashMap<>();
+    private final Map<String, Instant> deletedWhen = new ConcurrentHashMap<>();
+    private final Instant startedWhen = Instant.now();
+
+    public BulkDeleter(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       EntityManagerFactory entityManagerFactory,
+                       @Value("${bulk-delete.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        entityManagerFactory.getMetamodel().getEntities().forEach(entity -> {
+            Table table = entity.getJavaType().getAnnotation(Table.class);
+            if (table != null) {
+                entitiesByTable.put(table.name(), entity.getJavaType());
+            }
+        });
+    }
+
+    public DeletionReport delete(DeletePlan plan, Collection<Long> ids) {
+        return delete(plan, ids, (table, deleted) -> {
+        });
+    }
+
+    /**
+     * То же, но после каждой пачки, удалившей строки, onDeleted получает таблицу и id пачки -
+     * в том числе если удаление потом прервется ошибкой: уже закоммиченные пачки не откатываются.
+     */
+    public DeletionReport delete(DeletePlan plan, Collection<Long> ids, BiConsumer<String, List<Long>> onDeleted) {
+        DeletionReport report = new DeletionReport();
+        List<Long> distinct = ids.stream().distinct().toList();
+        try {
+            for (int from = 0; from < distinct.size(); from += chunkSize) {
+                delete(plan, distinct.subList(from, Math.min(from + chunkSize, distinct.size())), report, onDeleted);
+            }
+        } finally {
+            cache.evictQueryRegions();
+        }
+        return report;
+    }
+
+    private void delete(DeletePlan plan, List<Long> ids, DeletionReport report, BiConsumer<String, List<Long>> onDeleted) {
+        for (DeletePlan.Child child : plan.children()) {
+            // Keyset по id: пачка не зависит от того, сколько строк уже удалено
+            long after = Long.MIN_VALUE;
+            List<Long> childIds;
+            do {
+                childIds = jdbcTemplate.queryForList("SELECT id FROM " + child.plan().table() +
+                                " WHERE " + child.parentColumn() + " IN (:ids) AND id > :after ORDER BY id LIMIT :limit",
+                        new MapSqlParameterSource("ids", ids).addValue("after", after).addValue("limit", chunkSize),
+                        Long.class);
+                if (!childIds.isEmpty()) {
+                    delete(child.plan(), new ArrayList<>(childIds), report, onDeleted);
+                    after = childIds.get(childIds.size() - 1);
+                }
+            } while (childIds.size() == chunkSize);
+        }
+        Integer deleted = transactionTemplate.execute(status -> {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+            Set<String> changed = new HashSet<>();
+            for (DeletePlan.Link link : plan.links()) {
+                int rows = jdbcTemplate.update(
+                        "DELETE FROM " + link.table() + " WHERE " + link.column() + " IN (:ids)", parameters);
+                report.add(link.table(), rows);
+                if (rows > 0) {
+                    changed.add(link.table());
+                }
+            }
+            int rows = jdbcTemplate.update("DELETE FROM " + plan.table() + " WHERE id IN (:ids)", parameters);
+            report.add(plan.table(), rows);
+            if (rows > 0) {
+                changed.add(plan.table());
+            }
+            markDeleted(changed);
+            return rows;
+        });
+        report.transactionCommitted();
+        // После коммита: иначе параллельная загрузка успела бы вернуть в кэш еще не удаленную строку
+        Class<?> entity = entitiesByTable.get(plan.table());
+        if (entity != null) {
+            ids.forEach(id -> cache.evictEntityData(entity, id));
+        }
+        if (deleted != null && deleted > 0) {
+            onDeleted.accept(plan.table(), ids);
+        }
+    }
+
+    /** Когда из таблицы последний раз удалялись строки; до первого удаления - время старта приложения. */
+    public Instant lastDeleted(String table) {
+        return deletedWhen.getOrDefault(table, startedWhen);
+    }
+
+    // И до коммита, и после: ответ, прочитанный до коммита, получит Last-Modified раньше итогового
+    private void markDeleted(Set<String> tables) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                mark();
+            }
+
+            @Override
+            public void afterCommit() {
+                mark();
+            }
+
+            private void mark() {
+                Instant now = Instant.now();
+                tables.forEach(table -> deletedWhen.put(table, now));
+            }
+        });
+    }
+}
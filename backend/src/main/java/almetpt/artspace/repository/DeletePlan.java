@@ -0,0 +1,58 @@
+package almetpt.artspace.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Что удалять вместе со строками таблицы: строки связующих таблиц и дочерние таблицы (со своими планами).
+ * Заменяет каскады JPA (cascade = ALL, orphanRemoval), которые загружают каждую дочернюю сущность
+ * и удаляют ее отдельным запросом. Неизменяемый: методы возвращают новый план.
+ */
+public final class DeletePlan {
+
+    /** Строки связующей таблицы, у которых column ссылается на удаляемую строку. */
+    public record Link(String table, String column) {
+    }
+
+    /** Дочерняя таблица, parentColumn которой ссылается на удаляемую строку. */
+    public record Child(DeletePlan plan, String parentColumn) {
+    }
+
+    private final String table;
+    private final List<Link> links;
+    private final List<Child> children;
+
+    private DeletePlan(String table, List<Link> links, List<Child> children) {
+        this.table = table;
+        this.links = List.copyOf(links);
+        this.children = List.copyOf(children);
+    }
+
+    public static DeletePlan of(String table) {
+        return new DeletePlan(table, List.of(), List.of());
+    }
+
+    public DeletePlan joinTable(String joinTable, String column) {
+        List<Link> copy = new ArrayList<>(links);
+        copy.add(new Link(joinTable, column));
+        return new DeletePlan(table, copy, children);
+    }
+
+    public DeletePlan cascade(DeletePlan child, String parentColumn) {
+        List<Child> copy = new ArrayList<>(children);
+        copy.add(new Child(child, parentColumn));
+        return new DeletePlan(table, links, copy);
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public List<Link> links() {
+        return links;
+    }
+
+    public List<Child> children() {
+        return children;
+    }
+}
@@ -0,0 +1,25 @@
+package almetpt.artspace.repository;
+
+/**
+ * Планы удаления сущностей с дочерними строками; таблицы и колонки - как в @Table/@JoinColumn моделей.
+ * Билеты удаляются без плана: на них никто не ссылается.
+ */
+public final class DeletePlans {
+
+    // Произведение убирается и из выставок (Artwork - обратная сторона exhibition_artwork, JPA эти строки не чистит)
+    public static final DeletePlan ARTWORKS = DeletePlan.of("artworks")
+            .joinTable("exhibition_artwork", "artwork_id");
+
+    public static final DeletePlan ARTISTS = DeletePlan.of("artists")
+            .cascade(ARTWORKS, "artist_id");
+
+    public static final DeletePlan EXHIBITIONS = DeletePlan.of("exhibitions")
+            .joinTable("exhibition_artwork", "exhibition_id")
+            .cascade(DeletePlan.of("tickets"), "exhibition_id");
+
+    public static final DeletePlan USERS = DeletePlan.of("users")
+            .cascade(DeletePlan.of("tickets"), "user_id");
+
+    private DeletePlans() {
+    }
+}
@@ -0,0 +1,32 @@
+package almetpt.artspace.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * id для вставок в обход JPA (JDBC batch импорта): берутся у того же генератора Hibernate,
+ * что и при persist, поэтому пулы id не пересекаются, а nextval выполняется раз на allocation_size строк.
+ */
+@Repository
+public class EntityIdAllocator {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public long[] next(Class<?> entityType, int count) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(entityType).getGenerator();
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = ((Number) generator.generate(session, null, null, EventType.INSERT)).longValue();
+        }
+        return ids;
+    }
+}
@@ -1,31 +1,56 @@
 package almetpt.artspace.repository;
 
 import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.repository.projection.ExhibitionView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ExhibitionRepository extends GenericRepository<Exhibition> {
+
+       // Колонки ExhibitionView
+       String VIEW_COLUMNS = "e.id AS id, e.createdWhen AS createdWhen, e.createdBy AS createdBy, " +
+                     "e.updatedWhen AS updatedWhen, e.updatedBy AS updatedBy, e.isDeleted AS isDeleted, " +
+                     "e.title AS title, e.description AS description, e.startDate AS startDate, e.endDate AS endDate, " +
+                     "e.location AS location, e.price AS price, e.imagePath AS imagePath";
+
+       String VIEW_SELECT = "SELECT " + VIEW_COLUMNS + " FROM Exhibition e ";
+
        List<Exhibition> findByStartDateAfterAndEndDateBefore(LocalDate startDate, LocalDate endDate);
        List<Exhibition> findByEndDateBefore(LocalDate date);
        List<Exhibition> findByStartDateGreaterThan(LocalDate now);
+       @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
        Page<Exhibition> findByStartDateLessThanEqualAndEndDateGreaterThanEqual(LocalDate startDate, LocalDate endDate, Pageable pageable);
        Page<Exhibition> findByStartDateAfter(LocalDate date, Pageable pageable);
 
-       @Query("SELECT e FROM Exhibition e WHERE " +
-                     "(:title IS NULL OR lower(e.title) LIKE lower(concat('%', :title, '%'))) AND " +
-                     "(:location IS NULL OR lower(e.location) LIKE lower(concat('%', :location, '%'))) AND " +
-                     "(:startDate IS NULL OR e.startDate >= :startDate) AND " +
-                     "(:endDate IS NULL OR e.endDate <= :endDate)")
-       Page<Exhibition> findFiltered(
-                     @Param("title") String title,
-                     @Param("location") String location,
-                     @Param("startDate") LocalDate startDate,
-                     @Param("endDate") LocalDate endDate,
-                     Pageable pageable);
+       @Query(value = VIEW_SELECT,
+                     countQuery = "SELECT count(e) FROM Exhibition e")
+       Page<ExhibitionView> findAllViews(Pageable pageable);
+
+       @Query(VIEW_SELECT)
+       Slice<ExhibitionView> sliceAllViews(Pageable pageable);
+
+       @Query(VIEW_SELECT + "WHERE e.id IN :ids")
+       List<ExhibitionView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+       // Текущие выставки запрашивает почти каждая страница каталога, а меняются они редко: страница и count
+       // берутся из кэша запросов, пока в exhibitions нет изменений (ключ - дата и страница)
+       @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+       @Query(value = VIEW_SELECT + "WHERE e.startDate <= :date AND e.endDate >= :date",
+                     countQuery = "SELECT count(e) FROM Exhibition e WHERE e.startDate <= :date AND e.endDate >= :date")
+       Page<ExhibitionView> findCurrentViews(@Param("date") LocalDate date, Pageable pageable);
+
+       @Query(value = VIEW_SELECT + "WHERE e.startDate > :date",
+                     countQuery = "SELECT count(e) FROM Exhibition e WHERE e.startDate > :date")
+       Page<ExhibitionView> findUpcomingViews(@Param("date") LocalDate date, Pageable pageable);
 }
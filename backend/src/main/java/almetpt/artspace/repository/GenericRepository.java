@@ -1,7 +1,10 @@
 package almetpt.artspace.repository;
 
 import almetpt.artspace.model.GenericModel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
 /**
@@ -9,9 +12,13 @@ import org.springframework.data.repository.NoRepositoryBean;
  * Необходим для работы абстрактного сервиса
  * т.к. в обстрактном сервисе мы не можем использовать конкретный репозиторий,
  * а должны указывать параметризованный (GenericRepository)
+ * JpaSpecificationExecutor нужен для keyset-пагинации (findBy(...).scroll) в GenericService
  * @param <E> - Сущность, с которой работает репозиторий
  */
 @NoRepositoryBean // не даст создать репозиторий, т.к. он абстрактный. Аналог @MappedSuperclass y GenericModel
-public interface GenericRepository<E extends GenericModel> extends JpaRepository<E, Long> { 
+public interface GenericRepository<E extends GenericModel> extends JpaRepository<E, Long>, JpaSpecificationExecutor<E> {
+
+    // Страница без COUNT: выбирается на одну запись больше, чтобы узнать, есть ли следующая
+    Slice<E> findAllBy(Pageable pageable);
     // Ограничиваем работу только с моделями, которые наследуются от GenericModel
 }
@@ -0,0 +1,73 @@
+package almetpt.artspace.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Постраничное чтение текстовых полей каталога для построения поискового индекса.
+ * Пагинация по ключу (id > последний прочитанный), чтобы чтение миллиона строк не деградировало,
+ * как OFFSET; строки возвращаются как есть, порядок колонок указан у каждого метода.
+ */
+@Repository
+public class SearchDocumentLoader {
+
+    private static final String ARTWORKS =
+            "SELECT id, title, description, category, creation_date, artist_id FROM artworks WHERE id > :after ORDER BY id";
+    private static final String ARTISTS =
+            "SELECT id, name, biography, country FROM artists WHERE id > :after ORDER BY id";
+    private static final String EXHIBITIONS =
+            "SELECT id, title, location, start_date, end_date FROM exhibitions WHERE id > :after ORDER BY id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** id, title, description, category, creation_date, artist_id */
+    public List<Object[]> artworks(long afterId, int limit) {
+        return load(ARTWORKS, afterId, limit);
+    }
+
+    /** id, name, biography, country */
+    public List<Object[]> artists(long afterId, int limit) {
+        return load(ARTISTS, afterId, limit);
+    }
+
+    /** id, title, location, start_date, end_date */
+    public List<Object[]> exhibitions(long afterId, int limit) {
+        return load(EXHIBITIONS, afterId, limit);
+    }
+
+    // Колонки TEXT часть драйверов отдает как Clob
+    public static String text(Object value) {
+        if (value instanceof Clob clob) {
+            try (Reader reader = clob.getCharacterStream()) {
+                StringBuilder text = new StringBuilder();
+                char[] buffer = new char[4096];
+                for (int read; (read = reader.read(buffer)) > 0; ) {
+                    text.append(buffer, 0, read);
+                }
+                return text.toString();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Не удалось прочитать текстовую колонку", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return value == null ? null : value.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> load(String sql, long afterId, int limit) {
+        return entityManager.createNativeQuery(sql)
+                .setParameter("after", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,58 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.dto.ArtistSearchDTO;
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.ExhibitionSearchDTO;
+import almetpt.artspace.dto.UserSearchDTO;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.User;
+
+/**
+ * Запросы расширенного поиска по *SearchDTO. Сравнения те же, что были в @Query репозиториев:
+ * без учета регистра там, где под ними lower(...)-индексы pg_trgm (пользователи, выставки).
+ */
+public final class SearchQueries {
+
+    private SearchQueries() {
+    }
+
+    // Алиасы совпадают с ArtworkRepository.VIEW_COLUMNS
+    public static SearchQuery<Artwork> artworks(ArtworkSearchDTO search) {
+        return SearchQuery.from(Artwork.class, "a")
+                .leftJoin("a.artist", "art")
+                .contains("a.title", search.getTitle())
+                .contains("a.description", search.getDescription())
+                .equal("a.category", search.getCategory())
+                .atLeast("a.creationDate", search.getCreatedAfter())
+                .equal("a.artist.id", search.getArtistId())
+                .contains("art.name", search.getArtistName());
+    }
+
+    public static SearchQuery<Artist> artists(ArtistSearchDTO search) {
+        return SearchQuery.from(Artist.class, "a")
+                .contains("a.name", search.getName())
+                .contains("a.biography", search.getBiography())
+                .equal("a.country", search.getCountry());
+    }
+
+    // Алиасы совпадают с ExhibitionRepository.VIEW_COLUMNS
+    public static SearchQuery<Exhibition> exhibitions(ExhibitionSearchDTO search) {
+        return SearchQuery.from(Exhibition.class, "e")
+                .containsIgnoreCase("e.title", search.getTitle())
+                .containsIgnoreCase("e.location", search.getLocation())
+                .atLeast("e.startDate", search.getStartDate())
+                .atMost("e.endDate", search.getEndDate());
+    }
+
+    public static SearchQuery<User> users(UserSearchDTO search) {
+        return SearchQuery.from(User.class, "u")
+                .leftJoin("u.role", "r")
+                .containsIgnoreCase("u.login", search.getLogin())
+                .containsIgnoreCase("u.email", search.getEmail())
+                .containsIgnoreCase("u.firstName", search.getFirstName())
+                .containsIgnoreCase("u.lastName", search.getLastName())
+                .containsIgnoreCase("r.title", search.getRoleName());
+    }
+}
@@ -0,0 +1,111 @@
+package almetpt.artspace.repository;
+
+import jakarta.persistence.Query;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JPQL-запрос поиска, в который попадают только заданные условия (вместо "(:x IS NULL OR ...)").
+ * Порядок условий задается кодом, а не данными, поэтому одинаковый набор заданных фильтров
+ * всегда дает один и тот же текст запроса: он переиспользуется из кэша планов Hibernate
+ * и prepared statements, а план строится под реальные условия и может использовать их индексы.
+ * Пустые строки считаются незаданным фильтром.
+ */
+public final class SearchQuery<T> {
+
+    private record Join(String path, String alias) {
+    }
+
+    private final Class<T> entity;
+    private final String alias;
+    private final List<Join> joins = new ArrayList<>();
+    private final List<String> predicates = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+    // Алиасы, на которые ссылаются условия
+    private final Set<String> usedAliases = new HashSet<>();
+
+    private SearchQuery(Class<T> entity, String alias) {
+        this.entity = entity;
+        this.alias = alias;
+    }
+
+    public static <T> SearchQuery<T> from(Class<T> entity, String alias) {
+        return new SearchQuery<>(entity, alias);
+    }
+
+    /** LEFT JOIN для колонок выборки и условий; в COUNT попадает, только если на него ссылается условие. */
+    public SearchQuery<T> leftJoin(String path, String joinAlias) {
+        joins.add(new Join(path, joinAlias));
+        return this;
+    }
+
+    public SearchQuery<T> equal(String path, Object value) {
+        return value == null ? this : add(path, path + " = ", value, "");
+    }
+
+    public SearchQuery<T> contains(String path, String value) {
+        return StringUtils.hasText(value) ? add(path, path + " LIKE ", "%" + value + "%", "") : this;
+    }
+
+    public SearchQuery<T> containsIgnoreCase(String path, String value) {
+        return StringUtils.hasText(value) ? add(path, "lower(" + path + ") LIKE lower(", "%" + value + "%", ")") : this;
+    }
+
+    public SearchQuery<T> atLeast(String path, Comparable<?> value) {
+        return value == null ? this : add(path, path + " >= ", value, "");
+    }
+
+    public SearchQuery<T> atMost(String path, Comparable<?> value) {
+        return value == null ? this : add(path, path + " <= ", value, "");
+    }
+
+    public String alias() {
+        return alias;
+    }
+
+    /** SELECT с указанными колонками: alias сущности или колонки проекции, которым нужны все join. */
+    public String select(String columns) {
+        StringBuilder jpql = new StringBuilder("SELECT ").append(columns);
+        appendFrom(jpql, columns.equals(alias));
+        return jpql.toString();
+    }
+
+    public String count() {
+        StringBuilder jpql = new StringBuilder("SELECT count(").append(alias).append(')');
+        appendFrom(jpql, true);
+        return jpql.toString();
+    }
+
+    public void bind(Query query) {
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter(parameter(i), values.get(i));
+        }
+    }
+
+    private SearchQuery<T> add(String path, String prefix, Object value, String suffix) {
+        usedAliases.add(path.substring(0, path.indexOf('.')));
+        predicates.add(prefix + ":" + parameter(values.size()) + suffix);
+        values.add(value);
+        return this;
+    }
+
+    private void appendFrom(StringBuilder jpql, boolean onlyUsedJoins) {
+        jpql.append(" FROM ").append(entity.getSimpleName()).append(' ').append(alias);
+        for (Join join : joins) {
+            if (!onlyUsedJoins || usedAliases.contains(join.alias())) {
+                jpql.append(" LEFT JOIN ").append(join.path()).append(' ').append(join.alias());
+            }
+        }
+        if (!predicates.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+    }
+
+    private static String parameter(int index) {
+        return "p" + index;
+    }
+}
@@ -0,0 +1,114 @@
+package almetpt.artspace.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Выполнение {@link SearchQuery}: страница с COUNT, Slice без него (на одну запись больше) и отдельный COUNT.
+ * Проекции-интерфейсы (ArtworkView и т.п.) строятся из колонок с алиасами так же, как для @Query в репозиториях.
+ */
+@Repository
+public class SearchQueryExecutor {
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> Page<T> page(SearchQuery<T> query, Class<T> entityType, Pageable pageable) {
+        return page(query, pageable, entities(query, entityType));
+    }
+
+    public <T> Slice<T> slice(SearchQuery<T> query, Class<T> entityType, Pageable pageable) {
+        return slice(query, pageable, entities(query, entityType));
+    }
+
+    public <V> Page<V> pageViews(SearchQuery<?> query, String columns, Class<V> viewType, Pageable pageable) {
+        return page(query, pageable, views(query, columns, viewType));
+    }
+
+    public <V> Slice<V> sliceViews(SearchQuery<?> query, String columns, Class<V> viewType, Pageable pageable) {
+        return slice(query, pageable, views(query, columns, viewType));
+    }
+
+    public long count(SearchQuery<?> query) {
+        TypedQuery<Long> count = entityManager.createQuery(query.count(), Long.class);
+        query.bind(count);
+        return count.getSingleResult();
+    }
+
+    // Строки читаются с запасом в одну: по ней видно, есть ли следующая страница
+    private <R> Page<R> page(SearchQuery<?> query, Pageable pageable, Function<Pageable, List<R>> rows) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(rows.apply(pageable));
+        }
+        List<R> content = rows.apply(pageable);
+        if (content.size() <= pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            // Последняя страница: общее число известно без COUNT
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+        return new PageImpl<>(trim(content, pageable), pageable, count(query));
+    }
+
+    private <R> Slice<R> slice(SearchQuery<?> query, Pageable pageable, Function<Pageable, List<R>> rows) {
+        List<R> content = rows.apply(pageable);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(content);
+        }
+        return new SliceImpl<>(trim(content, pageable), pageable, content.size() > pageable.getPageSize());
+    }
+
+    private static <R> List<R> trim(List<R> content, Pageable pageable) {
+        return content.size() > pageable.getPageSize() ? content.subList(0, pageable.getPageSize()) : content;
+    }
+
+    private <T> Function<Pageable, List<T>> entities(SearchQuery<T> query, Class<T> entityType) {
+        return pageable -> limit(entityManager.createQuery(sorted(query.select(query.alias()), query, pageable), entityType),
+                query, pageable).getResultList();
+    }
+
+    private <V> Function<Pageable, List<V>> views(SearchQuery<?> query, String columns, Class<V> viewType) {
+        return pageable -> limit(entityManager.createQuery(sorted(query.select(columns), query, pageable), Tuple.class),
+                query, pageable).getResultList().stream()
+                .map(tuple -> projectionFactory.createProjection(viewType, toMap(tuple)))
+                .toList();
+    }
+
+    private static String sorted(String jpql, SearchQuery<?> query, Pageable pageable) {
+        return pageable.getSort().isSorted() ? QueryUtils.applySorting(jpql, pageable.getSort(), query.alias()) : jpql;
+    }
+
+    private <R> TypedQuery<R> limit(TypedQuery<R> typed, SearchQuery<?> query, Pageable pageable) {
+        query.bind(typed);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize() + 1);
+        }
+        return typed;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> values = new HashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            values.put(element.getAlias(), tuple.get(element));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,206 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.model.GenericModel;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Версии ответов для условных GET (ETag и Last-Modified) по таблицам, из которых собирается DTO:
+ * одним запросом число строк и max(coalesce(updated_when, created_when)) каждой таблицы.
+ * Число строк ловит удаления, которых не видно по времени изменения, а время последнего удаления
+ * для Last-Modified берется из {@link BulkDeleter}. Связующие таблицы без колонок времени
+ * учитываются числом строк и временем удаления.
+ * <p>
+ * Агрегаты по целым таблицам - это полные проходы, поэтому они хранятся в памяти и перечитываются,
+ * только когда таблица изменилась: запись через Hibernate отмечает {@link TableWriteListener},
+ * удаление - {@link BulkDeleter}, запись через JDBC - {@link #markWrittenAfterCommit}. Изменения с других
+ * узлов и в обход приложения видны через table-versions.ttl. Строка ответа про одну запись
+ * (поиск по первичному ключу) читается каждый раз.
+ */
+@Repository
+public class TableVersions {
+
+    /** Слабый ETag (W/"...") и время последнего изменения любой из таблиц. */
+    public record Version(String etag, Instant lastModified) {
+    }
+
+    // Число строк и время изменения таблицы; readWhen - момент перед чтением агрегата
+    private record TableState(long rows, Timestamp changed, Instant readWhen) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkDeleter bulkDeleter;
+    private final TransactionTemplate readOnly;
+    private final Set<String> timestampedTables = new HashSet<>();
+    private final Cache<String, TableState> states;
+    private final Map<String, Instant> writtenWhen = new ConcurrentHashMap<>();
+
+    public TableVersions(JdbcTemplate jdbcTemplate,
+                         BulkDeleter bulkDeleter,
+                         PlatformTransactionManager transactionManager,
+                         EntityManagerFactory entityManagerFactory,
+                         @Value("${table-versions.ttl:5s}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkDeleter = bulkDeleter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.states = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        entityManagerFactory.getMetamodel().getEntities().forEach(entity -> {
+            Table table = entity.getJavaType().getAnnotation(Table.class);
+            if (table != null && GenericModel.class.isAssignableFrom(entity.getJavaType())) {
+                timestampedTables.add(table.name());
+            }
+        });
+        TableWriteListener listener = new TableWriteListener(this::markWrittenAfterCommit);
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, listener);
+        listeners.appendListeners(EventType.POST_UPDATE, listener);
+        listeners.appendListeners(EventType.POST_DELETE, listener);
+        listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+        listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+    }
+
+    /**
+     * Версия и ответ читаются в одной read-only транзакции, то есть с одного сервера (основного или одной реплики),
+     * и версия - первой: изменение между двумя чтениями даст новое тело со старым ETag (следующий запрос
+     * просто получит 200), а не старое тело с новым ETag.
+     *
+     * @param tables первая - таблица самих записей, остальные - откуда DTO берет связи и имена
+     * @param id     если задан, первая таблица учитывается только строкой с этим id
+     */
+    public <T> T read(List<String> tables, Long id, Function<Version, T> response) {
+        return readOnly.execute(status -> response.apply(version(tables, id)));
+    }
+
+    /**
+     * Отмечает запись в таблицу мимо Hibernate (например, пакетная вставка через JdbcTemplate):
+     * после коммита агрегат таблицы будет перечитан. Вне транзакции - сразу.
+     */
+    public void markWrittenAfterCommit(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writtenWhen.put(table, Instant.now());
+            return;
+        }
+        // Одна синхронизация на транзакцию, а не на каждую сохраненную сущность
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof WrittenTables written) {
+                written.tables.add(table);
+                return;
+            }
+        }
+        WrittenTables written = new WrittenTables();
+        written.tables.add(table);
+        TransactionSynchronizationManager.registerSynchronization(written);
+    }
+
+    private Version version(List<String> tables, Long id) {
+        TableState[] found = new TableState[tables.size()];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < tables.size(); i++) {
+            TableState state = i == 0 && id != null ? null : states.getIfPresent(tables.get(i));
+            if (state != null && isCurrent(tables.get(i), state)) {
+                found[i] = state;
+            } else {
+                missing.add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            read(tables, id, missing, found);
+        }
+
+        StringBuilder key = new StringBuilder();
+        Instant lastModified = Instant.EPOCH;
+        for (int n = 0; n < tables.size(); n++) {
+            String table = tables.get(n);
+            Timestamp changed = found[n].changed();
+            // Удаление самой записи видно по числу строк, удаления соседних на нее не влияют
+            Instant deleted = n == 0 && id != null ? Instant.EPOCH : bulkDeleter.lastDeleted(table);
+            key.append(table).append(':').append(found[n].rows())
+                    .append(':').append(changed == null ? 0 : changed.getTime())
+                    .append(':').append(deleted.toEpochMilli()).append(';');
+            if (changed != null && changed.toInstant().isAfter(lastModified)) {
+                lastModified = changed.toInstant();
+            }
+            if (deleted.isAfter(lastModified)) {
+                lastModified = deleted;
+            }
+        }
+        return new Version("W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"",
+                lastModified);
+    }
+
+    // Агрегат прочитан после последней известной записи и последнего удаления
+    private boolean isCurrent(String table, TableState state) {
+        Instant written = writtenWhen.get(table);
+        return (written == null || state.readWhen().isAfter(written))
+                && state.readWhen().isAfter(bulkDeleter.lastDeleted(table));
+    }
+
+    // Недостающие агрегаты - одним запросом; агрегаты целых таблиц запоминаются
+    private void read(List<String> tables, Long id, List<Integer> missing, TableState[] found) {
+        Instant readWhen = Instant.now();
+        List<String> selects = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for (int i : missing) {
+            String table = tables.get(i);
+            String select = "SELECT " + i + " AS n, count(*) AS row_count, "
+                    + (timestampedTables.contains(table) ? "max(coalesce(updated_when, created_when))" : "CAST(NULL AS TIMESTAMP)")
+                    + " AS changed_when FROM " + table;
+            if (i == 0 && id != null) {
+                select += " WHERE id = ?";
+                args.add(id);
+            }
+            selects.add(select);
+        }
+        Map<Integer, TableState> read = new HashMap<>();
+        jdbcTemplate.query(String.join(" UNION ALL ", selects), rs -> {
+            read.put(rs.getInt("n"), new TableState(rs.getLong("row_count"), rs.getTimestamp("changed_when"), readWhen));
+        }, args.toArray());
+        read.forEach((n, state) -> {
+            found[n] = state;
+            if (n != 0 || id == null) {
+                states.put(tables.get(n), state);
+            }
+        });
+    }
+
+    private final class WrittenTables implements TransactionSynchronization {
+        private final Set<String> tables = new HashSet<>();
+
+        @Override
+        public void afterCommit() {
+            Instant now = Instant.now();
+            tables.forEach(table -> writtenWhen.put(table, now));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package almetpt.artspace.repository;
+
+import jakarta.persistence.Table;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.function.Consumer;
+
+/**
+ * Слушатель Hibernate: сообщает {@link TableVersions}, в какие таблицы пишет транзакция, -
+ * и для сущностей, и для связующих таблиц коллекций (exhibition_artwork).
+ */
+class TableWriteListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    private final Consumer<String> written;
+
+    TableWriteListener(Consumer<String> written) {
+        this.written = written;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        entityWritten(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        entityWritten(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        entityWritten(event.getPersister());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        collectionWritten(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void entityWritten(EntityPersister persister) {
+        Table table = persister.getMappedClass().getAnnotation(Table.class);
+        if (table != null) {
+            written.accept(table.name());
+        }
+    }
+
+    private void collectionWritten(AbstractCollectionEvent event) {
+        // У удаленной (замененной) коллекции роли уже нет, persister берется из записи контекста
+        CollectionEntry entry = event.getSession().getPersistenceContextInternal().getCollectionEntry(event.getCollection());
+        CollectionPersister persister = entry == null ? null
+                : entry.getCurrentPersister() != null ? entry.getCurrentPersister() : entry.getLoadedPersister();
+        if (persister instanceof AbstractCollectionPersister collection) {
+            written.accept(collection.getTableName());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package almetpt.artspace.repository.projection;
+
+import almetpt.artspace.model.ArtCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Плоская проекция произведения для списков и поиска: только колонки ArtworkDTO,
+ * включая имя художника из join. Сущности при этом не попадают в persistence context.
+ */
+public interface ArtworkView {
+    Long getId();
+    LocalDateTime getCreatedWhen();
+    String getCreatedBy();
+    LocalDateTime getUpdatedWhen();
+    String getUpdatedBy();
+    Boolean getIsDeleted();
+    String getTitle();
+    String getDescription();
+    BigDecimal getPrice();
+    LocalDate getCreationDate();
+    String getMedium();
+    String getDimensions();
+    String getImgPath();
+    ArtCategory getCategory();
+    Long getArtistId();
+    String getArtistName();
+}
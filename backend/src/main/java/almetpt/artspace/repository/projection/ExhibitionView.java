@@ -0,0 +1,24 @@
+package almetpt.artspace.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Плоская проекция выставки для списков и поиска: только колонки ExhibitionDTO.
+ */
+public interface ExhibitionView {
+    Long getId();
+    LocalDateTime getCreatedWhen();
+    String getCreatedBy();
+    LocalDateTime getUpdatedWhen();
+    String getUpdatedBy();
+    Boolean getIsDeleted();
+    String getTitle();
+    String getDescription();
+    LocalDate getStartDate();
+    LocalDate getEndDate();
+    String getLocation();
+    BigDecimal getPrice();
+    String getImagePath();
+}
@@ -2,16 +2,28 @@ package almetpt.artspace.service;
 
 import almetpt.artspace.dto.ArtistDTO;
 import almetpt.artspace.dto.ArtistSearchDTO;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.mapper.ArtistMapper;
 import almetpt.artspace.model.Artist;
 import almetpt.artspace.repository.ArtistRepository;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.DeletePlan;
+import almetpt.artspace.repository.DeletePlans;
+import almetpt.artspace.repository.SearchQueries;
+import almetpt.artspace.repository.SearchQuery;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import almetpt.artspace.service.search.FullTextIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -19,15 +31,70 @@ public class ArtistService extends GenericService<Artist, ArtistDTO> {
 
     private final ArtistRepository artistRepository;
     private final ArtistMapper artistMapper;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final SearchQueryExecutor searchQueryExecutor;
+    private final ExhibitionCalendar exhibitionCalendar;
+    private final CatalogResponseCache catalogResponseCache;
 
-    public ArtistService(ArtistRepository artistRepository, ArtistMapper artistMapper) {
-        super(artistRepository, artistMapper);
+    public ArtistService(ArtistRepository artistRepository, ArtistMapper artistMapper,
+                         CatalogSearchIndex catalogSearchIndex,
+                         PageTotals pageTotals,
+                         BulkDeleter bulkDeleter,
+                         SearchQueryExecutor searchQueryExecutor,
+                         ExhibitionCalendar exhibitionCalendar,
+                         CatalogResponseCache catalogResponseCache) {
+        super(artistRepository, artistMapper, pageTotals, bulkDeleter);
         this.artistRepository = artistRepository;
         this.artistMapper = artistMapper;
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.searchQueryExecutor = searchQueryExecutor;
+        this.exhibitionCalendar = exhibitionCalendar;
+        this.catalogResponseCache = catalogResponseCache;
+    }
+
+    @Override
+    protected void onSaved(Artist artist) {
+        catalogSearchIndex.artistSaved(artist);
+        catalogResponseCache.invalidateAfterCommit();
+    }
+
+    // artworkIds - из artworks
+    @Override
+    public List<String> versionTables() {
+        return List.of("artists", "artworks");
+    }
+
+    @Override
+    protected DeletePlan deletePlan() {
+        return DeletePlans.ARTISTS;
+    }
+
+    // Произведения удаляются пачками до художника: если удаление прервется, удаленные уже убраны из индекса
+    @Override
+    protected void onDeleted(String table, List<Long> ids) {
+        if (DeletePlans.ARTISTS.table().equals(table)) {
+            ids.forEach(catalogSearchIndex::artistDeleted);
+        } else if (DeletePlans.ARTWORKS.table().equals(table)) {
+            ids.forEach(catalogSearchIndex::artworkDeleted);
+        }
+    }
+
+    @Override
+    protected void onDeleteFinished() {
+        // Произведения удаляются вместе с художником и пропадают из artworkIds выставок в снимке
+        exhibitionCalendar.refreshAfterCommit();
+        catalogResponseCache.invalidateAfterCommit();
     }
 
     @Transactional(readOnly = true)
     public Page<ArtistDTO> findByName(String name, Pageable pageable) {
+        ArtistSearchDTO searchDTO = new ArtistSearchDTO();
+        searchDTO.setName(name);
+        Optional<FullTextIndex.Hits> hits = catalogSearchIndex.searchArtists(searchDTO, pageable);
+        if (hits.isPresent()) {
+            return artistMapper.toDTOPage(CatalogSearchIndex.toPage(hits.get(), artistRepository::findAllById,
+                    Artist::getId, pageable));
+        }
         Page<Artist> artists = artistRepository.findByNameContainingIgnoreCase(name, pageable);
         List<ArtistDTO> dtos = artistMapper.toDTOList(artists.getContent());
         return new PageImpl<>(dtos, pageable, artists.getTotalElements());
@@ -40,13 +107,26 @@ public class ArtistService extends GenericService<Artist, ArtistDTO> {
         return new PageImpl<>(dtos, pageable, artists.getTotalElements());
     }
 
+    // При наличии текстовых условий результат упорядочен по релевантности, а не по сортировке pageable
+    @Transactional(readOnly = true)
+    public Page<ArtistDTO> search(ArtistSearchDTO searchDTO, Pageable pageable, FieldSelection selection) {
+        return (Page<ArtistDTO>) search(searchDTO, pageable, selection, PageTotal.EXACT);
+    }
+
     @Transactional(readOnly = true)
-    public Page<ArtistDTO> search(ArtistSearchDTO searchDTO, Pageable pageable) {
-        Page<Artist> artists = artistRepository.findFiltered(
-                searchDTO.getName(),
-                searchDTO.getCountry(),
-                pageable);
-        return artists.map(artistMapper::toDTO);
+    public Slice<ArtistDTO> search(ArtistSearchDTO searchDTO, Pageable pageable, FieldSelection selection, PageTotal total) {
+        Optional<FullTextIndex.Hits> hits = catalogSearchIndex.searchArtists(searchDTO, pageable);
+        if (hits.isPresent()) {
+            return artistMapper.toDTOPage(CatalogSearchIndex.toPage(hits.get(), artistRepository::findAllById,
+                    Artist::getId, pageable), selection);
+        }
+        SearchQuery<Artist> query = SearchQueries.artists(searchDTO);
+        Slice<Artist> artists = pageTotals.read(total, pageable,
+                p -> searchQueryExecutor.page(query, Artist.class, p),
+                p -> searchQueryExecutor.slice(query, Artist.class, p),
+                pageTotals.cachedCount(() -> searchQueryExecutor.count(query), "artists.search",
+                        searchDTO.getName(), searchDTO.getCountry()));
+        return artistMapper.toDTOSlice(artists, selection);
     }
 
 }
@@ -2,19 +2,39 @@ package almetpt.artspace.service;
 
 import almetpt.artspace.dto.ArtworkDTO;
 import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.CursorPage;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.mapper.ArtworkMapper;
 import almetpt.artspace.model.Artist;
 import almetpt.artspace.model.Artwork;
 import almetpt.artspace.model.ArtCategory;
 import almetpt.artspace.repository.ArtistRepository;
 import almetpt.artspace.repository.ArtworkRepository;
+import almetpt.artspace.repository.ArtworkSpecifications;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.DeletePlan;
+import almetpt.artspace.repository.DeletePlans;
+import almetpt.artspace.repository.SearchQueries;
+import almetpt.artspace.repository.SearchQuery;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.repository.projection.ArtworkView;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import almetpt.artspace.service.search.FullTextIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 @Slf4j
 @Service
 public class ArtworkService extends GenericService<Artwork, ArtworkDTO> {
@@ -22,14 +42,36 @@ public class ArtworkService extends GenericService<Artwork, ArtworkDTO> {
     private final ArtworkRepository artworkRepository;
     private final ArtistRepository artistRepository;
     private final ArtworkMapper artworkMapper;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final SearchQueryExecutor searchQueryExecutor;
+    private final ExhibitionCalendar exhibitionCalendar;
+    private final CatalogResponseCache catalogResponseCache;
 
     public ArtworkService(ArtworkRepository artworkRepository,
                          ArtistRepository artistRepository,
-                         ArtworkMapper artworkMapper) {
-        super(artworkRepository, artworkMapper);
+                         ArtworkMapper artworkMapper,
+                         CatalogSearchIndex catalogSearchIndex,
+                         PageTotals pageTotals,
+                         BulkDeleter bulkDeleter,
+                         SearchQueryExecutor searchQueryExecutor,
+                         ExhibitionCalendar exhibitionCalendar,
+                         CatalogResponseCache catalogResponseCache) {
+        super(artworkRepository, artworkMapper, pageTotals, bulkDeleter);
         this.artworkRepository = artworkRepository;
         this.artistRepository = artistRepository;
         this.artworkMapper = artworkMapper;
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.searchQueryExecutor = searchQueryExecutor;
+        this.exhibitionCalendar = exhibitionCalendar;
+        this.catalogResponseCache = catalogResponseCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ArtworkDTO> listAll(Pageable pageable, FieldSelection selection, PageTotal total) {
+        return artworkMapper.toDTOSliceFromViews(pageTotals.read(total, pageable,
+                artworkRepository::findAllViews, artworkRepository::sliceAllViews,
+                pageTotals.tableRows(Artwork.class, artworkRepository::count)), selection);
     }
 
     @Override
@@ -61,6 +103,7 @@ public class ArtworkService extends GenericService<Artwork, ArtworkDTO> {
         artwork.setImgPath(dto.getImgPath());
 
         Artwork savedArtwork = artworkRepository.save(artwork);
+        onSaved(savedArtwork);
         log.info("Artwork saved with ID: {}", savedArtwork.getId());
 
         // Маппинг сохраненной сущности (с разыменованием прокси) в DTO
@@ -121,6 +164,7 @@ public class ArtworkService extends GenericService<Artwork, ArtworkDTO> {
         if (dto.getImgPath() != null) artwork.setImgPath(dto.getImgPath());
 
         Artwork updatedArtwork = artworkRepository.save(artwork);
+        onSaved(updatedArtwork);
         log.info("Artwork updated for ID: {}", updatedArtwork.getId());
         
         ArtworkDTO resultDTO = artworkMapper.toDTO((Artwork) Hibernate.unproxy(updatedArtwork));
@@ -142,32 +186,115 @@ public class ArtworkService extends GenericService<Artwork, ArtworkDTO> {
         return resultDTO;
     }
 
+    @Override
+    protected List<Artwork> toNewEntities(List<ArtworkDTO> dtos) {
+        Map<Long, Artist> artists = findAllById(artistRepository, dtos.stream().map(ArtworkDTO::getArtistId), "Artist");
+        return dtos.stream()
+                .map(dto -> {
+                    Artwork artwork = artworkMapper.toEntity(dto);
+                    artwork.setArtist(dto.getArtistId() != null ? artists.get(dto.getArtistId()) : null);
+                    return artwork;
+                })
+                .toList();
+    }
+
+    @Override
+    protected void onSaved(Artwork artwork) {
+        catalogSearchIndex.artworkSaved(artwork);
+        catalogResponseCache.invalidateAfterCommit();
+    }
+
+    // artistName - из artists, exhibitionIds - из exhibition_artwork. У связей нет времени изменения, и замена
+    // одного произведения другим не меняет их числа; зато она обновляет updated_when выставки
+    @Override
+    public List<String> versionTables() {
+        return List.of("artworks", "artists", "exhibition_artwork", "exhibitions");
+    }
+
+    @Override
+    protected DeletePlan deletePlan() {
+        return DeletePlans.ARTWORKS;
+    }
+
+    @Override
+    protected void onDeleted(String table, List<Long> ids) {
+        if (DeletePlans.ARTWORKS.table().equals(table)) {
+            ids.forEach(catalogSearchIndex::artworkDeleted);
+        }
+    }
+
+    @Override
+    protected void onDeleteFinished() {
+        // Удаленные произведения пропадают из artworkIds выставок в снимке
+        exhibitionCalendar.refreshAfterCommit();
+        catalogResponseCache.invalidateAfterCommit();
+    }
+
     @Transactional(readOnly = true)
     public Page<ArtworkDTO> findByTitle(String title, Pageable pageable) {
+        ArtworkSearchDTO searchDTO = new ArtworkSearchDTO();
+        searchDTO.setTitle(title);
+        Optional<FullTextIndex.Hits> hits = catalogSearchIndex.searchArtworks(searchDTO, pageable);
+        if (hits.isPresent()) {
+            return toDTOPage(hits.get(), pageable, FieldSelection.ALL);
+        }
         Page<Artwork> artworks = artworkRepository.findByTitleContainingIgnoreCase(title, pageable);
-        return artworks.map(art -> artworkMapper.toDTO((Artwork) Hibernate.unproxy(art)));
+        return artworkMapper.toDTOPage(artworks);
     }
 
     @Transactional(readOnly = true)
     public Page<ArtworkDTO> findByCategory(ArtCategory category, Pageable pageable) {
         Page<Artwork> artworks = artworkRepository.findByCategory(category, pageable);
-        return artworks.map(art -> artworkMapper.toDTO((Artwork) Hibernate.unproxy(art)));
+        return artworkMapper.toDTOPage(artworks);
     }
 
+    // При наличии текстовых условий результат упорядочен по релевантности, а не по сортировке pageable
     @Transactional(readOnly = true)
-    public Page<ArtworkDTO> search(ArtworkSearchDTO searchDTO, Pageable pageable) {
-        return artworkRepository.searchArtworks(
-                searchDTO.getTitle(),
-                searchDTO.getCategory(),
-                searchDTO.getCreatedAfter(),
-                searchDTO.getArtistName(),
-                pageable).map(art -> artworkMapper.toDTO((Artwork) Hibernate.unproxy(art)));
+    public Page<ArtworkDTO> search(ArtworkSearchDTO searchDTO, Pageable pageable, FieldSelection selection) {
+        return (Page<ArtworkDTO>) search(searchDTO, pageable, selection, PageTotal.EXACT);
+    }
+
+    // Индекс в памяти отдает точное число совпадений бесплатно, режим total влияет только на запрос в БД
+    @Transactional(readOnly = true)
+    public Slice<ArtworkDTO> search(ArtworkSearchDTO searchDTO, Pageable pageable, FieldSelection selection, PageTotal total) {
+        Optional<FullTextIndex.Hits> hits = catalogSearchIndex.searchArtworks(searchDTO, pageable);
+        if (hits.isPresent()) {
+            return toDTOPage(hits.get(), pageable, selection);
+        }
+        SearchQuery<Artwork> query = SearchQueries.artworks(searchDTO);
+        return artworkMapper.toDTOSliceFromViews(pageTotals.read(total, pageable,
+                p -> searchQueryExecutor.pageViews(query, ArtworkRepository.VIEW_COLUMNS, ArtworkView.class, p),
+                p -> searchQueryExecutor.sliceViews(query, ArtworkRepository.VIEW_COLUMNS, ArtworkView.class, p),
+                pageTotals.cachedCount(() -> searchQueryExecutor.count(query), "artworks.search",
+                        searchDTO.getTitle(), searchDTO.getCategory(), searchDTO.getCreatedAfter(),
+                        searchDTO.getArtistId(), searchDTO.getArtistName())), selection);
+    }
+
+    // Курсорный вариант search: порядок задаёт sort, а не релевантность, поэтому запрос идёт в БД
+    @Transactional(readOnly = true)
+    public CursorPage<ArtworkDTO> search(ArtworkSearchDTO searchDTO, Sort sort, int size, String after, FieldSelection selection) {
+        Window<Artwork> window = scrollEntities(ArtworkSpecifications.matching(searchDTO), sort, size, after);
+        return toCursorPage(window, artworkMapper.toDTOList(window.getContent(), selection));
+    }
+
+    @Override
+    protected String[] scrollFetchedAssociations() {
+        return new String[]{"artist"};
     }
 
     @Transactional(readOnly = true)
     public Page<ArtworkDTO> findByArtistName(String artistName, Pageable pageable) {
-        return artworkRepository
-                .findByArtistNameContainingIgnoreCase(artistName, pageable)
-                .map(art -> artworkMapper.toDTO((Artwork) Hibernate.unproxy(art)));
+        ArtworkSearchDTO searchDTO = new ArtworkSearchDTO();
+        searchDTO.setArtistName(artistName);
+        Optional<FullTextIndex.Hits> hits = catalogSearchIndex.searchArtworks(searchDTO, pageable);
+        if (hits.isPresent()) {
+            return toDTOPage(hits.get(), pageable, FieldSelection.ALL);
+        }
+        return artworkMapper.toDTOPageFromViews(artworkRepository.findViewsByArtistName(artistName, pageable), FieldSelection.ALL);
+    }
+
+    private Page<ArtworkDTO> toDTOPage(FullTextIndex.Hits hits, Pageable pageable, FieldSelection selection) {
+        Page<ArtworkView> views = CatalogSearchIndex.toPage(hits, artworkRepository::findViewsByIdIn, ArtworkView::getId, pageable);
+        return artworkMapper.toDTOPageFromViews(views, selection);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package almetpt.artspace.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Готовые тела ответов публичных GET каталога (без сериализации и запросов к БД) по пути и нормализованной строке запроса.
+ * Тело хранится дважды - как есть и сжатое gzip, - чтобы не сжимать его на каждый запрос.
+ * Объем ограничен суммарным размером тел (catalog.response-cache.max-size), при переполнении Caffeine
+ * вытесняет редко используемые записи (W-TinyLFU).
+ * <p>
+ * Каталог меняется редко, а DTO ссылаются друг на друга (artistName у произведений, artworkIds у выставок),
+ * поэтому любое изменение произведений, авторов и выставок после коммита сбрасывает кэш целиком.
+ * TTL ограничивает устаревание там, где сброса нет: изменения с других узлов, запись в БД в обход сервисов,
+ * ответ, прочитанный с отстающей реплики сразу после сброса. Записи прошлого дня не отдаются
+ * (/exhibitions/current зависит от даты).
+ */
+@Slf4j
+@Component
+public class CatalogResponseCache {
+
+    private static final String CACHE_NAME = "catalogResponses";
+    // Ключ, заголовки и служебные поля записи сверх самих тел
+    private static final int ENTRY_OVERHEAD = 512;
+
+    /** Ответ 200: сохраненные заголовки, тело как есть и сжатое (null, если gzip не меньше исходного). */
+    public record Entry(LocalDate date, HttpHeaders headers, byte[] identity, byte[] gzip) {
+    }
+
+    private final boolean enabled;
+    private final long maxEntrySize;
+    private final Cache<String, Entry> cache;
+    // Меняется при каждом сбросе: ответ, начатый до сброса, не сохраняется (см. put)
+    private final AtomicLong generation = new AtomicLong();
+    // Один экземпляр на транзакцию: createAll/deleteAll сбрасывают кэш один раз
+    private final TransactionSynchronization invalidateOnCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            invalidateAll();
+        }
+    };
+
+    public CatalogResponseCache(@Value("${catalog.response-cache.enabled:true}") boolean enabled,
+                                @Value("${catalog.response-cache.max-size:32MB}") DataSize maxSize,
+                                @Value("${catalog.response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                                @Value("${catalog.response-cache.ttl:60s}") Duration ttl,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> weight(key, entry))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Значение берется до выполнения запроса и передается в {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Entry get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(key);
+        return entry != null && entry.date().equals(LocalDate.now()) ? entry : null;
+    }
+
+    /**
+     * Сохраняет ответ, если с начала запроса кэш не сбрасывался: иначе тело могло быть прочитано до коммита изменения.
+     *
+     * @return запись для отдачи клиенту; null - ответ не сохранен (кэш выключен, тело больше max-entry-size, был сброс)
+     */
+    public Entry put(String key, long startedGeneration, HttpHeaders headers, byte[] body) {
+        if (!enabled || body.length > maxEntrySize || generation.get() != startedGeneration) {
+            return null;
+        }
+        byte[] gzip = gzip(body);
+        Entry entry = new Entry(LocalDate.now(), HttpHeaders.readOnlyHttpHeaders(headers), body,
+                gzip.length < body.length ? gzip : null);
+        cache.put(key, entry);
+        // Сброс между проверкой и put: invalidateAll мог пройти раньше put, поэтому запись убирается здесь
+        if (generation.get() != startedGeneration) {
+            cache.invalidate(key);
+        }
+        return entry;
+    }
+
+    // Вызывается сервисами каталога при изменениях: внутри транзакции - после ее коммита, иначе сразу
+    public void invalidateAfterCommit() {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAll();
+        } else if (!TransactionSynchronizationManager.getSynchronizations().contains(invalidateOnCommit)) {
+            TransactionSynchronizationManager.registerSynchronization(invalidateOnCommit);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("Кэш ответов каталога сброшен");
+    }
+
+    private static int weight(String key, Entry entry) {
+        long bytes = ENTRY_OVERHEAD + 2L * key.length() + entry.identity().length
+                + (entry.gzip() == null ? 0 : entry.gzip().length);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
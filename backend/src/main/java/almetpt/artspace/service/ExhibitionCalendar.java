@@ -0,0 +1,117 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ExhibitionDTO;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.repository.ExhibitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Снимок текущих и предстоящих выставок в памяти: /exhibitions/current и /upcoming отдают страницы
+ * из него без запросов к БД. Ответ зависит только от даты и от записей exhibitions, поэтому снимок
+ * пересобирается в полночь (и при первом чтении в новый день, если перестроение по расписанию пропущено)
+ * и после коммита каждого изменения выставок и их связей с произведениями.
+ * Новый снимок строится целиком и подменяет старый одной записью: читатели видят либо старый, либо новый.
+ */
+@Slf4j
+@Component
+public class ExhibitionCalendar {
+
+    // Порядок страниц без явной сортировки: по дате начала, при равенстве - по id
+    static final Sort ORDER = Sort.by("startDate", "id");
+
+    private record Snapshot(LocalDate date, List<ExhibitionDTO> current, List<ExhibitionDTO> upcoming) {
+    }
+
+    private final ExhibitionRepository exhibitionRepository;
+    private final ExhibitionMapper exhibitionMapper;
+    private final TransactionTemplate transactionTemplate;
+    // Один экземпляр на все изменения транзакции: createAll/deleteAll пересобирают снимок один раз
+    private final TransactionSynchronization refreshOnCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            refresh();
+        }
+    };
+
+    private volatile Snapshot snapshot;
+
+    public ExhibitionCalendar(ExhibitionRepository exhibitionRepository,
+                              ExhibitionMapper exhibitionMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.exhibitionRepository = exhibitionRepository;
+        this.exhibitionMapper = exhibitionMapper;
+        // Не read-only: снимок после записи читается с основного сервера, а не с отстающей реплики.
+        // REQUIRES_NEW - refresh вызывается и из afterCommit, где ресурсы завершенной транзакции еще привязаны
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Page<ExhibitionDTO> current(Pageable pageable) {
+        return page(snapshot().current(), pageable);
+    }
+
+    public Page<ExhibitionDTO> upcoming(Pageable pageable) {
+        return page(snapshot().upcoming(), pageable);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${exhibitions.calendar.refresh-cron:0 0 0 * * *}")
+    public synchronized void refresh() {
+        LocalDate today = LocalDate.now();
+        snapshot = transactionTemplate.execute(status -> new Snapshot(today,
+                exhibitionMapper.toDTOPageFromViews(exhibitionRepository.findCurrentViews(today, Pageable.unpaged(ORDER)),
+                        FieldSelection.ALL).getContent(),
+                exhibitionMapper.toDTOPageFromViews(exhibitionRepository.findUpcomingViews(today, Pageable.unpaged(ORDER)),
+                        FieldSelection.ALL).getContent()));
+        log.debug("Снимок выставок на {}: текущих {}, предстоящих {}",
+                today, snapshot.current().size(), snapshot.upcoming().size());
+    }
+
+    // Вызывается сервисами при изменении выставок: внутри транзакции - после ее коммита, иначе сразу
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+        } else if (!TransactionSynchronizationManager.getSynchronizations().contains(refreshOnCommit)) {
+            TransactionSynchronizationManager.registerSynchronization(refreshOnCommit);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null || !current.date().equals(LocalDate.now())) {
+            synchronized (this) {
+                if (snapshot == null || !snapshot.date().equals(LocalDate.now())) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static Page<ExhibitionDTO> page(List<ExhibitionDTO> all, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+}
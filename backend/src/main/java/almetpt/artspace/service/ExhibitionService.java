@@ -2,21 +2,39 @@ package almetpt.artspace.service;
 
 import almetpt.artspace.dto.ExhibitionDTO;
 import almetpt.artspace.dto.ExhibitionSearchDTO;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.mapper.ExhibitionMapper;
 import almetpt.artspace.model.Artwork;
 import almetpt.artspace.model.Exhibition;
 import almetpt.artspace.repository.ArtworkRepository;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.DeletePlan;
+import almetpt.artspace.repository.DeletePlans;
 import almetpt.artspace.repository.ExhibitionRepository;
+import almetpt.artspace.repository.projection.ExhibitionView;
+import almetpt.artspace.repository.SearchQueries;
+import almetpt.artspace.repository.SearchQuery;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import almetpt.artspace.service.search.FullTextIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -26,14 +44,36 @@ public class ExhibitionService extends GenericService<Exhibition, ExhibitionDTO>
     private final ExhibitionRepository exhibitionRepository;
     private final ArtworkRepository artworkRepository;
     private final ExhibitionMapper exhibitionMapper;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final SearchQueryExecutor searchQueryExecutor;
+    private final ExhibitionCalendar exhibitionCalendar;
+    private final CatalogResponseCache catalogResponseCache;
 
     public ExhibitionService(ExhibitionRepository exhibitionRepository,
             ArtworkRepository artworkRepository,
-            ExhibitionMapper exhibitionMapper) {
-        super(exhibitionRepository, exhibitionMapper);
+            ExhibitionMapper exhibitionMapper,
+            CatalogSearchIndex catalogSearchIndex,
+            PageTotals pageTotals,
+            BulkDeleter bulkDeleter,
+            SearchQueryExecutor searchQueryExecutor,
+            ExhibitionCalendar exhibitionCalendar,
+            CatalogResponseCache catalogResponseCache) {
+        super(exhibitionRepository, exhibitionMapper, pageTotals, bulkDeleter);
         this.exhibitionRepository = exhibitionRepository;
         this.artworkRepository = artworkRepository;
         this.exhibitionMapper = exhibitionMapper;
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.searchQueryExecutor = searchQueryExecutor;
+        this.exhibitionCalendar = exhibitionCalendar;
+        this.catalogResponseCache = catalogResponseCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ExhibitionDTO> listAll(Pageable pageable, FieldSelection selection, PageTotal total) {
+        return exhibitionMapper.toDTOSliceFromViews(pageTotals.read(total, pageable,
+                exhibitionRepository::findAllViews, exhibitionRepository::sliceAllViews,
+                pageTotals.tableRows(Exhibition.class, exhibitionRepository::count)), selection);
     }
 
     @Override
@@ -55,9 +95,33 @@ public class ExhibitionService extends GenericService<Exhibition, ExhibitionDTO>
 
 
         Exhibition savedExhibition = exhibitionRepository.save(exhibition);
+        onSaved(savedExhibition);
         return exhibitionMapper.toDTO((Exhibition) Hibernate.unproxy(savedExhibition));
     }
 
+    // Как и в create, несуществующие id произведений пропускаются
+    @Override
+    protected List<Exhibition> toNewEntities(List<ExhibitionDTO> dtos) {
+        Map<Long, Artwork> artworks = artworkRepository.findAllById(dtos.stream()
+                        .filter(dto -> dto.getArtworkIds() != null)
+                        .flatMap(dto -> dto.getArtworkIds().stream())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Artwork::getId, Function.identity()));
+        return dtos.stream()
+                .map(dto -> {
+                    Exhibition exhibition = exhibitionMapper.toEntity(dto);
+                    if (dto.getArtworkIds() != null && !dto.getArtworkIds().isEmpty()) {
+                        exhibition.setArtworks(dto.getArtworkIds().stream()
+                                .map(artworks::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toCollection(HashSet::new)));
+                    }
+                    return exhibition;
+                })
+                .toList();
+    }
+
     @Override
     @Transactional
     public ExhibitionDTO update(ExhibitionDTO dto) {
@@ -82,39 +146,83 @@ public class ExhibitionService extends GenericService<Exhibition, ExhibitionDTO>
         }
 
         Exhibition updatedExhibition = exhibitionRepository.save(exhibition);
+        onSaved(updatedExhibition);
         return exhibitionMapper.toDTO((Exhibition) Hibernate.unproxy(updatedExhibition));
     }
 
-    @Transactional(readOnly = true)
+    @Override
+    protected void onSaved(Exhibition exhibition) {
+        catalogSearchIndex.exhibitionSaved(exhibition);
+        exhibitionCalendar.refreshAfterCommit();
+        // После пересборки снимка: ответ /exhibitions/current, начатый после сброса, уже видит новый снимок
+        catalogResponseCache.invalidateAfterCommit();
+    }
+
+    // artworkIds - из exhibition_artwork
+    @Override
+    public List<String> versionTables() {
+        return List.of("exhibitions", "exhibition_artwork");
+    }
+
+    @Override
+    protected DeletePlan deletePlan() {
+        return DeletePlans.EXHIBITIONS;
+    }
+
+    @Override
+    protected void onDeleted(String table, List<Long> ids) {
+        if (DeletePlans.EXHIBITIONS.table().equals(table)) {
+            ids.forEach(catalogSearchIndex::exhibitionDeleted);
+        }
+    }
+
+    @Override
+    protected void onDeleteFinished() {
+        exhibitionCalendar.refreshAfterCommit();
+        catalogResponseCache.invalidateAfterCommit();
+    }
+
+    // Страницы в порядке по умолчанию - из снимка в памяти; с явной сортировкой - запросом к БД
     public Page<ExhibitionDTO> findCurrentExhibitions(Pageable pageable) {
-        LocalDate now = LocalDate.now();
-        return exhibitionRepository
-                .findByStartDateLessThanEqualAndEndDateGreaterThanEqual(now, now, pageable)
-                .map(exh -> exhibitionMapper.toDTO((Exhibition) Hibernate.unproxy(exh)));
+        if (pageable.getSort().isUnsorted()) {
+            return exhibitionCalendar.current(pageable);
+        }
+        return exhibitionMapper.toDTOPageFromViews(exhibitionRepository.findCurrentViews(LocalDate.now(), pageable), FieldSelection.ALL);
     }
 
-    @Transactional(readOnly = true)
     public Page<ExhibitionDTO> findUpcomingExhibitions(Pageable pageable) {
-        LocalDate now = LocalDate.now();
-        return exhibitionRepository
-                .findByStartDateAfter(now, pageable)
-                .map(exh -> exhibitionMapper.toDTO((Exhibition) Hibernate.unproxy(exh)));
+        if (pageable.getSort().isUnsorted()) {
+            return exhibitionCalendar.upcoming(pageable);
+        }
+        return exhibitionMapper.toDTOPageFromViews(exhibitionRepository.findUpcomingViews(LocalDate.now(), pageable), FieldSelection.ALL);
     }
 
     @Transactional(readOnly = true)
     public Page<ExhibitionDTO> findByTitle(String title, Pageable pageable) {
-        Page<Exhibition> exhibitions = exhibitionRepository.findFiltered(title, null, null, null, pageable);
-        return exhibitions.map(exh -> exhibitionMapper.toDTO((Exhibition) Hibernate.unproxy(exh)));
+        ExhibitionSearchDTO searchDTO = new ExhibitionSearchDTO();
+        searchDTO.setTitle(title);
+        return search(searchDTO, pageable, FieldSelection.ALL);
     }
 
+    // При наличии текстовых условий результат упорядочен по релевантности, а не по сортировке pageable
     @Transactional(readOnly = true)
-    public Page<ExhibitionDTO> search(ExhibitionSearchDTO searchDTO, Pageable pageable) {
-        Page<Exhibition> exhibitions = exhibitionRepository.findFiltered(
-                searchDTO.getTitle(),
-                searchDTO.getLocation(), // Добавлен поиск по location
-                searchDTO.getStartDate(),
-                searchDTO.getEndDate(),
-                pageable);
-        return exhibitions.map(exh -> exhibitionMapper.toDTO((Exhibition) Hibernate.unproxy(exh)));
+    public Page<ExhibitionDTO> search(ExhibitionSearchDTO searchDTO, Pageable pageable, FieldSelection selection) {
+        return (Page<ExhibitionDTO>) search(searchDTO, pageable, selection, PageTotal.EXACT);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ExhibitionDTO> search(ExhibitionSearchDTO searchDTO, Pageable pageable, FieldSelection selection, PageTotal total) {
+        Optional<FullTextIndex.Hits> hits = catalogSearchIndex.searchExhibitions(searchDTO, pageable);
+        if (hits.isPresent()) {
+            Page<ExhibitionView> views = CatalogSearchIndex.toPage(hits.get(), exhibitionRepository::findViewsByIdIn,
+                    ExhibitionView::getId, pageable);
+            return exhibitionMapper.toDTOPageFromViews(views, selection);
+        }
+        SearchQuery<Exhibition> query = SearchQueries.exhibitions(searchDTO);
+        return exhibitionMapper.toDTOSliceFromViews(pageTotals.read(total, pageable,
+                p -> searchQueryExecutor.pageViews(query, ExhibitionRepository.VIEW_COLUMNS, ExhibitionView.class, p),
+                p -> searchQueryExecutor.sliceViews(query, ExhibitionRepository.VIEW_COLUMNS, ExhibitionView.class, p),
+                pageTotals.cachedCount(() -> searchQueryExecutor.count(query), "exhibitions.search",
+                        searchDTO.getTitle(), searchDTO.getLocation(), searchDTO.getStartDate(), searchDTO.getEndDate())), selection);
     }
 }
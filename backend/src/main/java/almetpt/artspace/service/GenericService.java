@@ -1,31 +1,69 @@
 package almetpt.artspace.service;
 
+import almetpt.artspace.dto.CursorPage;
+import almetpt.artspace.dto.DeletionReport;
+import almetpt.artspace.dto.FieldSelection;
 import almetpt.artspace.dto.GenericDTO;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.mapper.GenericMapper;
 import almetpt.artspace.model.GenericModel;
+import almetpt.artspace.exception.BadRequestException;
 import almetpt.artspace.exception.NotFoundException;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.DeletePlan;
+import almetpt.artspace.repository.GenericRepository;
+import jakarta.persistence.Table;
+import jakarta.persistence.criteria.JoinType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.util.ClassUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public abstract class GenericService<E extends GenericModel, D extends GenericDTO> {
 
-    protected final JpaRepository<E, Long> repository;
+    public static final int MAX_SCROLL_SIZE = 1000;
+    public static final int MAX_BULK_SIZE = 1000;
+
+    protected final GenericRepository<E> repository;
     protected final GenericMapper<E, D> mapper;
+    protected final PageTotals pageTotals;
+    private final BulkDeleter bulkDeleter;
+    private final Class<?> entityType;
 
-    public GenericService(JpaRepository<E, Long> repository, GenericMapper<E, D> mapper) {
+    public GenericService(GenericRepository<E> repository, GenericMapper<E, D> mapper, PageTotals pageTotals,
+                          BulkDeleter bulkDeleter) {
         this.repository = repository;
         this.mapper = mapper;
+        this.pageTotals = pageTotals;
+        this.bulkDeleter = bulkDeleter;
+        this.entityType = GenericTypeResolver.resolveTypeArguments(ClassUtils.getUserClass(getClass()), GenericService.class)[0];
     }
 
     @Transactional(readOnly = true)
     public D getOne(Long id) {
+        return getOne(id, FieldSelection.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public D getOne(Long id, FieldSelection selection) {
         E entity = repository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Entity not found with id: " + id));
-        return mapper.toDTO(entity);
+        return mapper.toDTO(entity, selection);
     }
 
     @Transactional(readOnly = true)
@@ -35,17 +73,112 @@ public abstract class GenericService<E extends GenericModel, D extends GenericDT
 
     @Transactional(readOnly = true)
     public Page<D> listAll(Pageable pageable) {
-        Page<E> entityPage = repository.findAll(pageable);
-        return entityPage.map(mapper::toDTO);
+        return listAll(pageable, FieldSelection.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<D> listAll(Pageable pageable, FieldSelection selection) {
+        return (Page<D>) listAll(pageable, selection, PageTotal.EXACT);
+    }
+
+    // В режиме exact результат - Page, иначе Slice без COUNT или EstimatedPage
+    @Transactional(readOnly = true)
+    public Slice<D> listAll(Pageable pageable, FieldSelection selection, PageTotal total) {
+        Slice<E> entities = pageTotals.read(total, pageable, repository::findAll, repository::findAllBy,
+                pageTotals.tableRows(entityType, repository::count));
+        return mapper.toDTOSlice(entities, selection);
+    }
+
+    /**
+     * Keyset-пагинация: страница после курсора after (null - первая), без COUNT и OFFSET.
+     * Запрос начинается с условия по ключу сортировки и id, поэтому глубокая страница стоит как первая.
+     * Записи с NULL в поле сортировки идут в конце; по умолчанию сортировка по id.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<D> scroll(Sort sort, int size, String after, FieldSelection selection) {
+        Window<E> window = scrollEntities(null, sort, size, after);
+        return toCursorPage(window, mapper.toDTOList(window.getContent(), selection));
+    }
+
+    protected Window<E> scrollEntities(Specification<E> filter, Sort sort, int size, String after) {
+        Sort order = KeysetQuery.withId(sort);
+        int limit = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        var position = KeysetCursor.decode(after, order);
+        // На одну запись больше страницы: по ней видно, есть ли следующая
+        List<E> rows = repository.findBy(Specification.where(filter).and(fetchAssociations())
+                        .and(KeysetQuery.after(order, position.getKeys())),
+                query -> query.limit(limit + 1).all());
+        List<E> content = rows.size() > limit ? rows.subList(0, limit) : rows;
+        return Window.from(content, index -> KeysetQuery.positionOf(content.get(index), order), rows.size() > limit);
+    }
+
+    // FetchableFluentQuery.project() при scroll не применяется, поэтому связи подтягиваются join fetch в самой спецификации
+    private Specification<E> fetchAssociations() {
+        String[] associations = scrollFetchedAssociations();
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class) {
+                for (String association : associations) {
+                    root.fetch(association, JoinType.LEFT);
+                }
+            }
+            return null;
+        };
+    }
+
+    // Связи, которые маппер читает у каждой записи (например, artist.name): загружаются тем же запросом
+    protected String[] scrollFetchedAssociations() {
+        return new String[0];
+    }
+
+    protected static <T> CursorPage<T> toCursorPage(Window<?> window, List<T> content) {
+        String next = window.hasNext() && !window.isEmpty()
+                ? KeysetCursor.encode(window.positionAt(window.size() - 1))
+                : null;
+        return new CursorPage<>(content, next);
     }
 
     @Transactional
     public D create(D dto) {
         E entity = mapper.toEntity(dto);
         E savedEntity = repository.save(entity);
+        onSaved(savedEntity);
         return mapper.toDTO(savedEntity);
     }
 
+    /**
+     * Пакетное создание: все сущности сохраняются в одной транзакции, а вставки уходят
+     * JDBC batch'ами по hibernate.jdbc.batch_size (id выдает последовательность заранее, см. GenericModel).
+     */
+    @Transactional
+    public List<D> createAll(List<D> dtos) {
+        if (dtos.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("Too many records in one request: " + dtos.size() + " (max " + MAX_BULK_SIZE + ")");
+        }
+        List<E> savedEntities = repository.saveAll(toNewEntities(dtos));
+        savedEntities.forEach(this::onSaved);
+        return mapper.toDTOList(savedEntities);
+    }
+
+    // Сущности для createAll; наследники подставляют связи, загружая их одним запросом на весь список
+    protected List<E> toNewEntities(List<D> dtos) {
+        return mapper.toEntityList(dtos);
+    }
+
+    // Связанные сущности по id (null пропускаются) одним запросом; отсутствующий id - NotFoundException
+    protected static <T extends GenericModel> Map<Long, T> findAllById(GenericRepository<T> repository,
+                                                                      Stream<Long> ids, String name) {
+        Set<Long> wanted = ids.filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, T> found = repository.findAllById(wanted).stream()
+                .collect(Collectors.toMap(GenericModel::getId, Function.identity()));
+        wanted.stream()
+                .filter(id -> !found.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new NotFoundException(name + " not found with id: " + id);
+                });
+        return found;
+    }
+
     @Transactional
     public D update(D dto) {
         if (dto.getId() == null) {
@@ -55,14 +188,67 @@ public abstract class GenericService<E extends GenericModel, D extends GenericDT
                 .orElseThrow(() -> new NotFoundException("Cannot update. Entity not found with id: " + dto.getId()));
         mapper.updateEntityFromDto(dto, entity);
         E updatedEntity = repository.save(entity);
+        onSaved(updatedEntity);
         return mapper.toDTO(updatedEntity);
     }
 
-    @Transactional
-    public void delete(Long id) {
-        if (!repository.existsById(id)) {
+    /**
+     * Удаление вместе с дочерними строками по {@link #deletePlan()}: запросами DELETE ... IN (...) пачками,
+     * без загрузки сущностей. Без транзакции: каждая пачка коммитится отдельно (см. BulkDeleter).
+     */
+    public DeletionReport delete(Long id) {
+        DeletionReport report = deleteRows(List.of(id));
+        if (report.deleted(deletePlan().table()) == 0) {
             throw new NotFoundException("Cannot delete. Entity not found with id: " + id);
         }
-        repository.deleteById(id);
+        return report;
+    }
+
+    // Несуществующие id пропускаются: в отчете видно, сколько записей удалено на самом деле
+    public DeletionReport deleteAll(Collection<Long> ids) {
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("Too many records in one request: " + ids.size() + " (max " + MAX_BULK_SIZE + ")");
+        }
+        return deleteRows(ids);
+    }
+
+    // Производные данные обновляются и при ошибке посреди плана: пачки, закоммиченные до нее, уже удалены
+    private DeletionReport deleteRows(Collection<Long> ids) {
+        AtomicBoolean deleted = new AtomicBoolean();
+        try {
+            return bulkDeleter.delete(deletePlan(), ids, (table, chunk) -> {
+                deleted.set(true);
+                onDeleted(table, chunk);
+            });
+        } finally {
+            if (deleted.get()) {
+                onDeleteFinished();
+            }
+        }
+    }
+
+    // Таблица сущности без дочерних строк; наследники добавляют связи и каскады (см. DeletePlans)
+    protected DeletePlan deletePlan() {
+        return DeletePlan.of(entityType.getAnnotation(Table.class).name());
+    }
+
+    /**
+     * Таблицы, из которых собирается DTO: по ним считаются ETag и Last-Modified ответов (см. TableVersions).
+     * Первая - таблица самих записей; наследники добавляют таблицы связей и имен из соседних сущностей.
+     */
+    public List<String> versionTables() {
+        return List.of(deletePlan().table());
+    }
+
+    // Наследники обновляют производные данные (поисковый индекс): onSaved - в транзакции create/update,
+    // onDeleted - после каждой пачки delete с id удаленных из table строк (и дочерних таблиц плана),
+    // onDeleteFinished - один раз после удаления, в том числе прерванного ошибкой, если что-то было удалено
+    protected void onSaved(E entity) {
+    }
+
+    protected void onDeleted(String table, List<Long> ids) {
+    }
+
+    protected void onDeleteFinished() {
     }
 }
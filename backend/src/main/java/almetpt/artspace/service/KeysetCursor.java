@@ -0,0 +1,128 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.exception.BadRequestException;
+import almetpt.artspace.model.ArtCategory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: значения ключей сортировки и id последней записи страницы
+ * в base64url(JSON). Рядом с каждым значением хранится его тип, чтобы при разборе вернуть
+ * LocalDate/BigDecimal/enum, с которыми сравнивает запрос. Подмена курсора клиентом меняет только
+ * значения параметров запроса; некорректный курсор - 400.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, List<String>>> KEYS = new TypeReference<>() {
+    };
+    private static final Pattern ENUM_NAME = Pattern.compile("[A-Z][A-Za-z]*");
+    private static final String NULL = "0";
+    private static final Set<Class<?>> TYPES = Set.of(Long.class, long.class, Integer.class, int.class, String.class,
+            LocalDate.class, LocalDateTime.class, BigDecimal.class, Boolean.class, boolean.class);
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        Map<String, List<String>> keys = new LinkedHashMap<>();
+        ((KeysetScrollPosition) position).getKeys().forEach((property, value) -> keys.put(property, value == null
+                ? List.of(NULL, "")
+                : List.of(typeOf(value), value instanceof Enum<?> e ? e.name() : value.toString())));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JSON.writeValueAsBytes(keys));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Позиция после записи из курсора; без курсора - начало выборки.
+     * Курсор должен содержать все поля сортировки и id, иначе он получен для другой сортировки.
+     */
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        if (!StringUtils.hasText(cursor)) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        try {
+            Map<String, List<String>> keys = JSON.readValue(Base64.getUrlDecoder().decode(cursor), KEYS);
+            for (Map.Entry<String, List<String>> key : keys.entrySet()) {
+                if (key.getValue() == null || key.getValue().size() != 2) {
+                    throw new IllegalArgumentException(key.getKey());
+                }
+                values.put(key.getKey(), parse(key.getValue().get(0), key.getValue().get(1)));
+            }
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+        for (Sort.Order order : sort) {
+            if (!values.containsKey(order.getProperty())) {
+                throw new BadRequestException("Курсор получен для другой сортировки");
+            }
+        }
+        if (!values.containsKey("id")) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+        return ScrollPosition.forward(values);
+    }
+
+    /** Тип поля сортировки, значение которого можно сохранить в курсоре (перечисления - только из моделей). */
+    static boolean supports(Class<?> type) {
+        return TYPES.contains(type)
+                || (type.isEnum() && type.getPackageName().equals(ArtCategory.class.getPackageName()));
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof Long) return "L";
+        if (value instanceof Integer) return "I";
+        if (value instanceof String) return "S";
+        if (value instanceof LocalDate) return "D";
+        if (value instanceof LocalDateTime) return "T";
+        if (value instanceof BigDecimal) return "N";
+        if (value instanceof Boolean) return "B";
+        if (value instanceof Enum<?> e) return "E:" + e.getDeclaringClass().getSimpleName();
+        throw new BadRequestException("Курсорная пагинация не поддерживает сортировку по типу " + value.getClass().getSimpleName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parse(String type, String value) throws ClassNotFoundException {
+        switch (type) {
+            case NULL: return null;
+            case "L": return Long.valueOf(value);
+            case "I": return Integer.valueOf(value);
+            case "S": return value;
+            case "D": return LocalDate.parse(value);
+            case "T": return LocalDateTime.parse(value);
+            case "N": return new BigDecimal(value);
+            case "B": return Boolean.valueOf(value);
+            default:
+                // Перечисления ищем только среди моделей, имя из курсора не может указать на произвольный класс
+                String name = type.startsWith("E:") ? type.substring(2) : "";
+                if (!ENUM_NAME.matcher(name).matches()) {
+                    throw new IllegalArgumentException(type);
+                }
+                Class<?> enumType = Class.forName(ArtCategory.class.getPackageName() + "." + name);
+                if (!enumType.isEnum()) {
+                    throw new IllegalArgumentException(type);
+                }
+                return Enum.valueOf((Class<Enum>) enumType, value);
+        }
+    }
+}
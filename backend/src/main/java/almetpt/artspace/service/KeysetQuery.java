@@ -0,0 +1,140 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.exception.BadRequestException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-условие и порядок для {@link GenericService#scroll}, допускающие NULL в полях сортировки
+ * (keyset-пагинация Spring Data сравнивает с NULL через "больше" и теряет такие записи).
+ * NULL идут в конце при любом направлении; для полей, которые по модели не бывают NULL,
+ * условие и ORDER BY остаются простыми сравнениями, которые обслуживает индекс.
+ */
+final class KeysetQuery {
+
+    private KeysetQuery() {
+    }
+
+    /** Сортировка с id в конце: без уникального ключа позиция в выборке неоднозначна. */
+    static Sort withId(Sort sort) {
+        Sort order = sort == null || sort.isUnsorted() ? Sort.by("id") : sort;
+        return order.getOrderFor("id") != null ? order : order.and(Sort.by("id"));
+    }
+
+    /**
+     * Порядок выборки и условие "после позиции" (пустые keys - с начала). Поле сортировки, которого нет
+     * у сущности или тип которого не хранится в курсоре, отклоняется до выполнения запроса.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <E> Specification<E> after(Sort order, Map<String, ?> keys) {
+        return (root, query, cb) -> {
+            if (query.getResultType() == Long.class) {
+                return null;
+            }
+            List<Order> orders = new ArrayList<>();
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalSoFar = new ArrayList<>();
+            for (Sort.Order sortOrder : order) {
+                SortKey key = sortKey(root, sortOrder.getProperty());
+                Expression<Comparable> path = (Expression<Comparable>) key.path();
+                if (key.nullable()) {
+                    orders.add(cb.asc(cb.<Integer>selectCase().when(cb.isNull(path), 1).otherwise(0)));
+                }
+                orders.add(sortOrder.isAscending() ? cb.asc(path) : cb.desc(path));
+
+                if (keys.isEmpty()) {
+                    continue;
+                }
+                Comparable value = (Comparable) keys.get(sortOrder.getProperty());
+                if (value == null) {
+                    // После NULL по этому полю идут только записи с тем же NULL и большим следующим ключом
+                    equalSoFar.add(cb.isNull(path));
+                    continue;
+                }
+                Predicate greater = sortOrder.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+                if (key.nullable()) {
+                    greater = cb.or(greater, cb.isNull(path));
+                }
+                alternatives.add(and(cb, equalSoFar, greater));
+                equalSoFar.add(cb.equal(path, value));
+            }
+            query.orderBy(orders);
+            return keys.isEmpty() ? null : cb.or(alternatives.toArray(new Predicate[0]));
+        };
+    }
+
+    /** Значения ключей сортировки записи для курсора; NULL во вложенном пути (artist.name без художника) - NULL. */
+    static ScrollPosition positionOf(Object entity, Sort order) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order sortOrder : order) {
+            Object value = entity;
+            for (String segment : sortOrder.getProperty().split("\\.")) {
+                if (value == null) {
+                    break;
+                }
+                BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(value);
+                value = wrapper.getPropertyValue(segment);
+            }
+            keys.put(sortOrder.getProperty(), value);
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private record SortKey(Expression<?> path, boolean nullable) {
+    }
+
+    // Вложенные поля через LEFT JOIN: записи без связанной сущности остаются в выборке с NULL
+    private static SortKey sortKey(Root<?> root, String property) {
+        From<?, ?> from = root;
+        ManagedType<?> type = root.getModel();
+        boolean nullable = false;
+        String[] segments = property.split("\\.");
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                Attribute<?, ?> attribute = type.getAttribute(segments[i]);
+                if (!(attribute instanceof SingularAttribute<?, ?> singular)) {
+                    break;
+                }
+                nullable |= singular.isOptional();
+                if (i == segments.length - 1) {
+                    if (!KeysetCursor.supports(singular.getJavaType())) {
+                        break;
+                    }
+                    return new SortKey(from.get(segments[i]), nullable);
+                }
+                if (!(singular.getType() instanceof ManagedType<?> next)) {
+                    break;
+                }
+                from = from.join(segments[i], JoinType.LEFT);
+                type = next;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Неизвестное поле сортировки: " + property);
+        }
+        throw new BadRequestException("Курсорная пагинация не поддерживает сортировку по полю " + property);
+    }
+
+    private static Predicate and(CriteriaBuilder cb, List<Predicate> equalSoFar, Predicate last) {
+        List<Predicate> all = new ArrayList<>(equalSoFar);
+        all.add(last);
+        return cb.and(all.toArray(new Predicate[0]));
+    }
+}
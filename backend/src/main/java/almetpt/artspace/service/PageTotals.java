@@ -0,0 +1,111 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.EstimatedPage;
+import almetpt.artspace.dto.PageTotal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Общее число записей для постраничных ответов в режимах {@link PageTotal}.
+ * В режимах none и estimate страница читается как Slice (на одну запись больше, без COUNT);
+ * для estimate общее число берется из pg_class.reltuples (вся таблица) или из COUNT,
+ * закэшированного на catalog.page-totals.ttl по набору значений фильтра.
+ */
+@Slf4j
+@Component
+public class PageTotals {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<List<Object>, Long> counts;
+    private volatile Boolean postgres;
+
+    public PageTotals(JdbcTemplate jdbcTemplate,
+                      @Value("${catalog.page-totals.ttl:30s}") Duration ttl,
+                      @Value("${catalog.page-totals.max-size:10000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param page     запрос страницы с COUNT (режим exact)
+     * @param slice    тот же запрос без COUNT
+     * @param estimate приблизительное общее число; вызывается, только если за страницей есть еще записи
+     */
+    public <T> Slice<T> read(PageTotal total, Pageable pageable,
+                             Function<Pageable, Page<T>> page,
+                             Function<Pageable, Slice<T>> slice,
+                             LongSupplier estimate) {
+        if (total == PageTotal.EXACT || pageable.isUnpaged()) {
+            return page.apply(pageable);
+        }
+        Slice<T> result = slice.apply(pageable);
+        if (total == PageTotal.NONE) {
+            return result;
+        }
+        long seen = pageable.getOffset() + result.getNumberOfElements();
+        // Последняя страница дает точное число; иначе оценка не меньше уже прочитанного
+        long estimated = result.hasNext() ? Math.max(estimate.getAsLong(), seen + 1) : seen;
+        return new EstimatedPage<>(result.getContent(), pageable, estimated);
+    }
+
+    /**
+     * Число строк таблицы сущности по статистике планировщика PostgreSQL (обновляется autovacuum/ANALYZE).
+     * Если статистики нет (таблица еще не анализировалась, другая СУБД) - кэшированный count.
+     */
+    public LongSupplier tableRows(Class<?> entityType, LongSupplier count) {
+        Table table = AnnotationUtils.findAnnotation(entityType, Table.class);
+        String tableName = table != null && !table.name().isEmpty() ? table.name() : entityType.getSimpleName();
+        return () -> {
+            if (isPostgres()) {
+                Long rows = jdbcTemplate.queryForObject(
+                        "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = to_regclass(?)", Long.class, tableName);
+                if (rows != null && rows > 0) {
+                    return rows;
+                }
+            }
+            return cachedCount(count, tableName).getAsLong();
+        };
+    }
+
+    /**
+     * COUNT по фильтру, закэшированный на короткое время. key - имя запроса и значения его параметров
+     * (null - условие не задано), то есть фильтр в том виде, в каком он уходит в запрос.
+     */
+    public LongSupplier cachedCount(LongSupplier count, Object... key) {
+        List<Object> cacheKey = Arrays.asList(key);
+        return () -> counts.get(cacheKey, k -> count.getAsLong());
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try {
+                postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+                        (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+            } catch (DataAccessException e) {
+                log.warn("Не удалось определить СУБД, оценка числа строк по COUNT: {}", e.getMessage());
+                postgres = false;
+            }
+        }
+        return postgres;
+    }
+}
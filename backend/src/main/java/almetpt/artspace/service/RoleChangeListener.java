@@ -0,0 +1,28 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.model.Role;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA-слушатель сущности Role: любое изменение ролей обновляет {@link RoleRegistry}.
+ * Экземпляр создает Hibernate через контейнер Spring, поэтому справочник внедряется через
+ * ObjectProvider - его может не быть в срезах контекста (например, в @DataJpaTest).
+ */
+public class RoleChangeListener {
+
+    private final ObjectProvider<RoleRegistry> roleRegistry;
+
+    public RoleChangeListener(ObjectProvider<RoleRegistry> roleRegistry) {
+        this.roleRegistry = roleRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRoleChanged(Role role) {
+        roleRegistry.ifAvailable(RoleRegistry::refreshAfterCommit);
+    }
+}
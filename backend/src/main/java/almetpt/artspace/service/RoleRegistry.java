@@ -0,0 +1,96 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.model.Role;
+import almetpt.artspace.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Неизменяемый снимок таблицы roles в памяти. Ролей всего несколько, меняются они только
+ * при первичном заполнении (ArtSpaceApplication.run), поэтому поиск роли по id или названию
+ * при маппинге и сохранении пользователей не ходит в БД. Снимок перечитывается после коммита
+ * транзакции, изменившей роли (см. {@link RoleChangeListener}).
+ */
+@Slf4j
+@Component
+public class RoleRegistry {
+
+    public record RoleEntry(Long id, String title, String description) {
+    }
+
+    private record Snapshot(Map<Long, RoleEntry> byId, Map<String, RoleEntry> byTitle) {
+    }
+
+    private final RoleRepository roleRepository;
+
+    private volatile Snapshot snapshot;
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public Optional<RoleEntry> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(snapshot().byId().get(id));
+    }
+
+    public Optional<RoleEntry> findByTitle(String title) {
+        return title == null ? Optional.empty() : Optional.ofNullable(snapshot().byTitle().get(title));
+    }
+
+    /**
+     * Ссылка на роль для связи с пользователем: прокси без SELECT, если роль с таким id существует.
+     */
+    public Optional<Role> getReference(Long id) {
+        return findById(id).map(entry -> roleRepository.getReferenceById(entry.id()));
+    }
+
+    // Роли заполняются в ArtSpaceApplication.run, который выполняется до ApplicationReadyEvent
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        List<Role> roles = roleRepository.findAll();
+        List<RoleEntry> entries = roles.stream()
+                .map(role -> new RoleEntry(role.getId(), role.getTitle(), role.getDescription()))
+                .toList();
+        snapshot = new Snapshot(
+                entries.stream().collect(Collectors.toUnmodifiableMap(RoleEntry::id, Function.identity())),
+                entries.stream().collect(Collectors.toUnmodifiableMap(RoleEntry::title, Function.identity())));
+        log.debug("Справочник ролей загружен: {}", snapshot.byTitle().keySet());
+    }
+
+    // Вызывается при изменении ролей: перечитываем после коммита, чтобы не увидеть незакоммиченные данные
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            snapshot = null;
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+}
@@ -1,10 +1,12 @@
 package almetpt.artspace.service;
 
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.dto.TicketDTO;
 import almetpt.artspace.mapper.TicketMapper;
 import almetpt.artspace.model.Exhibition;
 import almetpt.artspace.model.Ticket;
 import almetpt.artspace.model.User;
+import almetpt.artspace.repository.BulkDeleter;
 import almetpt.artspace.repository.ExhibitionRepository;
 import almetpt.artspace.repository.TicketRepository;
 import almetpt.artspace.repository.UserRepository;
@@ -12,11 +14,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -30,14 +34,27 @@ public class TicketService extends GenericService<Ticket, TicketDTO> {
     public TicketService(TicketRepository ticketRepository,
             UserRepository userRepository,
             ExhibitionRepository exhibitionRepository,
-            TicketMapper ticketMapper) {
-        super(ticketRepository, ticketMapper);
+            TicketMapper ticketMapper,
+            PageTotals pageTotals,
+            BulkDeleter bulkDeleter) {
+        super(ticketRepository, ticketMapper, pageTotals, bulkDeleter);
         this.ticketRepository = ticketRepository;
         this.userRepository = userRepository;
         this.exhibitionRepository = exhibitionRepository;
         this.ticketMapper = ticketMapper;
     }
 
+    // exhibitionTitle - из exhibitions, userName - из users
+    @Override
+    public List<String> versionTables() {
+        return List.of("tickets", "exhibitions", "users");
+    }
+
+    @Override
+    protected String[] scrollFetchedAssociations() {
+        return new String[]{"user", "exhibition"};
+    }
+
     @Override
     @Transactional
     public TicketDTO create(TicketDTO dto) {
@@ -58,6 +75,21 @@ public class TicketService extends GenericService<Ticket, TicketDTO> {
         return ticketMapper.toDTO(ticketRepository.save(ticket));
     }
 
+    @Override
+    protected List<Ticket> toNewEntities(List<TicketDTO> dtos) {
+        Map<Long, User> users = findAllById(userRepository, dtos.stream().map(TicketDTO::getUserId), "User");
+        Map<Long, Exhibition> exhibitions = findAllById(exhibitionRepository,
+                dtos.stream().map(TicketDTO::getExhibitionId), "Exhibition");
+        return dtos.stream()
+                .map(dto -> {
+                    Ticket ticket = ticketMapper.toEntity(dto);
+                    ticket.setUser(dto.getUserId() != null ? users.get(dto.getUserId()) : null);
+                    ticket.setExhibition(dto.getExhibitionId() != null ? exhibitions.get(dto.getExhibitionId()) : null);
+                    return ticket;
+                })
+                .toList();
+    }
+
     @Override
     @Transactional
     public TicketDTO update(TicketDTO dto) {
@@ -95,14 +127,23 @@ public class TicketService extends GenericService<Ticket, TicketDTO> {
 
     @Transactional(readOnly = true)
     public Page<TicketDTO> findByExhibitionId(Long exhibitionId, Pageable pageable) {
-        return ticketRepository
-                .findByExhibitionId(exhibitionId, pageable)
+        return (Page<TicketDTO>) findByExhibitionId(exhibitionId, pageable, PageTotal.EXACT);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<TicketDTO> findByExhibitionId(Long exhibitionId, Pageable pageable, PageTotal total) {
+        return pageTotals.read(total, pageable,
+                        p -> ticketRepository.findByExhibitionId(exhibitionId, p),
+                        p -> ticketRepository.findSliceByExhibitionId(exhibitionId, p),
+                        pageTotals.cachedCount(() -> ticketRepository.countByExhibitionId(exhibitionId),
+                                "tickets.byExhibition", exhibitionId))
                 .map(ticketMapper::toDTO);
     }
 
     @Transactional(readOnly = true)
     public Page<TicketDTO> findByPurchaseDate(LocalDate purchaseDate, Pageable pageable) {
-        Page<Ticket> tickets = ticketRepository.findByPurchaseDate(purchaseDate, pageable);
+        Page<Ticket> tickets = ticketRepository.findByPurchaseDateGreaterThanEqualAndPurchaseDateLessThan(
+                purchaseDate.atStartOfDay(), purchaseDate.plusDays(1).atStartOfDay(), pageable);
         List<TicketDTO> dtos = ticketMapper.toDTOList(tickets.getContent());
         return new PageImpl<>(dtos, pageable, tickets.getTotalElements());
     }
@@ -0,0 +1,139 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.UserDTO;
+import almetpt.artspace.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Потоковое чтение пользователей из CSV для массового импорта.
+ * Первая строка - заголовок с именами колонок (login, password, email, firstName, lastName,
+ * birthDate, phone, address; допускается snake_case). Разделитель - запятая, значения можно
+ * заключать в двойные кавычки. Переводы строк внутри значений не поддерживаются.
+ */
+class UserCsvReader implements Iterator<UserImportService.ImportRow> {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long rowNumber = 1; // строка 1 - заголовок
+    private String nextLine;
+
+    UserCsvReader(BufferedReader reader) {
+        this.reader = reader;
+        String header = readLine();
+        if (header == null) {
+            return;
+        }
+        List<String> names = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(normalize(names.get(i)), i);
+        }
+        if (!columns.containsKey("login") || !columns.containsKey("password") || !columns.containsKey("email")) {
+            throw new BadRequestException("CSV должен содержать колонки login, password и email");
+        }
+        nextLine = nextNonEmptyLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public UserImportService.ImportRow next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        long row = rowNumber;
+        nextLine = nextNonEmptyLine();
+
+        List<String> values = parseLine(line);
+        UserDTO user = new UserDTO();
+        user.setLogin(value(values, "login"));
+        user.setPassword(value(values, "password"));
+        user.setEmail(value(values, "email"));
+        user.setFirstName(value(values, "firstname"));
+        user.setLastName(value(values, "lastname"));
+        user.setPhone(value(values, "phone"));
+        user.setAddress(value(values, "address"));
+        String birthDate = value(values, "birthdate");
+        if (birthDate != null) {
+            try {
+                user.setBirthDate(LocalDate.parse(birthDate));
+            } catch (DateTimeParseException e) {
+                return UserImportService.ImportRow.invalid(row, user.getLogin(), "Неверная дата рождения: " + birthDate);
+            }
+        }
+        return UserImportService.ImportRow.of(row, user);
+    }
+
+    private String nextNonEmptyLine() {
+        String line;
+        do {
+            line = readLine();
+            rowNumber++;
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    private String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalize(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
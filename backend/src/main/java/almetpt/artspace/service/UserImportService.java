@@ -0,0 +1,352 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.config.BoundedPasswordEncoder;
+import almetpt.artspace.constants.UserRoleConstants;
+import almetpt.artspace.dto.UserDTO;
+import almetpt.artspace.dto.UserImportErrorDTO;
+import almetpt.artspace.dto.UserImportResultDTO;
+import almetpt.artspace.exception.BadRequestException;
+import almetpt.artspace.model.User;
+import almetpt.artspace.repository.EntityIdAllocator;
+import almetpt.artspace.repository.TableVersions;
+import almetpt.artspace.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Массовый импорт пользователей (CSV или JSON-массив UserDTO).
+ * Строки читаются потоком и обрабатываются пачками: уникальность логинов и email проверяется
+ * двумя запросами на пачку, пароли хэшируются параллельно, вставка идет JDBC batch'ем.
+ * Ошибочные строки попадают в отчет и не прерывают импорт.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TRACKED_IMPORTS = 20;
+
+    // id задается явно: у users.id нет DEFAULT, значения выдает генератор сущности User (EntityIdAllocator)
+    private static final String INSERT_SQL = "INSERT INTO users " +
+            "(id, login, password, email, first_name, last_name, birth_date, phone, address, role_id, " +
+            "created_when, created_by, is_deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    private final UserRepository userRepository;
+    private final EntityIdAllocator entityIdAllocator;
+    private final RoleRegistry roleRegistry;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final TableVersions tableVersions;
+
+    @Value("${users.import.batch-size:500}")
+    private int batchSize;
+
+    // Последние импорты, чтобы прогресс можно было запросить, пока импорт идет
+    private final Map<String, ImportProgress> imports = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ImportProgress> eldest) {
+                    return size() > MAX_TRACKED_IMPORTS;
+                }
+            });
+
+    public UserImportService(UserRepository userRepository,
+                             EntityIdAllocator entityIdAllocator,
+                             RoleRegistry roleRegistry,
+                             BoundedPasswordEncoder passwordEncoder,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             TableVersions tableVersions) {
+        this.userRepository = userRepository;
+        this.entityIdAllocator = entityIdAllocator;
+        this.roleRegistry = roleRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.tableVersions = tableVersions;
+    }
+
+    public UserImportResultDTO importCsv(InputStream inputStream, String importId, String createdBy) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return runImport(new UserCsvReader(reader), importId, createdBy);
+    }
+
+    public UserImportResultDTO importJson(InputStream inputStream, String importId, String createdBy) throws IOException {
+        MappingIterator<UserDTO> users = objectMapper.readerFor(UserDTO.class).readValues(inputStream);
+        return runImport(new JsonRows(users), importId, createdBy);
+    }
+
+    public Optional<UserImportResultDTO> getProgress(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(ImportProgress::toDTO);
+    }
+
+    private UserImportResultDTO runImport(Iterator<ImportRow> rows, String importId, String createdBy) {
+        // До регистрации прогресса: иначе ошибка оставила бы импорт в статусе RUNNING навсегда
+        Long roleId = roleRegistry.findByTitle(UserRoleConstants.USER)
+                .map(RoleRegistry.RoleEntry::id)
+                .orElseThrow(() -> new IllegalStateException("Role not found: " + UserRoleConstants.USER));
+        String id = StringUtils.hasText(importId) ? importId : UUID.randomUUID().toString();
+        ImportProgress progress = new ImportProgress(id);
+        // Чужой прогресс с тем же id не подменяется
+        if (imports.putIfAbsent(id, progress) != null) {
+            throw new BadRequestException("Импорт с идентификатором " + id + " уже существует");
+        }
+
+        Set<String> seenLogins = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        try {
+            List<ImportRow> chunk = new ArrayList<>(batchSize);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == batchSize) {
+                    processChunk(chunk, progress, seenLogins, seenEmails, roleId, createdBy);
+                    chunk.clear();
+                }
+            }
+            processChunk(chunk, progress, seenLogins, seenEmails, roleId, createdBy);
+            progress.status = "COMPLETED";
+        } catch (RuntimeException e) {
+            progress.status = "FAILED";
+            progress.addError(new UserImportErrorDTO(progress.processed.get() + 1, null,
+                    "Импорт остановлен: " + e.getMessage()));
+            log.error("Импорт пользователей {} остановлен: {}", id, e.getMessage(), e);
+        } finally {
+            progress.finishedAt = LocalDateTime.now();
+        }
+        log.info("Импорт пользователей {} завершен: обработано {}, создано {}, ошибок {}",
+                id, progress.processed.get(), progress.created.get(), progress.failed.get());
+        return progress.toDTO();
+    }
+
+    private void processChunk(List<ImportRow> chunk, ImportProgress progress,
+                              Set<String> seenLogins, Set<String> seenEmails,
+                              Long roleId, String createdBy) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String error = row.error != null ? row.error : validate(row.user);
+            if (error == null && !seenLogins.add(row.user.getLogin())) {
+                error = "Логин повторяется в файле импорта";
+            }
+            if (error == null && !seenEmails.add(row.user.getEmail())) {
+                error = "Email повторяется в файле импорта";
+            }
+            if (error != null) {
+                progress.reject(row, error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Set<String> existingLogins = userRepository.findExistingLogins(valid.stream().map(r -> r.user.getLogin()).toList());
+        Set<String> existingEmails = userRepository.findExistingEmails(valid.stream().map(r -> r.user.getEmail()).toList());
+        List<ImportRow> toInsert = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (existingLogins.contains(row.user.getLogin())) {
+                progress.reject(row, "Пользователь с таким логином уже существует");
+            } else if (existingEmails.contains(row.user.getEmail())) {
+                progress.reject(row, "Пользователь с таким email уже существует");
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = passwordEncoder.encodeAll(toInsert.stream().map(r -> r.user.getPassword()).toList());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long[] ids = entityIdAllocator.next(User.class, toInsert.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL,
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bindRow(ps, ids[i], toInsert.get(i).user, hashes.get(i), roleId, now, createdBy);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return toInsert.size();
+                        }
+                    }));
+            toInsert.forEach(progress::accept);
+        } catch (DataAccessException e) {
+            // Например, параллельная регистрация с тем же логином: вставляем по одной, чтобы найти строку
+            log.warn("Пакетная вставка импорта {} не удалась ({}), повтор построчно", progress.importId, e.getMessage());
+            for (int i = 0; i < toInsert.size(); i++) {
+                ImportRow row = toInsert.get(i);
+                String hash = hashes.get(i);
+                long id = ids[i];
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL,
+                            ps -> bindRow(ps, id, row.user, hash, roleId, now, createdBy)));
+                    progress.accept(row);
+                } catch (DataAccessException rowError) {
+                    progress.reject(row, "Не удалось сохранить пользователя: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        // Вставка идет мимо Hibernate: версию таблицы для условных GET /users нужно перечитать
+        tableVersions.markWrittenAfterCommit("users");
+    }
+
+    private static String validate(UserDTO user) {
+        if (user == null) {
+            return "Пустая строка";
+        }
+        if (!StringUtils.hasText(user.getLogin())) {
+            return "Не указан логин";
+        }
+        if (!StringUtils.hasText(user.getPassword())) {
+            return "Не указан пароль";
+        }
+        if (!StringUtils.hasText(user.getEmail())) {
+            return "Не указан email";
+        }
+        return null;
+    }
+
+    private static void bindRow(PreparedStatement ps, long id, UserDTO user, String passwordHash,
+                                Long roleId, Timestamp now, String createdBy) throws SQLException {
+        ps.setLong(1, id);
+        ps.setString(2, user.getLogin());
+        ps.setString(3, passwordHash);
+        ps.setString(4, user.getEmail());
+        ps.setString(5, user.getFirstName());
+        ps.setString(6, user.getLastName());
+        ps.setDate(7, user.getBirthDate() != null ? Date.valueOf(user.getBirthDate()) : null);
+        ps.setString(8, user.getPhone());
+        ps.setString(9, user.getAddress());
+        ps.setLong(10, roleId);
+        ps.setTimestamp(11, now);
+        ps.setString(12, createdBy);
+    }
+
+    record ImportRow(long row, UserDTO user, String login, String error) {
+
+        static ImportRow of(long row, UserDTO user) {
+            return new ImportRow(row, user, user.getLogin(), null);
+        }
+
+        static ImportRow invalid(long row, String login, String error) {
+            return new ImportRow(row, null, login, error);
+        }
+    }
+
+    // JSON-массив читается по одному объекту; битый объект становится ошибкой строки, а не всего импорта
+    private static final class JsonRows implements Iterator<ImportRow> {
+        private final MappingIterator<UserDTO> users;
+        private long row;
+
+        private JsonRows(MappingIterator<UserDTO> users) {
+            this.users = users;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return users.hasNext();
+        }
+
+        @Override
+        public ImportRow next() {
+            row++;
+            try {
+                return ImportRow.of(row, users.nextValue());
+            } catch (JsonProcessingException e) {
+                return ImportRow.invalid(row, null, "Неверный JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class ImportProgress {
+        private final String importId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<UserImportErrorDTO> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile String status = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+
+        private ImportProgress(String importId) {
+            this.importId = importId;
+        }
+
+        private void accept(ImportRow row) {
+            processed.incrementAndGet();
+            created.incrementAndGet();
+        }
+
+        private void reject(ImportRow row, String message) {
+            processed.incrementAndGet();
+            failed.incrementAndGet();
+            addError(new UserImportErrorDTO(row.row, row.login, message));
+        }
+
+        private void addError(UserImportErrorDTO error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private UserImportResultDTO toDTO() {
+            UserImportResultDTO dto = new UserImportResultDTO();
+            dto.setImportId(importId);
+            dto.setStatus(status);
+            dto.setProcessed(processed.get());
+            dto.setCreated(created.get());
+            dto.setFailed(failed.get());
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            synchronized (errors) {
+                dto.setErrors(new ArrayList<>(errors));
+            }
+            return dto;
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package almetpt.artspace.service;
 
 import almetpt.artspace.constants.UserRoleConstants;
+import almetpt.artspace.dto.DeletionReport;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
 import almetpt.artspace.dto.UserDTO;
 import almetpt.artspace.dto.UserSearchDTO; // Импорт UserSearchDTO
 import almetpt.artspace.mapper.UserMapper;
 import almetpt.artspace.model.Role;
 import almetpt.artspace.model.User;
-import almetpt.artspace.repository.RoleRepository;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.DeletePlan;
+import almetpt.artspace.repository.DeletePlans;
+import almetpt.artspace.repository.SearchQueries;
+import almetpt.artspace.repository.SearchQuery;
+import almetpt.artspace.repository.SearchQueryExecutor;
 import almetpt.artspace.repository.UserRepository;
+import almetpt.artspace.service.userdetails.UserDetailsCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page; // Импорт Page
 import org.springframework.data.domain.Pageable; // Импорт Pageable
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.hibernate.Hibernate;
 
 @Slf4j
@@ -22,42 +34,69 @@ import org.hibernate.Hibernate;
 public class UserService extends GenericService<User, UserDTO> {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final SearchQueryExecutor searchQueryExecutor;
 
     public UserService(UserRepository userRepository,
-            RoleRepository roleRepository,
+            RoleRegistry roleRegistry,
             UserMapper userMapper,
-            PasswordEncoder passwordEncoder) {
-        super(userRepository, userMapper);
+            PasswordEncoder passwordEncoder,
+            UserDetailsCache userDetailsCache,
+            PageTotals pageTotals,
+            BulkDeleter bulkDeleter,
+            SearchQueryExecutor searchQueryExecutor) {
+        super(userRepository, userMapper, pageTotals, bulkDeleter);
+        this.searchQueryExecutor = searchQueryExecutor;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     @Transactional
     public UserDTO create(UserDTO dto) {
         log.info("Создание пользователя с логином: {}", dto.getLogin());
+        User user = toNewEntity(dto);
+        User savedUser = userRepository.save(user);
+        userDetailsCache.evictAfterCommit(savedUser.getLogin());
+        User freshUser = userRepository.findById(savedUser.getId())
+                .orElseThrow(() -> new RuntimeException("User not found after saving, id: " + savedUser.getId()));
+        return userMapper.toDTO((User) Hibernate.unproxy(freshUser));
+    }
+
+    @Override
+    protected List<User> toNewEntities(List<UserDTO> dtos) {
+        return dtos.stream().map(this::toNewEntity).toList();
+    }
+
+    @Override
+    protected void onSaved(User user) {
+        userDetailsCache.evictAfterCommit(user.getLogin());
+    }
+
+    // Роль по умолчанию USER, пароль хэшируется
+    private User toNewEntity(UserDTO dto) {
         if (dto.getRoleId() == null) {
-            dto.setRoleId(2L); 
-            dto.setRoleName(UserRoleConstants.USER);
+            RoleRegistry.RoleEntry userRole = roleRegistry.findByTitle(UserRoleConstants.USER)
+                    .orElseThrow(() -> new RuntimeException("Role not found: " + UserRoleConstants.USER));
+            dto.setRoleId(userRole.id());
+            dto.setRoleName(userRole.title());
         }
         if (dto.getPassword() != null && !dto.getPassword().isEmpty()) {
             dto.setPassword(passwordEncoder.encode(dto.getPassword()));
         }
         User user = userMapper.toEntity(dto);
         if (user.getRole() == null && dto.getRoleId() != null) {
-            Role role = roleRepository.findById(dto.getRoleId())
+            Role role = roleRegistry.getReference(dto.getRoleId())
                     .orElseThrow(() -> new RuntimeException("Role not found with id: " + dto.getRoleId()));
             user.setRole(role);
         }
-        User savedUser = userRepository.save(user);
-        User freshUser = userRepository.findById(savedUser.getId())
-                .orElseThrow(() -> new RuntimeException("User not found after saving, id: " + savedUser.getId()));
-        return userMapper.toDTO((User) Hibernate.unproxy(freshUser));
+        return user;
     }
 
     @Override
@@ -65,6 +104,8 @@ public class UserService extends GenericService<User, UserDTO> {
     public UserDTO update(UserDTO dto) {
         User user = userRepository.findById(dto.getId())
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + dto.getId()));
+        // Логин мог измениться, поэтому удаляем из кэша и старый, и новый
+        userDetailsCache.evictAfterCommit(user.getLogin());
         if (dto.getFirstName() != null) user.setFirstName(dto.getFirstName());
         if (dto.getLastName() != null) user.setLastName(dto.getLastName());
         if (dto.getEmail() != null) user.setEmail(dto.getEmail());
@@ -78,14 +119,48 @@ public class UserService extends GenericService<User, UserDTO> {
             user.setPassword(passwordEncoder.encode(dto.getPassword()));
         }
         if (dto.getRoleId() != null) {
-            Role role = roleRepository.findById(dto.getRoleId())
+            Role role = roleRegistry.getReference(dto.getRoleId())
                     .orElseThrow(() -> new RuntimeException("Role not found with id: " + dto.getRoleId()));
             user.setRole(role);
         }
         User updatedUser = userRepository.save(user);
+        userDetailsCache.evictAfterCommit(updatedUser.getLogin());
         return userMapper.toDTO((User) Hibernate.unproxy(updatedUser));
     }
 
+    // Логин читается до удаления, а из кэша пользователь убирается после: иначе параллельный запрос успел бы закэшировать его снова
+    @Override
+    public DeletionReport delete(Long id) {
+        Optional<String> login = userRepository.findById(id).map(User::getLogin);
+        try {
+            return super.delete(id);
+        } finally {
+            login.ifPresent(userDetailsCache::evict);
+        }
+    }
+
+    @Override
+    public DeletionReport deleteAll(Collection<Long> ids) {
+        List<String> logins = userRepository.findAllById(ids).stream().map(User::getLogin).toList();
+        try {
+            return super.deleteAll(ids);
+        } finally {
+            // И после ошибки: часть пользователей могла быть удалена до нее
+            logins.forEach(userDetailsCache::evict);
+        }
+    }
+
+    // roleName - из roles, ticketIds - из tickets
+    @Override
+    public List<String> versionTables() {
+        return List.of("users", "roles", "tickets");
+    }
+
+    @Override
+    protected DeletePlan deletePlan() {
+        return DeletePlans.USERS;
+    }
+
     @Transactional(readOnly = true)
     public UserDTO findByLogin(String login) {
         User user = userRepository.findByLogin(login)
@@ -100,14 +175,19 @@ public class UserService extends GenericService<User, UserDTO> {
     }
 
     @Transactional(readOnly = true)
-    public Page<UserDTO> search(UserSearchDTO searchDTO, Pageable pageable) {
-        Page<User> users = userRepository.findFiltered(
-                searchDTO.getLogin(),
-                searchDTO.getEmail(),
-                searchDTO.getFirstName(),
-                searchDTO.getLastName(),
-                searchDTO.getRoleName(),
-                pageable);
-        return users.map(user -> userMapper.toDTO((User) Hibernate.unproxy(user)));
+    public Page<UserDTO> search(UserSearchDTO searchDTO, Pageable pageable, FieldSelection selection) {
+        return (Page<UserDTO>) search(searchDTO, pageable, selection, PageTotal.EXACT);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> search(UserSearchDTO searchDTO, Pageable pageable, FieldSelection selection, PageTotal total) {
+        SearchQuery<User> query = SearchQueries.users(searchDTO);
+        Slice<User> users = pageTotals.read(total, pageable,
+                p -> searchQueryExecutor.page(query, User.class, p),
+                p -> searchQueryExecutor.slice(query, User.class, p),
+                pageTotals.cachedCount(() -> searchQueryExecutor.count(query), "users.search",
+                        searchDTO.getLogin(), searchDTO.getEmail(), searchDTO.getFirstName(),
+                        searchDTO.getLastName(), searchDTO.getRoleName()));
+        return userMapper.toDTOSlice(users, selection);
     }
 }
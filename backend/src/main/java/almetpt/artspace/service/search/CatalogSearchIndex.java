@@ -0,0 +1,330 @@
+package almetpt.artspace.service.search;
+
+import almetpt.artspace.dto.ArtistSearchDTO;
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.ExhibitionSearchDTO;
+import almetpt.artspace.model.ArtCategory;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Полнотекстовый поиск по каталогу без LIKE '%...%' в БД: названия и описания работ,
+ * имена и биографии художников, названия и места проведения выставок.
+ * <p>
+ * Индексы строятся в фоне после старта (три таблицы параллельно) и дальше обновляются сервисами
+ * после коммита каждой транзакции, изменившей запись. Пока индекс не построен или отключен
+ * (catalog.search.enabled=false), методы поиска возвращают Optional.empty() и сервисы ищут в БД как раньше.
+ */
+@Slf4j
+@Component
+public class CatalogSearchIndex {
+
+    record ArtworkDocument(String title, String description, ArtCategory category,
+                           LocalDate creationDate, Long artistId) {
+    }
+
+    record ArtistDocument(String name, String biography, String country) {
+    }
+
+    record ExhibitionDocument(String title, String location, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private final FullTextIndex<ArtworkDocument> artworks = new FullTextIndex<>("artworks", List.of(
+            new FullTextIndex.Field<>("title", 2.0f, ArtworkDocument::title),
+            new FullTextIndex.Field<>("description", 1.0f, ArtworkDocument::description)));
+    private final FullTextIndex<ArtistDocument> artists = new FullTextIndex<>("artists", List.of(
+            new FullTextIndex.Field<>("name", 3.0f, ArtistDocument::name),
+            new FullTextIndex.Field<>("biography", 1.0f, ArtistDocument::biography)));
+    private final FullTextIndex<ExhibitionDocument> exhibitions = new FullTextIndex<>("exhibitions", List.of(
+            new FullTextIndex.Field<>("title", 1.0f, ExhibitionDocument::title),
+            new FullTextIndex.Field<>("location", 1.0f, ExhibitionDocument::location)));
+
+    private final SearchDocumentLoader loader;
+    private final boolean enabled;
+    private final int batchSize;
+    private volatile boolean ready;
+
+    public CatalogSearchIndex(SearchDocumentLoader loader,
+                              @Value("${catalog.search.enabled:true}") boolean enabled,
+                              @Value("${catalog.search.rebuild-batch-size:5000}") int batchSize) {
+        this.loader = loader;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "catalog-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Полная загрузка индексов из БД; изменения, закоммиченные во время загрузки, не теряются. */
+    public void rebuild() {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-search-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> load(artworks, loader::artworks, CatalogSearchIndex::artworkDocument), executor),
+                    CompletableFuture.runAsync(() -> load(artists, loader::artists, CatalogSearchIndex::artistDocument), executor),
+                    CompletableFuture.runAsync(() -> load(exhibitions, loader::exhibitions, CatalogSearchIndex::exhibitionDocument), executor)
+            ).join();
+            ready = true;
+            log.info("Поисковый индекс каталога построен за {} мс: работ {}, художников {}, выставок {}",
+                    (System.nanoTime() - started) / 1_000_000, artworks.size(), artists.size(), exhibitions.size());
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить поисковый индекс каталога, поиск выполняется в БД", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private <T> void load(FullTextIndex<T> index,
+                          BiFunction<Long, Integer, List<Object[]>> source,
+                          Function<Object[], T> toDocument) {
+        index.beginBulkLoad();
+        try {
+            long after = 0;
+            List<Object[]> rows;
+            do {
+                rows = source.apply(after, batchSize);
+                Map<Long, T> batch = new HashMap<>(rows.size() * 2);
+                for (Object[] row : rows) {
+                    after = ((Number) row[0]).longValue();
+                    batch.put(after, toDocument.apply(row));
+                }
+                index.load(batch);
+            } while (rows.size() == batchSize);
+        } finally {
+            index.endBulkLoad();
+        }
+    }
+
+    // --- Обновление после коммита ---
+
+    public void artworkSaved(Artwork artwork) {
+        ArtworkDocument document = new ArtworkDocument(artwork.getTitle(), artwork.getDescription(),
+                artwork.getCategory(), artwork.getCreationDate(),
+                artwork.getArtist() == null ? null : artwork.getArtist().getId());
+        Long id = artwork.getId();
+        afterCommit(() -> artworks.put(id, document));
+    }
+
+    public void artworkDeleted(Long id) {
+        afterCommit(() -> artworks.remove(id));
+    }
+
+    public void artistSaved(Artist artist) {
+        ArtistDocument document = new ArtistDocument(artist.getName(), artist.getBiography(), artist.getCountry());
+        Long id = artist.getId();
+        afterCommit(() -> artists.put(id, document));
+    }
+
+    // Работы удаляются вместе с художником (cascade = ALL)
+    public void artistDeleted(Long id) {
+        afterCommit(() -> {
+            artists.remove(id);
+            artworks.removeIf(document -> id.equals(document.artistId()));
+        });
+    }
+
+    public void exhibitionSaved(Exhibition exhibition) {
+        ExhibitionDocument document = new ExhibitionDocument(exhibition.getTitle(), exhibition.getLocation(),
+                exhibition.getStartDate(), exhibition.getEndDate());
+        Long id = exhibition.getId();
+        afterCommit(() -> exhibitions.put(id, document));
+    }
+
+    public void exhibitionDeleted(Long id) {
+        afterCommit(() -> exhibitions.remove(id));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    // --- Поиск ---
+
+    /**
+     * Поиск работ по названию, описанию и имени художника с ранжированием по релевантности.
+     * Каждое условие ищется только в своем поле: title - в названии, description - в описании.
+     * Пусто, если индекс не готов или в запросе нет текстовых условий - тогда ищем в БД.
+     */
+    public Optional<FullTextIndex.Hits> searchArtworks(ArtworkSearchDTO search, Pageable pageable) {
+        if (!usable(pageable, search.getTitle(), search.getDescription(), search.getArtistName())) {
+            return Optional.empty();
+        }
+        List<FullTextIndex.Clause> clauses = new ArrayList<>();
+        if (StringUtils.hasText(search.getTitle())) {
+            clauses.add(new FullTextIndex.Clause(search.getTitle(), "title"));
+        }
+        if (StringUtils.hasText(search.getDescription())) {
+            clauses.add(new FullTextIndex.Clause(search.getDescription(), "description"));
+        }
+        Set<Long> artistIds = null;
+        if (StringUtils.hasText(search.getArtistName())) {
+            artistIds = artists.matchingIds(List.of(new FullTextIndex.Clause(search.getArtistName(), "name")));
+            if (artistIds.isEmpty()) {
+                return Optional.of(FullTextIndex.Hits.EMPTY);
+            }
+        }
+        Set<Long> matchedArtists = artistIds;
+        Predicate<ArtworkDocument> filter = document ->
+                (search.getCategory() == null || search.getCategory() == document.category())
+                        && (search.getCreatedAfter() == null || (document.creationDate() != null
+                        && !document.creationDate().isBefore(search.getCreatedAfter())))
+                        && (search.getArtistId() == null || search.getArtistId().equals(document.artistId()))
+                        && (matchedArtists == null || matchedArtists.contains(document.artistId()));
+        return Optional.of(artworks.search(clauses, filter, pageable.getOffset(), pageable.getPageSize()));
+    }
+
+    public Optional<FullTextIndex.Hits> searchArtists(ArtistSearchDTO search, Pageable pageable) {
+        if (!usable(pageable, search.getName(), search.getBiography())) {
+            return Optional.empty();
+        }
+        List<FullTextIndex.Clause> clauses = new ArrayList<>();
+        if (StringUtils.hasText(search.getName())) {
+            clauses.add(new FullTextIndex.Clause(search.getName(), "name"));
+        }
+        if (StringUtils.hasText(search.getBiography())) {
+            clauses.add(new FullTextIndex.Clause(search.getBiography(), "biography"));
+        }
+        Predicate<ArtistDocument> filter = document ->
+                search.getCountry() == null || search.getCountry().equals(document.country());
+        return Optional.of(artists.search(clauses, filter, pageable.getOffset(), pageable.getPageSize()));
+    }
+
+    public Optional<FullTextIndex.Hits> searchExhibitions(ExhibitionSearchDTO search, Pageable pageable) {
+        if (!usable(pageable, search.getTitle(), search.getLocation())) {
+            return Optional.empty();
+        }
+        List<FullTextIndex.Clause> clauses = new ArrayList<>();
+        if (StringUtils.hasText(search.getTitle())) {
+            clauses.add(new FullTextIndex.Clause(search.getTitle(), "title"));
+        }
+        if (StringUtils.hasText(search.getLocation())) {
+            clauses.add(new FullTextIndex.Clause(search.getLocation(), "location"));
+        }
+        Predicate<ExhibitionDocument> filter = document ->
+                (search.getStartDate() == null || !document.startDate().isBefore(search.getStartDate()))
+                        && (search.getEndDate() == null || !document.endDate().isAfter(search.getEndDate()));
+        return Optional.of(exhibitions.search(clauses, filter, pageable.getOffset(), pageable.getPageSize()));
+    }
+
+    // Строка без единого слова (например, "%") индексом не ищется - ее обработает LIKE в БД
+    private boolean usable(Pageable pageable, String... texts) {
+        if (!isReady() || pageable.isUnpaged()) {
+            return false;
+        }
+        boolean hasText = false;
+        for (String text : texts) {
+            if (StringUtils.hasText(text)) {
+                if (!new FullTextIndex.Clause(text).hasTerms()) {
+                    return false;
+                }
+                hasText = true;
+            }
+        }
+        return hasText;
+    }
+
+    /**
+     * Загружает строки найденной страницы одним запросом и возвращает их в порядке релевантности.
+     * Записи, удаленные из БД, но еще не из индекса, пропускаются.
+     */
+    public static <V> Page<V> toPage(FullTextIndex.Hits hits,
+                                     Function<List<Long>, List<V>> loadByIds,
+                                     Function<V, Long> idOf,
+                                     Pageable pageable) {
+        if (hits.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.total());
+        }
+        Map<Long, V> rows = new LinkedHashMap<>();
+        for (V row : loadByIds.apply(hits.ids())) {
+            rows.put(idOf.apply(row), row);
+        }
+        List<V> ranked = hits.ids().stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ranked, pageable, hits.total());
+    }
+
+    // --- Строки SearchDocumentLoader ---
+
+    private static ArtworkDocument artworkDocument(Object[] row) {
+        return new ArtworkDocument(SearchDocumentLoader.text(row[1]), SearchDocumentLoader.text(row[2]),
+                row[3] == null ? null : ArtCategory.valueOf(row[3].toString()),
+                toLocalDate(row[4]),
+                row[5] == null ? null : ((Number) row[5]).longValue());
+    }
+
+    private static ArtistDocument artistDocument(Object[] row) {
+        return new ArtistDocument(SearchDocumentLoader.text(row[1]), SearchDocumentLoader.text(row[2]),
+                SearchDocumentLoader.text(row[3]));
+    }
+
+    private static ExhibitionDocument exhibitionDocument(Object[] row) {
+        return new ExhibitionDocument(SearchDocumentLoader.text(row[1]), SearchDocumentLoader.text(row[2]),
+                toLocalDate(row[3]), toLocalDate(row[4]));
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
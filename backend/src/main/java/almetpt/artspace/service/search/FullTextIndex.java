@@ -0,0 +1,584 @@
+package almetpt.artspace.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Инвертированный индекс в памяти с ранжированием BM25.
+ * <p>
+ * Документу присваивается внутренний порядковый номер; списки вхождений (postings) каждого терма
+ * хранятся по полям в виде отсортированных int[], поэтому пересечение условий идет от самого редкого
+ * терма с галопирующим поиском по остальным. Обновление документа - удаление (пометка в BitSet)
+ * и добавление под новым номером; когда удаленных становится больше четверти, списки переписываются.
+ * Все слова запроса обязательны; слово длиной от трех символов совпадает и как префикс
+ * (с меньшим весом), чтобы поиск работал при неполном вводе.
+ * <p>
+ * Вместе с термами хранится сам документ {@code T}: по нему проверяются фильтры, не входящие в текст.
+ */
+public class FullTextIndex<T> {
+
+    public record Field<T>(String name, float boost, Function<T, String> value) {
+    }
+
+    /** Текст запроса и поля, в которых его искать. */
+    public record Clause(String text, List<String> fields) {
+
+        public Clause(String text, String... fields) {
+            this(text, List.of(fields));
+        }
+
+        public boolean hasTerms() {
+            return !Tokenizer.tokenize(text).isEmpty();
+        }
+    }
+
+    /** Id найденной страницы в порядке релевантности и общее число совпадений. */
+    public record Hits(List<Long> ids, long total) {
+
+        public static final Hits EMPTY = new Hits(List.of(), 0);
+    }
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final double COMPACT_RATIO = 0.25;
+    private static final int COMPACT_MIN_DELETED = 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String name;
+    private final List<Field<T>> fields;
+    private final Map<String, Integer> fieldIndexes = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Все поля ниже защищены lock
+    private final List<NavigableMap<String, Postings>> terms = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private Object[] documents = new Object[INITIAL_CAPACITY];
+    private int[][] fieldLengths;
+    private final long[] totalFieldLengths;
+    private final BitSet deleted = new BitSet();
+    private int maxDoc;
+    private int deletedCount;
+    // Не null во время первичной загрузки: id, измененные напрямую, загрузка не перезаписывает
+    private Set<Long> touchedDuringLoad;
+
+    public FullTextIndex(String name, List<Field<T>> fields) {
+        this.name = name;
+        this.fields = List.copyOf(fields);
+        this.fieldLengths = new int[fields.size()][INITIAL_CAPACITY];
+        this.totalFieldLengths = new long[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            fieldIndexes.put(fields.get(i).name(), i);
+            terms.add(new TreeMap<>());
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return maxDoc - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long id, T document) {
+        Analyzed<T> analyzed = analyze(id, document);
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null) {
+                touchedDuringLoad.add(id);
+            }
+            removeOrdinal(id);
+            add(analyzed);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringLoad != null) {
+                touchedDuringLoad.add(id);
+            }
+            removeOrdinal(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void removeIf(Predicate<? super T> condition) {
+        lock.writeLock().lock();
+        try {
+            List<Long> matched = new ArrayList<>();
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if (!deleted.get(doc) && condition.test((T) documents[doc])) {
+                    matched.add(ids[doc]);
+                }
+            }
+            for (Long id : matched) {
+                if (touchedDuringLoad != null) {
+                    touchedDuringLoad.add(id);
+                }
+                removeOrdinal(id);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Начало первичной загрузки. Изменения, пришедшие через {@link #put}/{@link #remove} до
+     * {@link #endBulkLoad()}, новее загружаемых из БД данных, поэтому {@link #load} их не трогает.
+     */
+    public void beginBulkLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Добавляет пачку документов; разбор текста выполняется параллельно вне блокировки. */
+    public void load(Map<Long, T> batch) {
+        List<Analyzed<T>> analyzed = batch.entrySet().parallelStream()
+                .map(entry -> analyze(entry.getKey(), entry.getValue()))
+                .toList();
+        lock.writeLock().lock();
+        try {
+            for (Analyzed<T> document : analyzed) {
+                if (touchedDuringLoad != null && touchedDuringLoad.contains(document.id())) {
+                    continue;
+                }
+                removeOrdinal(document.id());
+                add(document);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endBulkLoad() {
+        lock.writeLock().lock();
+        try {
+            touchedDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Страница документов, содержащих все слова всех условий и прошедших фильтр,
+     * по убыванию релевантности (при равенстве - сначала добавленные позже).
+     */
+    public Hits search(List<Clause> clauses, Predicate<? super T> filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Candidates candidates = match(clauses);
+            if (candidates == null) {
+                return Hits.EMPTY;
+            }
+            long wanted = Math.min(offset + limit, Integer.MAX_VALUE);
+            PriorityQueue<Long> top = new PriorityQueue<>();
+            long total = 0;
+            for (int i = 0; i < candidates.size; i++) {
+                int doc = candidates.docs[i];
+                if (!accept(doc, filter)) {
+                    continue;
+                }
+                total++;
+                // Счет неотрицательный, поэтому биты float сравниваются как int; младшие 32 бита - номер
+                long key = ((long) Float.floatToIntBits(candidates.scores[i]) << 32) | doc;
+                if (top.size() < wanted) {
+                    top.add(key);
+                } else if (wanted > 0 && key > top.peek()) {
+                    top.poll();
+                    top.add(key);
+                }
+            }
+            List<Long> ranked = new ArrayList<>(top);
+            ranked.sort(Comparator.reverseOrder());
+            List<Long> page = new ArrayList<>(limit);
+            for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size(); i++) {
+                page.add(ids[(int) (ranked.get(i) & 0xFFFFFFFFL)]);
+            }
+            return new Hits(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Id всех документов, подходящих под условия, без ранжирования. */
+    public Set<Long> matchingIds(List<Clause> clauses) {
+        lock.readLock().lock();
+        try {
+            Candidates candidates = match(clauses);
+            if (candidates == null) {
+                return Set.of();
+            }
+            Set<Long> result = new LinkedHashSet<>();
+            for (int i = 0; i < candidates.size; i++) {
+                if (accept(candidates.docs[i], null)) {
+                    result.add(ids[candidates.docs[i]]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean accept(int doc, Predicate<? super T> filter) {
+        return !deleted.get(doc) && (filter == null || filter.test((T) documents[doc]));
+    }
+
+    // null - заведомо пустой результат (одно из слов не встречается в индексе)
+    private Candidates match(List<Clause> clauses) {
+        List<Group> groups = new ArrayList<>();
+        int liveDocs = Math.max(maxDoc - deletedCount, 1);
+        for (Clause clause : clauses) {
+            for (String token : new LinkedHashSet<>(Tokenizer.tokenize(clause.text()))) {
+                Group group = new Group();
+                for (String fieldName : clause.fields()) {
+                    Integer field = fieldIndexes.get(fieldName);
+                    if (field == null) {
+                        throw new IllegalArgumentException("Unknown field '" + fieldName + "' in index " + name);
+                    }
+                    float boost = fields.get(field).boost();
+                    float avgLength = Math.max((float) totalFieldLengths[field] / liveDocs, 1f);
+                    NavigableMap<String, Postings> dictionary = terms.get(field);
+                    Postings exact = dictionary.get(token);
+                    if (exact != null) {
+                        group.add(exact, field, boost, idf(exact, liveDocs), avgLength);
+                    }
+                    if (token.length() >= MIN_PREFIX_LENGTH) {
+                        for (Postings postings : dictionary.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                            group.add(postings, field, boost * PREFIX_WEIGHT, idf(postings, liveDocs), avgLength);
+                        }
+                    }
+                }
+                if (group.terms.isEmpty()) {
+                    return null;
+                }
+                groups.add(group);
+            }
+        }
+        if (groups.isEmpty()) {
+            return allDocuments();
+        }
+        groups.sort(Comparator.comparingLong(Group::cost));
+        Candidates candidates = first(groups.get(0));
+        for (int i = 1; i < groups.size() && candidates.size > 0; i++) {
+            candidates = intersect(candidates, groups.get(i));
+        }
+        return candidates;
+    }
+
+    private Candidates allDocuments() {
+        Candidates all = new Candidates(maxDoc);
+        for (int doc = 0; doc < maxDoc; doc++) {
+            all.docs[all.size++] = doc;
+        }
+        return all;
+    }
+
+    private Candidates first(Group group) {
+        if (group.terms.size() == 1) {
+            Term term = group.terms.get(0);
+            Postings postings = term.postings();
+            Candidates result = new Candidates(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                result.docs[i] = postings.docs[i];
+                result.scores[i] = group.score(term, i);
+            }
+            result.size = postings.size;
+            return result;
+        }
+        long cost = group.cost();
+        if (cost > maxDoc / 8) {
+            // Много совпадений: плотный массив счетов дешевле сортировки
+            float[] scores = new float[maxDoc];
+            BitSet matched = new BitSet(maxDoc);
+            for (Term term : group.terms) {
+                Postings postings = term.postings();
+                for (int i = 0; i < postings.size; i++) {
+                    scores[postings.docs[i]] += group.score(term, i);
+                    matched.set(postings.docs[i]);
+                }
+            }
+            Candidates result = new Candidates(matched.cardinality());
+            for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+                result.docs[result.size] = doc;
+                result.scores[result.size++] = scores[doc];
+            }
+            return result;
+        }
+        // Номер документа в старших битах, счет в младших: сортировка long[] упорядочивает по номеру
+        long[] packed = new long[(int) cost];
+        int n = 0;
+        for (Term term : group.terms) {
+            Postings postings = term.postings();
+            for (int i = 0; i < postings.size; i++) {
+                packed[n++] = ((long) postings.docs[i] << 32) | (Float.floatToIntBits(group.score(term, i)) & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(packed);
+        Candidates result = new Candidates(n);
+        for (int i = 0; i < n; i++) {
+            int doc = (int) (packed[i] >>> 32);
+            float score = Float.intBitsToFloat((int) packed[i]);
+            if (result.size > 0 && result.docs[result.size - 1] == doc) {
+                result.scores[result.size - 1] += score;
+            } else {
+                result.docs[result.size] = doc;
+                result.scores[result.size++] = score;
+            }
+        }
+        return result;
+    }
+
+    private Candidates intersect(Candidates candidates, Group group) {
+        int[] cursors = new int[group.terms.size()];
+        Candidates result = new Candidates(candidates.size);
+        for (int i = 0; i < candidates.size; i++) {
+            int doc = candidates.docs[i];
+            float score = 0;
+            boolean matched = false;
+            for (int p = 0; p < cursors.length; p++) {
+                Term term = group.terms.get(p);
+                Postings postings = term.postings();
+                cursors[p] = postings.advance(cursors[p], doc);
+                if (cursors[p] < postings.size && postings.docs[cursors[p]] == doc) {
+                    score += group.score(term, cursors[p]);
+                    matched = true;
+                }
+            }
+            if (matched) {
+                result.docs[result.size] = doc;
+                result.scores[result.size++] = candidates.scores[i] + score;
+            }
+        }
+        return result;
+    }
+
+    private static float idf(Postings postings, int liveDocs) {
+        int docFreq = Math.min(postings.size, liveDocs);
+        return (float) Math.log(1 + (liveDocs - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    private Analyzed<T> analyze(long id, T document) {
+        List<Map<String, Integer>> frequencies = new ArrayList<>(fields.size());
+        int[] lengths = new int[fields.size()];
+        for (int f = 0; f < fields.size(); f++) {
+            List<String> tokens = Tokenizer.tokenize(fields.get(f).value().apply(document));
+            Map<String, Integer> counts = new HashMap<>();
+            for (String token : tokens) {
+                counts.merge(token, 1, Integer::sum);
+            }
+            frequencies.add(counts);
+            lengths[f] = tokens.size();
+        }
+        return new Analyzed<>(id, document, frequencies, lengths);
+    }
+
+    private void add(Analyzed<T> document) {
+        if (maxDoc == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            documents = Arrays.copyOf(documents, capacity);
+            for (int f = 0; f < fieldLengths.length; f++) {
+                fieldLengths[f] = Arrays.copyOf(fieldLengths[f], capacity);
+            }
+        }
+        int doc = maxDoc++;
+        ids[doc] = document.id();
+        documents[doc] = document.document();
+        ordinals.put(document.id(), doc);
+        for (int f = 0; f < fields.size(); f++) {
+            fieldLengths[f][doc] = document.lengths()[f];
+            totalFieldLengths[f] += document.lengths()[f];
+            NavigableMap<String, Postings> dictionary = terms.get(f);
+            for (Map.Entry<String, Integer> term : document.frequencies().get(f).entrySet()) {
+                dictionary.computeIfAbsent(term.getKey(), key -> new Postings()).add(doc, term.getValue());
+            }
+        }
+    }
+
+    private void removeOrdinal(long id) {
+        Integer doc = ordinals.remove(id);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        deletedCount++;
+        documents[doc] = null;
+        for (int f = 0; f < fields.size(); f++) {
+            totalFieldLengths[f] -= fieldLengths[f][doc];
+        }
+    }
+
+    // Перенумеровывает живые документы подряд; порядок сохраняется, поэтому списки остаются отсортированными
+    private void compactIfNeeded() {
+        if (deletedCount < COMPACT_MIN_DELETED || deletedCount < maxDoc * COMPACT_RATIO) {
+            return;
+        }
+        int[] remap = new int[maxDoc];
+        int live = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = live;
+            ids[live] = ids[doc];
+            documents[live] = documents[doc];
+            for (int f = 0; f < fieldLengths.length; f++) {
+                fieldLengths[f][live] = fieldLengths[f][doc];
+            }
+            ordinals.put(ids[live], live);
+            live++;
+        }
+        Arrays.fill(documents, live, maxDoc, null);
+        for (NavigableMap<String, Postings> dictionary : terms) {
+            Iterator<Postings> iterator = dictionary.values().iterator();
+            while (iterator.hasNext()) {
+                Postings postings = iterator.next();
+                postings.remap(remap);
+                if (postings.size == 0) {
+                    iterator.remove();
+                }
+            }
+        }
+        deleted.clear();
+        deletedCount = 0;
+        maxDoc = live;
+    }
+
+    private record Analyzed<T>(long id, T document, List<Map<String, Integer>> frequencies, int[] lengths) {
+    }
+
+    /** Возрастающие номера документов и частоты терма (до 255, дальше BM25 все равно насыщается). */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private byte[] frequencies = new byte[2];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = (byte) Math.min(frequency, 255);
+        }
+
+        int frequency(int index) {
+            return frequencies[index] & 0xFF;
+        }
+
+        // Первая позиция не раньше from, где номер >= target: экспоненциальный шаг, затем двоичный поиск
+        int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            int high = from + 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size);
+            int index = Arrays.binarySearch(docs, low + 1, high, target);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        void remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept++] = frequencies[i];
+                }
+            }
+            size = kept;
+            if (docs.length > 16 && size < docs.length / 4) {
+                docs = Arrays.copyOf(docs, Math.max(size, 2));
+                frequencies = Arrays.copyOf(frequencies, Math.max(size, 2));
+            }
+        }
+    }
+
+    /** Совпадение слова запроса с одним термом одного поля; weight = boost * idf. */
+    private record Term(Postings postings, int field, float weight, float avgLength) {
+    }
+
+    /** Слово запроса: все его совпадения (точное и префиксные, во всех полях условия). */
+    private final class Group {
+
+        private final List<Term> terms = new ArrayList<>();
+
+        void add(Postings postings, int field, float boost, float idf, float avgLength) {
+            terms.add(new Term(postings, field, boost * idf, avgLength));
+        }
+
+        long cost() {
+            long cost = 0;
+            for (Term term : terms) {
+                cost += term.postings().size;
+            }
+            return cost;
+        }
+
+        float score(Term term, int position) {
+            int length = fieldLengths[term.field()][term.postings().docs[position]];
+            float frequency = term.postings().frequency(position);
+            float norm = K1 * (1 - B + B * length / term.avgLength());
+            return term.weight() * frequency * (K1 + 1) / (frequency + norm);
+        }
+    }
+
+    private static final class Candidates {
+
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        Candidates(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+    }
+}
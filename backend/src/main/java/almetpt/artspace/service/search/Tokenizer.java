@@ -0,0 +1,46 @@
+package almetpt.artspace.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение текста на термы для {@link FullTextIndex}: нижний регистр, «ё» приравнивается к «е»,
+ * разделитель - любой символ, кроме буквы или цифры. Однобуквенные слова отбрасываются, числа - нет.
+ */
+final class Tokenizer {
+
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        boolean digits = true;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (current.length() < MAX_TOKEN_LENGTH) {
+                    current.append(normalize(c));
+                }
+                digits &= Character.isDigit(c);
+            } else if (!current.isEmpty()) {
+                if (current.length() > 1 || digits) {
+                    tokens.add(current.toString());
+                }
+                current.setLength(0);
+                digits = true;
+            }
+        }
+        return tokens;
+    }
+
+    private static char normalize(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+}
@@ -18,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
     @Value("${spring.security.user.name:admin}")
     private String adminUsername;
@@ -28,22 +29,27 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Value("${spring.security.user.roles:ADMIN}")
     private String adminRole;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
-        log.info("Загрузка пользователя по логину: {}", login);
+        log.debug("Загрузка пользователя по логину: {}", login);
         
         // Проверяем, является ли пользователь админом по умолчанию
         if (adminUsername.equals(login)) {
-            log.info("Найден встроенный администратор: {}", login);
+            log.debug("Найден встроенный администратор: {}", login);
             List<GrantedAuthority> authorities = new ArrayList<>();
             authorities.add(new SimpleGrantedAuthority("ROLE_" + adminRole));
             return new CustomUserDetails(0L, login, adminPassword, authorities);
         }
 
+        return userDetailsCache.get(login, this::loadFromDatabase);
+    }
+
+    private CustomUserDetails loadFromDatabase(String login) {
         // Ищем пользователя в базе данных
         User user = userRepository.findByLogin(login)
                 .orElseThrow(() -> {
@@ -51,7 +57,7 @@ public class CustomUserDetailsService implements UserDetailsService {
                     return new UsernameNotFoundException("Пользователь не найден: " + login);
                 });
         
-        log.info("Найден пользователь: {} с ролью: {}", login, user.getRole().getTitle());
+        log.debug("Найден пользователь: {} с ролью: {}", login, user.getRole().getTitle());
         
         // Создаем список разрешений на основе роли пользователя
         List<GrantedAuthority> authorities = new ArrayList<>();
@@ -0,0 +1,81 @@
+package almetpt.artspace.service.userdetails;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш UserDetails по логину.
+ * Убирает запрос findByLogin, который JwtAuthenticationFilter делает на каждый запрос.
+ * Счетчики попаданий/промахов/вытеснений публикуются в Micrometer как cache.* с тегом cache=userDetails.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+
+    private static final String CACHE_NAME = "userDetails";
+
+    private final boolean enabled;
+    private final Cache<String, CustomUserDetails> cache;
+    private final Counter invalidations;
+
+    public UserDetailsCache(@Value("${security.user-details-cache.enabled:true}") boolean enabled,
+                            @Value("${security.user-details-cache.max-size:10000}") long maxSize,
+                            @Value("${security.user-details-cache.ttl:30s}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidations = Counter.builder("cache.invalidations")
+                .description("Явные удаления из кэша при изменении пользователя")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CustomUserDetails get(String login, Function<String, CustomUserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(login);
+        }
+        return cache.get(login, loader);
+    }
+
+    /**
+     * Удаляет пользователя из кэша после коммита текущей транзакции,
+     * чтобы параллельный запрос не успел закэшировать еще не закоммиченные данные.
+     */
+    public void evictAfterCommit(String login) {
+        if (!enabled || login == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(login);
+                }
+            });
+        } else {
+            evict(login);
+        }
+    }
+
+    public void evict(String login) {
+        cache.invalidate(login);
+        invalidations.increment();
+        log.debug("Пользователь {} удален из кэша UserDetails", login);
+    }
+}
@@ -0,0 +1,124 @@
+-- Схема на момент перехода с spring.jpa.hibernate.ddl-auto=update на миграции.
+-- Базы, которые уже создал Hibernate, принимаются как есть (baseline-version=0 и IF NOT EXISTS),
+-- новые получают те же таблицы. Структуру сверяет ddl-auto=validate при старте.
+
+-- id выдает PooledSequenceIdGenerator: <таблица>_seq, INCREMENT BY = artspace.id.allocation_size
+CREATE SEQUENCE IF NOT EXISTS roles_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS artists_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS artworks_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS exhibitions_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS tickets_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS roles (
+    id           bigint       NOT NULL PRIMARY KEY,
+    title        varchar(255) NOT NULL UNIQUE,
+    description  varchar(255),
+    created_when timestamp(6),
+    created_by   varchar(255),
+    updated_when timestamp(6),
+    updated_by   varchar(255),
+    is_deleted   boolean DEFAULT false
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id           bigint       NOT NULL PRIMARY KEY,
+    login        varchar(255) NOT NULL UNIQUE,
+    password     varchar(255) NOT NULL,
+    email        varchar(255) NOT NULL UNIQUE,
+    first_name   varchar(255),
+    last_name    varchar(255),
+    full_name    varchar(255) GENERATED ALWAYS AS (coalesce(first_name, '') || ' ' || coalesce(last_name, '')) STORED,
+    birth_date   date,
+    phone        varchar(255),
+    address      varchar(255),
+    role_id      bigint REFERENCES roles,
+    created_when timestamp(6),
+    created_by   varchar(255),
+    updated_when timestamp(6),
+    updated_by   varchar(255),
+    is_deleted   boolean DEFAULT false
+);
+-- Таблица, созданная Hibernate до появления full_name, пропускается CREATE TABLE IF NOT EXISTS
+ALTER TABLE users ADD COLUMN IF NOT EXISTS
+    full_name varchar(255) GENERATED ALWAYS AS (coalesce(first_name, '') || ' ' || coalesce(last_name, '')) STORED;
+
+CREATE TABLE IF NOT EXISTS artists (
+    id           bigint       NOT NULL PRIMARY KEY,
+    name         varchar(255) NOT NULL,
+    biography    text,
+    birth_date   date,
+    country      varchar(255),
+    contact_info varchar(255),
+    photo_path   varchar(255),
+    created_when timestamp(6),
+    created_by   varchar(255),
+    updated_when timestamp(6),
+    updated_by   varchar(255),
+    is_deleted   boolean DEFAULT false
+);
+
+CREATE TABLE IF NOT EXISTS artworks (
+    id            bigint       NOT NULL PRIMARY KEY,
+    title         varchar(255) NOT NULL,
+    description   text,
+    price         numeric(38, 2),
+    creation_date date,
+    medium        varchar(255),
+    dimensions    varchar(255),
+    img_path      varchar(255),
+    category      varchar(255) CHECK (category IN ('PAINTING', 'SCULPTURE', 'PHOTOGRAPHY', 'DIGITAL_ART', 'INSTALLATION')),
+    artist_id     bigint REFERENCES artists,
+    created_when  timestamp(6),
+    created_by    varchar(255),
+    updated_when  timestamp(6),
+    updated_by    varchar(255),
+    is_deleted    boolean DEFAULT false
+);
+
+CREATE TABLE IF NOT EXISTS exhibitions (
+    id           bigint       NOT NULL PRIMARY KEY,
+    title        varchar(255) NOT NULL,
+    description  text,
+    start_date   date         NOT NULL,
+    end_date     date         NOT NULL,
+    location     varchar(255),
+    price        numeric(10, 2),
+    image_path   varchar(255),
+    created_when timestamp(6),
+    created_by   varchar(255),
+    updated_when timestamp(6),
+    updated_by   varchar(255),
+    is_deleted   boolean DEFAULT false
+);
+
+CREATE TABLE IF NOT EXISTS exhibition_artwork (
+    exhibition_id bigint NOT NULL REFERENCES exhibitions,
+    artwork_id    bigint NOT NULL REFERENCES artworks,
+    PRIMARY KEY (artwork_id, exhibition_id)
+);
+
+CREATE TABLE IF NOT EXISTS tickets (
+    id            bigint         NOT NULL PRIMARY KEY,
+    exhibition_id bigint         NOT NULL REFERENCES exhibitions,
+    user_id       bigint         NOT NULL REFERENCES users,
+    purchase_date timestamp(6)   NOT NULL,
+    visit_date    timestamp(6)   NOT NULL,
+    price         numeric(10, 2) NOT NULL,
+    status        varchar(255)   NOT NULL CHECK (status IN ('PURCHASED', 'USED', 'CANCELLED', 'EXPIRED')),
+    ticket_code   varchar(255) UNIQUE,
+    created_when  timestamp(6),
+    created_by    varchar(255),
+    updated_when  timestamp(6),
+    updated_by    varchar(255),
+    is_deleted    boolean DEFAULT false
+);
+
+-- Базы, созданные до перехода с IDENTITY на последовательности: ddl-auto=update создал <таблица>_seq с 1,
+-- а строки уже есть. pooled: после setval(seq, m) следующий nextval отдаст блок m+1 .. m+50
+SELECT setval('roles_seq', m) FROM (SELECT max(id) AS m FROM roles) t WHERE m >= (SELECT last_value FROM roles_seq);
+SELECT setval('users_seq', m) FROM (SELECT max(id) AS m FROM users) t WHERE m >= (SELECT last_value FROM users_seq);
+SELECT setval('artists_seq', m) FROM (SELECT max(id) AS m FROM artists) t WHERE m >= (SELECT last_value FROM artists_seq);
+SELECT setval('artworks_seq', m) FROM (SELECT max(id) AS m FROM artworks) t WHERE m >= (SELECT last_value FROM artworks_seq);
+SELECT setval('exhibitions_seq', m) FROM (SELECT max(id) AS m FROM exhibitions) t WHERE m >= (SELECT last_value FROM exhibitions_seq);
+SELECT setval('tickets_seq', m) FROM (SELECT max(id) AS m FROM tickets) t WHERE m >= (SELECT last_value FROM tickets_seq);
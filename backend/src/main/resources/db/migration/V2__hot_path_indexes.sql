@@ -0,0 +1,26 @@
+-- B-tree индексы под фильтры репозиториев, выборки AssociationIdLoader и удаление по DeletePlans.
+-- Внешние ключи PostgreSQL сам не индексирует: без индекса по ссылающейся колонке каждый поиск
+-- дочерних строк и каждое удаление родителя сканирует всю таблицу.
+-- CONCURRENTLY - чтобы построение на больших таблицах не блокировало запись (миграция идет вне транзакции).
+
+-- TicketRepository.findByUserId, AssociationIdLoader.ticketIdsByUser, удаление пользователя
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_user_id ON tickets (user_id);
+-- TicketRepository.findByExhibitionId / findSliceByExhibitionId / countByExhibitionId, удаление выставки
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_exhibition_id ON tickets (exhibition_id);
+-- TicketRepository.findByPurchaseDate
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tickets_purchase_date ON tickets (purchase_date);
+
+-- Фильтр artistId в поиске, AssociationIdLoader.artworkIdsByArtist, удаление художника
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_artworks_artist_id ON artworks (artist_id);
+-- ArtworkRepository.findByCategory
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_artworks_category ON artworks (category);
+
+-- ArtistRepository.findByCountry
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_artists_country ON artists (country);
+
+-- ExhibitionRepository.findCurrentViews / findUpcomingViews: диапазон по start_date, end_date проверяется в индексе
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_exhibitions_dates ON exhibitions (start_date, end_date);
+
+-- Первичный ключ связи начинается с artwork_id; выборка и удаление по выставке идут с другой стороны
+-- (AssociationIdLoader.artworkIdsByExhibition, удаление выставки)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_exhibition_artwork_exhibition_id ON exhibition_artwork (exhibition_id, artwork_id);
@@ -0,0 +1,26 @@
+-- Триграммные GIN-индексы для поиска подстроки (LIKE '%...%'), который B-tree обслужить не может.
+-- Выражения совпадают с условиями запросов в репозиториях: lower(...) там, где запрос сравнивает без учета регистра.
+-- CONCURRENTLY - чтобы построение на больших таблицах не блокировало запись.
+-- Каждый CREATE INDEX - отдельной командой: TrigramIndexInitializer проверяет перед ней pg_index.indisvalid
+-- и пересоздает индекс, оставшийся невалидным после прерванного построения.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- SearchQueries.users, UserRepository.findByFullNameContaining
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_login_trgm ON users USING gin (lower(login) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_first_name_trgm ON users USING gin (lower(first_name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_last_name_trgm ON users USING gin (lower(last_name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_full_name_trgm ON users USING gin (full_name gin_trgm_ops);
+
+-- SearchQueries.exhibitions
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_exhibitions_title_trgm ON exhibitions USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_exhibitions_location_trgm ON exhibitions USING gin (lower(location) gin_trgm_ops);
+
+-- SearchQueries.artworks, ArtworkRepository.findByArtistNameContainingIgnoreCase (через artists.name);
+-- B-tree по artist_id для фильтра artistId создает миграция V2__hot_path_indexes.sql
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_artworks_title_trgm ON artworks USING gin (title gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_artworks_description_trgm ON artworks USING gin (description gin_trgm_ops);
+
+-- SearchQueries.artists
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_artists_name_trgm ON artists USING gin (name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_artists_biography_trgm ON artists USING gin (biography gin_trgm_ops);
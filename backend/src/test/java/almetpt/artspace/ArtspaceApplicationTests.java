@@ -3,7 +3,8 @@ package almetpt.artspace;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Старт как у приложения: миграции Flyway и проверка схемы (в тестах на H2 они выключены)
+@SpringBootTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"})
 class ArtspaceApplicationTests {
 
 	@Test
@@ -0,0 +1,128 @@
+package almetpt.artspace.benchmark;
+
+import almetpt.artspace.service.search.FullTextIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время ответа поискового индекса каталога на синтетическом наборе работ:
+ * словарь из 50 000 слов с распределением Ципфа, название 3-6 слов, описание 20 слов.
+ * frequentWord - слово из первой сотни (совпадает с десятками тысяч работ), twoWords - пересечение
+ * частого и среднего слова, prefix - неполное слово, раскрывающееся в несколько термов.
+ * Запуск: mvn test-compile, затем main() из IDE или
+ * java -Xmx4g -cp target/test-classes:<classpath> almetpt.artspace.benchmark.CatalogSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogSearchBenchmark {
+
+    record Doc(String title, String description) {
+    }
+
+    private static final int VOCABULARY = 50_000;
+
+    @Param({"1000000"})
+    private int documents;
+
+    private FullTextIndex<Doc> index;
+    private String[] words;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = word(random);
+        }
+        double[] cumulative = zipf(VOCABULARY);
+        index = new FullTextIndex<>("artworks", List.of(
+                new FullTextIndex.Field<>("title", 2.0f, Doc::title),
+                new FullTextIndex.Field<>("description", 1.0f, Doc::description)));
+        Map<Long, Doc> batch = new HashMap<>();
+        for (long id = 1; id <= documents; id++) {
+            batch.put(id, new Doc(text(random, cumulative, 3 + random.nextInt(4)), text(random, cumulative, 20)));
+            if (batch.size() == 10_000) {
+                index.load(batch);
+                batch.clear();
+            }
+        }
+        index.load(batch);
+    }
+
+    @Benchmark
+    public FullTextIndex.Hits frequentWord() {
+        return search(words[50]);
+    }
+
+    @Benchmark
+    public FullTextIndex.Hits twoWords() {
+        return search(words[10] + " " + words[700]);
+    }
+
+    @Benchmark
+    public FullTextIndex.Hits rareWord() {
+        return search(words[30_000]);
+    }
+
+    @Benchmark
+    public FullTextIndex.Hits prefix() {
+        return search(words[200].substring(0, 4));
+    }
+
+    private FullTextIndex.Hits search(String text) {
+        return index.search(List.of(new FullTextIndex.Clause(text, "title", "description")), null, 0, 20);
+    }
+
+    private String text(Random random, double[] cumulative, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            text.append(words[rank >= 0 ? rank : Math.min(-rank - 1, VOCABULARY - 1)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static String word(Random random) {
+        String consonants = "бвгдзклмнпрстфх";
+        String vowels = "аеиоуя";
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(consonants.charAt(random.nextInt(consonants.length())));
+            word.append(vowels.charAt(random.nextInt(vowels.length())));
+        }
+        return word.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
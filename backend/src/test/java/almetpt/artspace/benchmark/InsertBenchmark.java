@@ -0,0 +1,148 @@
+package almetpt.artspace.benchmark;
+
+import almetpt.artspace.model.ArtCategory;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.PooledSequenceIdGenerator;
+import almetpt.artspace.model.Role;
+import almetpt.artspace.model.Ticket;
+import almetpt.artspace.model.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Скорость вставки билетов и произведений через Hibernate, строк в секунду (одна операция - одна строка).
+ * Каждый вызов сохраняет 1000 строк одной транзакцией, как GenericService.createAll.
+ * batchSize=1 - одна строка на запрос, как было с IDENTITY; batchSize=50 - JDBC batch с id из последовательности.
+ * По умолчанию H2 в памяти: сетевых задержек нет, поэтому разница меньше, чем на настоящей БД.
+ * Для PostgreSQL: -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5442/bench -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...
+ * (схема создается и удаляется бенчмарком). Запуск: mvn test-compile, затем main() из IDE или
+ * java -cp target/test-classes:<classpath> almetpt.artspace.benchmark.InsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private SessionFactory sessionFactory;
+    private User user;
+    private Exhibition exhibition;
+    private Artist artist;
+    private final AtomicLong ticketCodes = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Role.class)
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Artist.class)
+                .addAnnotatedClass(Artwork.class)
+                .addAnnotatedClass(Exhibition.class)
+                .addAnnotatedClass(Ticket.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                        System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:insert-" + batchSize + ";DB_CLOSE_DELAY=-1"))
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("benchmark.jdbc.user", "sa"))
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("benchmark.jdbc.password", ""))
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(PooledSequenceIdGenerator.ALLOCATION_SIZE, "50");
+        // RoleChangeListener создается через Spring: пустой контекст дает ему ObjectProvider без RoleRegistry
+        configuration.getProperties().put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(new DefaultListableBeanFactory()));
+        sessionFactory = configuration.buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            user = new User();
+            user.setLogin("visitor");
+            user.setPassword("hash");
+            user.setEmail("visitor@example.com");
+            session.persist(user);
+
+            exhibition = new Exhibition();
+            exhibition.setTitle("Передвижники");
+            exhibition.setStartDate(LocalDate.now());
+            exhibition.setEndDate(LocalDate.now().plusDays(30));
+            session.persist(exhibition);
+
+            artist = new Artist();
+            artist.setName("Иван Шишкин");
+            session.persist(artist);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void tickets() {
+        sessionFactory.inTransaction(session -> {
+            User visitor = session.getReference(User.class, user.getId());
+            Exhibition target = session.getReference(Exhibition.class, exhibition.getId());
+            for (int i = 0; i < ROWS; i++) {
+                Ticket ticket = new Ticket();
+                ticket.setUser(visitor);
+                ticket.setExhibition(target);
+                ticket.setPurchaseDate(LocalDateTime.now());
+                ticket.setVisitDate(LocalDateTime.now().plusDays(1));
+                ticket.setPrice(BigDecimal.TEN);
+                ticket.setStatus(Ticket.TicketStatus.PURCHASED);
+                ticket.setTicketCode("T-" + ticketCodes.incrementAndGet());
+                session.persist(ticket);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void artworks() {
+        sessionFactory.inTransaction(session -> {
+            Artist author = session.getReference(Artist.class, artist.getId());
+            for (int i = 0; i < ROWS; i++) {
+                persistArtwork(session, author, i);
+            }
+        });
+    }
+
+    private static void persistArtwork(Session session, Artist author, int i) {
+        Artwork artwork = new Artwork();
+        artwork.setTitle("Этюд " + i);
+        artwork.setDescription("Описание этюда " + i);
+        artwork.setPrice(BigDecimal.valueOf(1000 + i));
+        artwork.setCreationDate(LocalDate.of(1890, 1, 1));
+        artwork.setCategory(ArtCategory.PAINTING);
+        artwork.setArtist(author);
+        session.persist(artwork);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package almetpt.artspace.benchmark;
+
+import almetpt.artspace.config.jwt.JwtClaims;
+import almetpt.artspace.config.jwt.JwtUtils;
+import almetpt.artspace.service.userdetails.CustomUserDetails;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки JWT в JwtAuthenticationFilter на один запрос.
+ * legacy* повторяет старый путь: validateJwtToken + getUserNameFromJwtToken,
+ * каждый со своим key() и Jwts.parserBuilder(). singleParse - текущий verifyAndExtract.
+ * Запуск: mvn test-compile, затем main() из IDE или
+ * java -cp target/test-classes:<classpath> almetpt.artspace.benchmark.JwtAuthBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "artSpaceSecretKeyMustBeAtLeast32BytesLongForHS256Algorithm";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        jwtUtils.init();
+
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        CustomUserDetails principal = new CustomUserDetails(42L, "user", "", authorities);
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        Jwts.parserBuilder().setSigningKey(legacyKey()).build().parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(legacyKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public JwtClaims singleParse() {
+        return jwtUtils.verifyAndExtract(token).orElseThrow();
+    }
+
+    private static Key legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,173 @@
+package almetpt.artspace.benchmark;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.TicketDTO;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.TicketFieldMapperImpl;
+import almetpt.artspace.mapper.TicketMapper;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.ArtCategory;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.GenericModel;
+import almetpt.artspace.model.Ticket;
+import almetpt.artspace.model.User;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.config.Configuration.AccessLevel;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость преобразования страницы сущностей в DTO (как в GenericService.listAll).
+ * Сравнивается именно маппинг объектов (toDTO по одному), без загрузки id связей пачкой.
+ * legacy* - прежний ModelMapper с той же конфигурацией и TypeMap, что были в ModelMapperConfig
+ * и setupMapper(); generated* - текущие мапперы поверх кода MapStruct.
+ * В прежних TypeMap вложенные поля задавались тернарником (src.getArtist() != null ? ...), который
+ * ModelMapper записывает как цепочку getArtist().getArtist().getId() и падает на непустой связи,
+ * поэтому здесь используется обычная цепочка геттеров - null по пути ModelMapper обрабатывает сам.
+ * Аллокации на операцию (gc.alloc.rate.norm) печатает GCProfiler, он подключен в main().
+ * Запуск: mvn test-compile, затем main() из IDE или
+ * java -cp target/test-classes:<classpath> almetpt.artspace.benchmark.MapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"100"})
+    private int pageSize;
+
+    private List<Artwork> artworks;
+    private List<Ticket> tickets;
+
+    private ModelMapper legacyMapper;
+    private ArtworkMapper artworkMapper;
+    private TicketMapper ticketMapper;
+
+    @Setup
+    public void setup() {
+        artworkMapper = new ArtworkMapper(new ArtworkFieldMapperImpl(), null);
+        ticketMapper = new TicketMapper(new TicketFieldMapperImpl());
+        legacyMapper = legacyModelMapper();
+
+        Artist artist = new Artist();
+        artist.setId(1L);
+        artist.setName("Иван Шишкин");
+        User user = new User();
+        user.setId(2L);
+        user.setFirstName("Анна");
+        Set<Exhibition> exhibitions = new HashSet<>();
+        for (long i = 1; i <= 3; i++) {
+            Exhibition exhibition = new Exhibition();
+            exhibition.setId(i);
+            exhibition.setTitle("Выставка " + i);
+            exhibitions.add(exhibition);
+        }
+
+        artworks = new ArrayList<>(pageSize);
+        tickets = new ArrayList<>(pageSize);
+        for (long i = 0; i < pageSize; i++) {
+            Artwork artwork = new Artwork();
+            artwork.setId(i);
+            artwork.setTitle("Картина " + i);
+            artwork.setDescription("Описание картины " + i);
+            artwork.setPrice(BigDecimal.valueOf(1000 + i));
+            artwork.setCreationDate(LocalDate.of(1890, 1, 1));
+            artwork.setMedium("Холст, масло");
+            artwork.setDimensions("100x80");
+            artwork.setImgPath("/img/" + i + ".jpg");
+            artwork.setCategory(ArtCategory.values()[(int) (i % ArtCategory.values().length)]);
+            artwork.setCreatedWhen(LocalDateTime.now());
+            artwork.setArtist(artist);
+            artwork.setExhibitions(exhibitions);
+            artworks.add(artwork);
+
+            Ticket ticket = new Ticket();
+            ticket.setId(i);
+            ticket.setUser(user);
+            ticket.setExhibition(exhibitions.iterator().next());
+            ticket.setPurchaseDate(LocalDateTime.now());
+            ticket.setVisitDate(LocalDateTime.now().plusDays(1));
+            ticket.setPrice(BigDecimal.TEN);
+            ticket.setStatus(Ticket.TicketStatus.PURCHASED);
+            ticket.setTicketCode("T-" + i);
+            tickets.add(ticket);
+        }
+    }
+
+    @Benchmark
+    public List<ArtworkDTO> legacyArtworks() {
+        return artworks.stream().map(a -> legacyMapper.map(a, ArtworkDTO.class)).toList();
+    }
+
+    @Benchmark
+    public List<ArtworkDTO> generatedArtworks() {
+        return artworks.stream().map(artworkMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    public List<TicketDTO> legacyTickets() {
+        return tickets.stream().map(t -> legacyMapper.map(t, TicketDTO.class)).toList();
+    }
+
+    @Benchmark
+    public List<TicketDTO> generatedTickets() {
+        return tickets.stream().map(ticketMapper::toDTO).toList();
+    }
+
+    private static ModelMapper legacyModelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setFieldMatchingEnabled(true)
+                .setSkipNullEnabled(true)
+                .setAmbiguityIgnored(true)
+                .setFieldAccessLevel(AccessLevel.PRIVATE);
+
+        modelMapper.createTypeMap(Artwork.class, ArtworkDTO.class)
+                .addMappings(m -> {
+                    m.skip(ArtworkDTO::setExhibitionIds);
+                    m.map(src -> src.getArtist().getId(), ArtworkDTO::setArtistId);
+                    m.map(src -> src.getArtist().getName(), ArtworkDTO::setArtistName);
+                })
+                .setPostConverter(context -> {
+                    Set<Exhibition> exhibitions = context.getSource().getExhibitions();
+                    context.getDestination().setExhibitionIds(exhibitions == null ? null
+                            : exhibitions.stream().map(GenericModel::getId).toList());
+                    return context.getDestination();
+                });
+
+        modelMapper.createTypeMap(Ticket.class, TicketDTO.class)
+                .addMappings(m -> {
+                    m.map(src -> src.getUser().getId(), TicketDTO::setUserId);
+                    m.map(src -> src.getUser().getFirstName(), TicketDTO::setUserName);
+                    m.map(src -> src.getExhibition().getId(), TicketDTO::setExhibitionId);
+                    m.map(src -> src.getExhibition().getTitle(), TicketDTO::setExhibitionTitle);
+                });
+        return modelMapper;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,122 @@
+package almetpt.artspace.config;
+
+import almetpt.artspace.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Set<String> hashingThreads = ConcurrentHashMap.newKeySet();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1,
+            Duration.ofSeconds(5), registry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void rejectsFastWhenQueueIsFull() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        awaitQueued(0);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:b");
+        assertThat(registry.get("password.hashing").tag("operation", "encode").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void bulkEncodingWaitsForQueueInsteadOfHashingOnCallerThread() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        awaitQueued(0);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        awaitQueued(1);
+
+        CompletableFuture<List<String>> bulk = CompletableFuture.supplyAsync(() -> encoder.encodeAll(List.of("c", "d")));
+        Thread.sleep(100);
+        assertThat(bulk).isNotDone();
+
+        release.countDown();
+        assertThat(bulk.get(5, TimeUnit.SECONDS)).containsExactly("encoded:c", "encoded:d");
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:b");
+        assertThat(hashingThreads).allMatch(name -> name.startsWith("password-hashing-"));
+    }
+
+    @Test
+    void bulkEncodingIsRejectedWhenQueueStaysFull() throws Exception {
+        BoundedPasswordEncoder impatient = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1,
+                Duration.ofMillis(100), new SimpleMeterRegistry());
+        try {
+            CompletableFuture.runAsync(() -> impatient.encode("a"));
+            CompletableFuture.runAsync(() -> impatient.encode("b"));
+            Thread.sleep(50);
+
+            assertThatThrownBy(() -> impatient.encodeAll(List.of("c"))).isInstanceOf(TooManyRequestsException.class);
+            assertThat(hashingThreads).allMatch(name -> name.startsWith("password-hashing-"));
+        } finally {
+            release.countDown();
+            impatient.destroy();
+        }
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            double active = registry.get("executor.active").gauge().value();
+            double queued = registry.get("executor.queued").gauge().value();
+            if (active == 1 && queued == expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Задача не попала в пул");
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashingThreads.add(Thread.currentThread().getName());
+            // Как BCrypt, не прерывается отменой задачи: поток пула остается занятым до release
+            boolean interrupted = false;
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package almetpt.artspace.config;
+
+import almetpt.artspace.service.CatalogResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogResponseCacheFilterTest {
+
+    private static final String BODY = "{\"content\":[" + "{\"title\":\"Рожь\"},".repeat(50) + "{}]}";
+    private static final String ETAG = "W/\"1\"";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CatalogResponseCache cache = new CatalogResponseCache(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64),
+            Duration.ofMinutes(1), new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+    private final CatalogResponseCacheFilter filter = new CatalogResponseCacheFilter(cache);
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+    private Runnable duringRequest = () -> { };
+
+    // Вместо DispatcherServlet: ответ как у GenericController.conditional
+    private final HttpServlet controller = new HttpServlet() {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            controllerCalls.incrementAndGet();
+            duringRequest.run();
+            response.setHeader(HttpHeaders.ETAG, ETAG);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.setContentType("application/json");
+            response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedAnonymousGetIsServedFromCache() throws Exception {
+        MockHttpServletResponse first = get("/artworks", "size=5&page=0&sort=title", null);
+        MockHttpServletResponse second = get("/artworks", "sort=title&size=5", null);
+
+        assertThat(controllerCalls).hasValue(1);
+        assertThat(second.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(first.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(second.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(second.getContentType()).startsWith("application/json");
+        assertThat(second.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(registry.get("cache.gets").tag("cache", "catalogResponses").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void gzipBodyIsStoredOnceAndServedToClientsThatAcceptIt() throws Exception {
+        get("/artists", "", null);
+        MockHttpServletRequest request = request("/artists", "");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        MockHttpServletResponse gzipped = new MockHttpServletResponse();
+        filter.doFilter(request, gzipped, new MockFilterChain(controller));
+
+        assertThat(controllerCalls).hasValue(1);
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getContentLength()).isLessThan(BODY.getBytes(StandardCharsets.UTF_8).length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void matchingEtagOnCachedEntryAnswers304() throws Exception {
+        get("/exhibitions/getOneById", "id=1", null);
+        MockHttpServletResponse response = get("/exhibitions/getOneById", "id=1", ETAG);
+
+        assertThat(controllerCalls).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void invalidationDropsEntriesAndSkipsResponsesReadBeforeIt() throws Exception {
+        get("/artworks", "", null);
+        cache.invalidateAfterCommit();
+        get("/artworks", "", null);
+        assertThat(controllerCalls).hasValue(2);
+
+        // Изменение закоммичено, пока запрос читал данные: такой ответ не сохраняется
+        cache.invalidateAfterCommit();
+        duringRequest = cache::invalidateAfterCommit;
+        get("/artists", "", null);
+        duringRequest = () -> { };
+        get("/artists", "", null);
+        assertThat(controllerCalls).hasValue(4);
+    }
+
+    @Test
+    void authenticatedAndOtherRequestsBypassCache() throws Exception {
+        get("/tickets", "", null);
+        get("/tickets", "", null);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("admin", null, List.of()));
+        get("/artworks", "", null);
+        get("/artworks", "", null);
+
+        assertThat(controllerCalls).hasValue(4);
+    }
+
+    private MockHttpServletResponse get(String path, String query, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = request(path, query);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(controller));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setQueryString(query);
+        for (String parameter : query.split("&")) {
+            if (!parameter.isEmpty()) {
+                String[] nameValue = parameter.split("=", 2);
+                request.addParameter(nameValue[0], nameValue[1]);
+            }
+        }
+        return request;
+    }
+}
@@ -0,0 +1,82 @@
+package almetpt.artspace.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Построение триграммных индексов на PostgreSQL: невалидный индекс, оставшийся после прерванного
+ * CREATE INDEX CONCURRENTLY, пересоздается. Нужен PostgreSQL по адресу query-plan.jdbc.url
+ * (как в QueryPlanTest) с правами суперпользователя; если он недоступен, тест пропускается.
+ */
+@EnabledIf("postgresAvailable")
+class TrigramIndexInitializerTest {
+
+    private static final String SCHEMA = "trigram_index_test";
+    private static final String URL = System.getProperty("query-plan.jdbc.url", "jdbc:postgresql://localhost:5442/local_db2");
+    private static final String USER = System.getProperty("query-plan.jdbc.user", "postgres");
+    private static final String PASSWORD = System.getProperty("query-plan.jdbc.password", "12345");
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            URL + (URL.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA + ",public", USER, PASSWORD);
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TrigramIndexInitializer initializer = new TrigramIndexInitializer(dataSource);
+
+    static boolean postgresAvailable() {
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            return connection.getMetaData().getDatabaseMajorVersion() >= 16;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @BeforeEach
+    void createSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("CREATE TABLE users (login text, email text, first_name text, last_name text, full_name text)");
+        jdbcTemplate.execute("CREATE TABLE exhibitions (title text, location text)");
+        jdbcTemplate.execute("CREATE TABLE artworks (title text, description text)");
+        jdbcTemplate.execute("CREATE TABLE artists (name text, biography text)");
+    }
+
+    @AfterEach
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void invalidIndexIsRebuilt() {
+        initializer.createIndexes();
+        assertThat(indexValidity()).hasSize(11).containsOnly(true);
+        long invalidOid = indexOid("idx_artworks_title_trgm");
+        long validOid = indexOid("idx_artists_name_trgm");
+
+        // Так выглядит индекс после прерванного CREATE INDEX CONCURRENTLY
+        jdbcTemplate.update("UPDATE pg_index SET indisvalid = false WHERE indexrelid = ?::regclass", "idx_artworks_title_trgm");
+        initializer.createIndexes();
+
+        assertThat(indexValidity()).hasSize(11).containsOnly(true);
+        assertThat(indexOid("idx_artworks_title_trgm")).isNotEqualTo(invalidOid);
+        assertThat(indexOid("idx_artists_name_trgm")).isEqualTo(validOid);
+    }
+
+    private List<Boolean> indexValidity() {
+        return jdbcTemplate.queryForList("SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+                + "WHERE c.relnamespace = '" + SCHEMA + "'::regnamespace", Boolean.class);
+    }
+
+    private long indexOid(String name) {
+        return jdbcTemplate.queryForObject("SELECT ?::regclass::oid", Long.class, name);
+    }
+}
@@ -0,0 +1,131 @@
+package almetpt.artspace.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * По умолчанию основной сервер и реплика - две базы H2 в памяти. Против двух PostgreSQL
+ * (например, основного и его streaming-реплики): -Dreplica-test.primary-url=... -Dreplica-test.replica-url=...
+ * -Dreplica-test.username=... -Dreplica-test.password=...
+ */
+class ReplicaRoutingTest {
+
+    private static final String PRIMARY_URL = System.getProperty("replica-test.primary-url", "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+    private static final String REPLICA_URL = System.getProperty("replica-test.replica-url", "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+    // Порт 1 закрыт: соединение отклоняется сразу
+    private static final String BROKEN_URL = "jdbc:postgresql://localhost:1/none";
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final ReadYourWritesWindow readYourWrites = new ReadYourWritesWindow(Duration.ofMinutes(1));
+
+    private ReplicaRoutingDataSource replicas;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromReplica() {
+        route(REPLICA_URL);
+
+        assertThat(readOnlyServer()).isEqualTo(REPLICA_URL);
+        assertThat(readWriteServer()).isEqualTo(PRIMARY_URL);
+        assertThat(server()).isEqualTo(PRIMARY_URL);
+    }
+
+    @Test
+    void brokenReplicaFallsBackToPrimary() {
+        route(BROKEN_URL, REPLICA_URL);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(readOnlyServer()).isEqualTo(REPLICA_URL);
+        }
+        assertThat(replicas.healthyReplicas()).isEqualTo(1);
+
+        route(BROKEN_URL);
+        replicas.checkHealth();
+
+        assertThat(replicas.healthyReplicas()).isZero();
+        assertThat(readOnlyServer()).isEqualTo(PRIMARY_URL);
+    }
+
+    @Test
+    void writerReadsOwnWritesFromPrimary() {
+        route(REPLICA_URL);
+        login("anna");
+        readWrite.executeWithoutResult(status -> server());
+
+        assertThat(readOnlyServer()).isEqualTo(PRIMARY_URL);
+
+        login("boris");
+        assertThat(readOnlyServer()).isEqualTo(REPLICA_URL);
+    }
+
+    private void route(String... replicaUrls) {
+        HikariDataSource primary = pool(PRIMARY_URL, false);
+        List<HikariDataSource> replicaPools = new ArrayList<>();
+        for (String url : replicaUrls) {
+            replicaPools.add(pool(url, true));
+        }
+        replicas = new ReplicaRoutingDataSource(primary, replicaPools, readYourWrites, Duration.ofSeconds(10));
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicas);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(readYourWrites);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private HikariDataSource pool(String url, boolean replica) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername(System.getProperty("replica-test.username", "sa"));
+        pool.setPassword(System.getProperty("replica-test.password", ""));
+        pool.setReadOnly(replica);
+        pool.setConnectionTimeout(250);
+        pool.setInitializationFailTimeout(-1);
+        pools.add(pool);
+        return pool;
+    }
+
+    private String readOnlyServer() {
+        return readOnly.execute(status -> server());
+    }
+
+    private String readWriteServer() {
+        return readWrite.execute(status -> server());
+    }
+
+    // URL сервера, с которого пришло физическое соединение
+    private String server() {
+        String url = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getURL());
+        return PRIMARY_URL.startsWith(url) ? PRIMARY_URL : REPLICA_URL.startsWith(url) ? REPLICA_URL : url;
+    }
+
+    private static void login(String user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+}
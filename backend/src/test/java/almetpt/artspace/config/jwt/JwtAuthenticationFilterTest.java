@@ -0,0 +1,64 @@
+package almetpt.artspace.config.jwt;
+
+import almetpt.artspace.service.userdetails.CustomUserDetails;
+import almetpt.artspace.service.userdetails.CustomUserDetailsService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtils, userDetailsService,
+            new JwtRevocationList(1000, 0.01, 3_600_000), true, 60_000);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "jwtCookieName", "jwt-token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void trustedClaimsAreRevalidatedOncePerInterval() throws Exception {
+        Instant now = Instant.now();
+        when(jwtUtils.verifyAndExtract("token")).thenReturn(Optional.of(
+                new JwtClaims("jti", "admin", 1L, List.of("ROLE_ADMIN"), now, now.plusSeconds(3600))));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(
+                new CustomUserDetails(1L, "admin", "hash", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        authenticate();
+        authenticate();
+
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("admin");
+    }
+
+    private void authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tickets");
+        request.setCookies(new Cookie("jwt-token", "token"));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
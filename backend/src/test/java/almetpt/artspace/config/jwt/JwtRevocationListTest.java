@@ -0,0 +1,70 @@
+package almetpt.artspace.config.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtRevocationListTest {
+
+    private final JwtRevocationList revocationList = new JwtRevocationList(1000, 0.01, 3_600_000);
+
+    private static JwtClaims token(String jti, Long userId, Instant issuedAt, Instant expiration) {
+        return new JwtClaims(jti, "user" + userId, userId, List.of("ROLE_USER"), issuedAt, expiration);
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndOthersAreNot() {
+        Instant now = Instant.now();
+        JwtClaims revoked = token("jti-1", 1L, now, now.plusSeconds(3600));
+        JwtClaims other = token("jti-2", 1L, now, now.plusSeconds(3600));
+
+        revocationList.revoke(revoked);
+
+        assertThat(revocationList.isRevoked(revoked)).isTrue();
+        assertThat(revocationList.isRevoked(other)).isFalse();
+    }
+
+    @Test
+    void revokeAllForUserRejectsOnlyTokensIssuedBefore() {
+        Instant now = Instant.now();
+        JwtClaims old = token("jti-old", 7L, now.minusSeconds(60), now.plusSeconds(3600));
+        JwtClaims anotherUser = token("jti-x", 8L, now.minusSeconds(60), now.plusSeconds(3600));
+
+        revocationList.revokeAllForUser(7L);
+
+        assertThat(revocationList.isRevoked(old)).isTrue();
+        assertThat(revocationList.isRevoked(anotherUser)).isFalse();
+        assertThat(revocationList.isRevoked(token("jti-new", 7L, now.plusSeconds(5), now.plusSeconds(3600)))).isFalse();
+    }
+
+    @Test
+    void revokeAllForUserComparesWholeSecondsOfIssueTime() {
+        Instant before = Instant.now();
+        revocationList.revokeAllForUser(7L);
+        Instant after = Instant.now();
+
+        // iat без долей секунды: токен из секунды отзыва отозван, выписанный в следующую секунду - нет
+        Instant sameSecond = before.truncatedTo(ChronoUnit.SECONDS);
+        Instant nextSecond = after.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        assertThat(revocationList.isRevoked(token("jti-same", 7L, sameSecond, nextSecond.plusSeconds(3600)))).isTrue();
+        assertThat(revocationList.isRevoked(token("jti-next", 7L, nextSecond, nextSecond.plusSeconds(3600)))).isFalse();
+    }
+
+    @Test
+    void purgeDropsExpiredTokensButKeepsLiveOnes() {
+        Instant now = Instant.now();
+        JwtClaims expired = token("jti-expired", 1L, now.minusSeconds(7200), now.minusSeconds(1));
+        JwtClaims live = token("jti-live", 1L, now, now.plusSeconds(3600));
+        revocationList.revoke(expired);
+        revocationList.revoke(live);
+
+        revocationList.purgeExpired();
+
+        assertThat(revocationList.isRevoked(expired)).isFalse();
+        assertThat(revocationList.isRevoked(live)).isTrue();
+    }
+}
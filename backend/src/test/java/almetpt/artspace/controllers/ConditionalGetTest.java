@@ -0,0 +1,265 @@
+package almetpt.artspace.controllers;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.repository.TableVersions;
+import almetpt.artspace.service.ArtworkService;
+import almetpt.artspace.service.CatalogResponseCache;
+import almetpt.artspace.service.ExhibitionCalendar;
+import almetpt.artspace.service.ExhibitionService;
+import almetpt.artspace.service.PageTotals;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Контроллеры вызываются напрямую с MockHttpServletRequest: заголовки ответа выставляет
+ * checkNotModified, статус 304 без тела - сам ResponseEntity. Данные коммитятся, поэтому без общей транзакции.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false",
+        "table-versions.ttl=1m"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AssociationIdLoader.class, ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        ExhibitionService.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class, ExhibitionCalendar.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        CatalogResponseCache.class, TableVersions.class, ArtworkController.class, ExhibitionController.class})
+class ConditionalGetTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ArtworkController artworkController;
+    @Autowired
+    private ExhibitionController exhibitionController;
+    @Autowired
+    private ArtworkService artworkService;
+
+    private Statistics statistics;
+    private Artist artist;
+    private Artwork rye;
+    private Artwork pines;
+    private Exhibition exhibition;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            artist = new Artist();
+            artist.setName("Иван Шишкин");
+            entityManager.persist(artist);
+            rye = artwork("Рожь");
+            pines = artwork("Сосны");
+
+            exhibition = new Exhibition();
+            exhibition.setTitle("Передвижники");
+            exhibition.setStartDate(LocalDate.now());
+            exhibition.setEndDate(LocalDate.now().plusDays(30));
+            exhibition.getArtworks().add(rye);
+            entityManager.persist(exhibition);
+        });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("exhibition_artwork", "exhibitions", "artworks", "artists")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void matchingEtagAnswers304WithoutReadingData() {
+        Exchange first = get(request -> artworkController.getOneById(rye.getId(), null, null, request), null);
+        assertEquals(HttpStatus.OK, first.status());
+        assertNotNull(first.etag());
+        assertTrue(first.etag().startsWith("W/\""));
+        assertNotNull(first.headers().getFirst(HttpHeaders.LAST_MODIFIED));
+        assertEquals("no-cache", first.headers().getFirst(HttpHeaders.CACHE_CONTROL));
+
+        statistics.clear();
+        Exchange second = get(request -> artworkController.getOneById(rye.getId(), null, null, request), first.etag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.status());
+        assertNull(second.body());
+        assertEquals(first.etag(), second.etag());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void entityEtagFollowsItsRowAndRelatedNames() {
+        String etag = getOne(rye).etag();
+
+        ArtworkDTO update = new ArtworkDTO();
+        update.setTitle("Сосны на солнце");
+        update.setArtistId(artist.getId());
+        artworkService.update(withId(update, pines.getId()));
+        assertEquals(etag, getOne(rye).etag(), "изменение другой работы");
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Artist.class, artist.getId()).setName("И. И. Шишкин"));
+        assertNotEquals(etag, getOne(rye).etag(), "изменилось artistName");
+    }
+
+    @Test
+    void deleteChangesPageEtagAndLastModified() {
+        Exchange before = getPage(null);
+        long lastModified = before.headers().getLastModified();
+
+        artworkService.delete(pines.getId());
+        Exchange after = getPage(before.etag());
+
+        assertEquals(HttpStatus.OK, after.status());
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(after.headers().getLastModified() >= lastModified);
+        assertEquals(List.of(rye.getId()), ((Slice<?>) after.body()).getContent().stream()
+                .map(dto -> ((ArtworkDTO) dto).getId()).toList());
+    }
+
+    @Test
+    void ifModifiedSinceAloneSeesDeletes() throws InterruptedException {
+        Exchange before = getPage(null);
+        // Last-Modified с точностью до секунды
+        Thread.sleep(1100);
+        artworkService.delete(pines.getId());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/artworks");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, before.headers().getFirst(HttpHeaders.LAST_MODIFIED));
+        ResponseEntity<?> response = artworkController.getAll(PageRequest.of(0, 20), null, null, "exact",
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void replacingExhibitionArtworksChangesEtag() {
+        Exchange before = get(request -> exhibitionController.getOneById(exhibition.getId(), null, null, request), null);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Exhibition loaded = entityManager.find(Exhibition.class, exhibition.getId());
+            loaded.setArtworks(new HashSet<>(Set.of(entityManager.find(Artwork.class, pines.getId()))));
+        });
+        Exchange after = get(request -> exhibitionController.getOneById(exhibition.getId(), null, null, request), before.etag());
+
+        assertEquals(HttpStatus.OK, after.status());
+    }
+
+    @Test
+    void replacingExhibitionArtworksChangesArtworkEtag() {
+        Exchange before = getOne(rye);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Exhibition loaded = entityManager.find(Exhibition.class, exhibition.getId());
+            loaded.setArtworks(new HashSet<>(Set.of(entityManager.find(Artwork.class, pines.getId()))));
+        });
+        Exchange after = get(request -> artworkController.getOneById(rye.getId(), null, null, request), before.etag());
+
+        assertEquals(HttpStatus.OK, after.status());
+        assertEquals(List.of(), ((ArtworkDTO) after.body()).getExhibitionIds());
+    }
+
+    @Test
+    void tableAggregatesAreKeptUntilTableIsWritten() {
+        String etag = getPage(null).etag();
+
+        // Запись мимо приложения не видна до table-versions.ttl: значит, агрегаты не перечитывались
+        jdbcTemplate.update("UPDATE artworks SET updated_when = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().plusDays(1)), pines.getId());
+        assertEquals(etag, getPage(null).etag());
+
+        ArtworkDTO update = new ArtworkDTO();
+        update.setTitle("Сосны на солнце");
+        update.setArtistId(artist.getId());
+        artworkService.update(withId(update, pines.getId()));
+        assertNotEquals(etag, getPage(null).etag());
+    }
+
+    private record Exchange(HttpStatus status, Object body, HttpHeaders headers) {
+        String etag() {
+            return headers.getETag();
+        }
+    }
+
+    private Exchange getOne(Artwork artwork) {
+        return get(request -> artworkController.getOneById(artwork.getId(), null, null, request), null);
+    }
+
+    private Exchange getPage(String ifNoneMatch) {
+        return get(request -> artworkController.getAll(PageRequest.of(0, 20), null, null, "exact", request), ifNoneMatch);
+    }
+
+    // Заголовки - из servlet-ответа (их пишет checkNotModified) и из самого ResponseEntity
+    private Exchange get(Function<ServletWebRequest, ResponseEntity<?>> call, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ResponseEntity<?> response = call.apply(new ServletWebRequest(request, servletResponse));
+        HttpHeaders headers = new HttpHeaders();
+        servletResponse.getHeaderNames().forEach(name -> headers.addAll(name, servletResponse.getHeaders(name)));
+        response.getHeaders().forEach(headers::addAll);
+        return new Exchange(HttpStatus.valueOf(response.getStatusCode().value()), response.getBody(), headers);
+    }
+
+    private static ArtworkDTO withId(ArtworkDTO dto, Long id) {
+        dto.setId(id);
+        return dto;
+    }
+
+    private Artwork artwork(String title) {
+        Artwork artwork = new Artwork();
+        artwork.setTitle(title);
+        artwork.setArtist(artist);
+        entityManager.persist(artwork);
+        return artwork;
+    }
+}
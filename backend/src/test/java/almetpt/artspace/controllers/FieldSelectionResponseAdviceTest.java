@@ -0,0 +1,81 @@
+package almetpt.artspace.controllers;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.FieldSelection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionResponseAdviceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .setFilterProvider(new SimpleFilterProvider()
+                    .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+    private final FieldSelectionResponseAdvice advice = new FieldSelectionResponseAdvice();
+
+    @Test
+    void withoutParametersAllFieldsAreWritten() throws Exception {
+        JsonNode json = write(new MockHttpServletRequest());
+
+        assertTrue(json.has("title"));
+        assertTrue(json.has("description"));
+        assertTrue(json.has("exhibitionIds"));
+    }
+
+    @Test
+    void fieldsKeepOnlyRequestedPropertiesAndId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("fields", "title, artistName");
+
+        JsonNode json = write(request);
+
+        assertEquals(3, json.size());
+        assertEquals(1L, json.get("id").asLong());
+        assertEquals("Рожь", json.get("title").asText());
+        assertTrue(json.has("artistName"));
+    }
+
+    @Test
+    void expandAloneKeepsPlainFieldsAndAddsOnlyRequestedLists() throws Exception {
+        MockHttpServletRequest noExpand = new MockHttpServletRequest();
+        noExpand.setParameter("expand", "ticketIds");
+        MockHttpServletRequest withExpand = new MockHttpServletRequest();
+        withExpand.setParameter("expand", "exhibitionIds");
+
+        JsonNode withoutIds = write(noExpand);
+        JsonNode withIds = write(withExpand);
+
+        assertTrue(withoutIds.has("description"));
+        assertFalse(withoutIds.has("exhibitionIds"));
+        assertEquals(2, withIds.get("exhibitionIds").size());
+    }
+
+    private JsonNode write(MockHttpServletRequest request) throws Exception {
+        ArtworkDTO dto = new ArtworkDTO();
+        dto.setId(1L);
+        dto.setTitle("Рожь");
+        dto.setDescription("Описание");
+        dto.setArtistName("Шишкин");
+        dto.setExhibitionIds(List.of(3L, 4L));
+
+        MappingJacksonValue container = new MappingJacksonValue(dto);
+        advice.beforeBodyWriteInternal(container, MediaType.APPLICATION_JSON, null,
+                new ServletServerHttpRequest(request), new ServletServerHttpResponse(new MockHttpServletResponse()));
+        String body = container.getFilters() == null
+                ? objectMapper.writeValueAsString(container.getValue())
+                : objectMapper.writer(container.getFilters()).writeValueAsString(container.getValue());
+        return objectMapper.readTree(body);
+    }
+}
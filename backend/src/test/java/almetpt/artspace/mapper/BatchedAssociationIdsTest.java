@@ -0,0 +1,147 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.ExhibitionDTO;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.UserDTO;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.Ticket;
+import almetpt.artspace.model.User;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.ExhibitionRepository;
+import almetpt.artspace.repository.UserRepository;
+import almetpt.artspace.service.RoleRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AssociationIdLoader.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class,
+        UserMapper.class, UserFieldMapperImpl.class, RoleRegistry.class})
+class BatchedAssociationIdsTest {
+
+    private static final int ROWS = 60;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ExhibitionRepository exhibitionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ExhibitionMapper exhibitionMapper;
+    @Autowired
+    private UserMapper userMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Artwork artwork = new Artwork();
+        artwork.setTitle("Картина");
+        entityManager.persist(artwork);
+        for (int i = 0; i < ROWS; i++) {
+            Exhibition exhibition = new Exhibition();
+            exhibition.setTitle(String.format("Выставка %02d", i));
+            exhibition.setStartDate(LocalDate.now());
+            exhibition.setEndDate(LocalDate.now().plusDays(1));
+            exhibition.getArtworks().add(artwork);
+            entityManager.persist(exhibition);
+
+            User user = new User();
+            user.setLogin(String.format("user%02d", i));
+            user.setPassword("hash");
+            user.setEmail("user" + i + "@example.com");
+            entityManager.persist(user);
+
+            Ticket ticket = new Ticket();
+            ticket.setUser(user);
+            ticket.setExhibition(exhibition);
+            ticket.setPurchaseDate(LocalDateTime.now());
+            ticket.setVisitDate(LocalDateTime.now());
+            ticket.setPrice(BigDecimal.ONE);
+            ticket.setStatus(Ticket.TicketStatus.PURCHASED);
+            entityManager.persist(ticket);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void exhibitionPageUsesConstantStatementCount(int pageSize) {
+        Page<ExhibitionDTO> page = exhibitionMapper.toDTOPage(
+                exhibitionRepository.findAll(PageRequest.of(0, pageSize, Sort.by("title"))));
+
+        assertEquals(pageSize, page.getContent().size());
+        assertEquals(ROWS, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(dto -> dto.getArtworkIds().size() == 1));
+        // Страница, count и один запрос к exhibition_artwork
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void userListUsesConstantStatementCount(int pageSize) {
+        List<User> users = userRepository.findAll(PageRequest.of(0, pageSize, Sort.by("login"))).getContent();
+        statistics.clear();
+
+        List<UserDTO> dtos = userMapper.toDTOList(users);
+
+        assertEquals(pageSize, dtos.size());
+        assertTrue(dtos.stream().allMatch(dto -> dto.getTicketIds().size() == 1));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void unrequestedAssociationIdsAreNotLoaded() {
+        Page<ExhibitionDTO> page = exhibitionMapper.toDTOPage(
+                exhibitionRepository.findAll(PageRequest.of(0, 20)), FieldSelection.of("title", null));
+
+        assertTrue(page.getContent().stream().allMatch(dto -> dto.getArtworkIds() == null));
+        // Только страница и count
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void entitiesWithoutAssociationsGetEmptyLists() {
+        User user = new User();
+        user.setLogin("lonely");
+        user.setPassword("hash");
+        user.setEmail("lonely@example.com");
+        entityManager.persist(user);
+
+        List<UserDTO> dtos = userMapper.toDTOList(List.of(user));
+
+        assertEquals(List.of(), dtos.get(0).getTicketIds());
+    }
+}
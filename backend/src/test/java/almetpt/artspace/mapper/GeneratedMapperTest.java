@@ -0,0 +1,112 @@
+package almetpt.artspace.mapper;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.TicketDTO;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.Ticket;
+import almetpt.artspace.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedMapperTest {
+
+    // Одиночный toDTO не обращается к AssociationIdLoader
+    private final ArtworkMapper artworkMapper = new ArtworkMapper(new ArtworkFieldMapperImpl(), null);
+    private final TicketMapper ticketMapper = new TicketMapper(new TicketFieldMapperImpl());
+
+    @Test
+    void artworkToDtoFlattensArtistAndCollectsExhibitionIds() {
+        Artist artist = new Artist();
+        artist.setId(7L);
+        artist.setName("Шишкин");
+        Exhibition exhibition = new Exhibition();
+        exhibition.setId(3L);
+        Artwork artwork = new Artwork();
+        artwork.setId(1L);
+        artwork.setTitle("Рожь");
+        artwork.setPrice(BigDecimal.TEN);
+        artwork.setArtist(artist);
+        artwork.setExhibitions(Set.of(exhibition));
+
+        ArtworkDTO dto = artworkMapper.toDTO(artwork);
+
+        assertEquals(1L, dto.getId());
+        assertEquals("Рожь", dto.getTitle());
+        assertEquals(BigDecimal.TEN, dto.getPrice());
+        assertEquals(7L, dto.getArtistId());
+        assertEquals("Шишкин", dto.getArtistName());
+        assertEquals(List.of(3L), dto.getExhibitionIds());
+        assertFalse(dto.getIsDeleted());
+    }
+
+    @Test
+    void artworkWithoutArtistHasNoArtistFields() {
+        Artwork artwork = new Artwork();
+        artwork.setTitle("Без автора");
+
+        ArtworkDTO dto = artworkMapper.toDTO(artwork);
+
+        assertNull(dto.getArtistId());
+        assertNull(dto.getArtistName());
+        assertEquals(List.of(), dto.getExhibitionIds());
+    }
+
+    @Test
+    void toEntityLeavesAssociationsToService() {
+        ArtworkDTO dto = new ArtworkDTO();
+        dto.setTitle("Новая");
+        dto.setArtistId(7L);
+        dto.setExhibitionIds(List.of(1L, 2L));
+
+        Artwork artwork = artworkMapper.toEntity(dto);
+
+        assertEquals("Новая", artwork.getTitle());
+        assertNull(artwork.getArtist());
+        assertTrue(artwork.getExhibitions().isEmpty());
+        // null в DTO не затирает значения по умолчанию
+        assertFalse(artwork.getIsDeleted());
+    }
+
+    @Test
+    void updateSkipsNullFields() {
+        Artwork artwork = new Artwork();
+        artwork.setTitle("Старое название");
+        artwork.setDescription("Описание");
+        ArtworkDTO dto = new ArtworkDTO();
+        dto.setTitle("Новое название");
+
+        artworkMapper.updateEntityFromDto(dto, artwork);
+
+        assertEquals("Новое название", artwork.getTitle());
+        assertEquals("Описание", artwork.getDescription());
+    }
+
+    @Test
+    void ticketToDtoFlattensUserAndExhibition() {
+        User user = new User();
+        user.setId(5L);
+        user.setFirstName("Анна");
+        Exhibition exhibition = new Exhibition();
+        exhibition.setId(9L);
+        exhibition.setTitle("Передвижники");
+        Ticket ticket = new Ticket();
+        ticket.setUser(user);
+        ticket.setExhibition(exhibition);
+        ticket.setStatus(Ticket.TicketStatus.PURCHASED);
+
+        TicketDTO dto = ticketMapper.toDTO(ticket);
+
+        assertEquals(5L, dto.getUserId());
+        assertEquals("Анна", dto.getUserName());
+        assertEquals(9L, dto.getExhibitionId());
+        assertEquals("Передвижники", dto.getExhibitionTitle());
+        assertEquals(Ticket.TicketStatus.PURCHASED, dto.getStatus());
+    }
+}
@@ -0,0 +1,206 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.model.ArtCategory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы запросов репозиториев на PostgreSQL по схеме из миграций: каждый запрос с фильтром
+ * должен находить свой индекс. Запросы перехватываются у Hibernate и разбираются через
+ * EXPLAIN (GENERIC_PLAN) с enable_seqscan=off: таблицы пустые, и без этого планировщику всегда дешевле Seq Scan.
+ * Поиск подстрок (LIKE '%...%') опирается на необязательные pg_trgm индексы TrigramIndexInitializer и здесь не проверяется.
+ * <p>
+ * Нужен PostgreSQL 16+ по адресу query-plan.jdbc.url (по умолчанию база из application.properties);
+ * если он недоступен, тест пропускается. Схема query_plan_test пересоздается миграциями при каждом запуске.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=" + QueryPlanTest.SCHEMA,
+        "spring.flyway.clean-disabled=false",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "catalog.search.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIf("postgresAvailable")
+@Import({QueryPlanTest.Config.class, AssociationIdLoader.class})
+class QueryPlanTest {
+
+    static final String SCHEMA = "query_plan_test";
+
+    private static final String URL = System.getProperty("query-plan.jdbc.url", "jdbc:postgresql://localhost:5442/local_db2");
+    private static final String USER = System.getProperty("query-plan.jdbc.user", "postgres");
+    private static final String PASSWORD = System.getProperty("query-plan.jdbc.password", "12345");
+
+    @Autowired
+    private StatementRecorder recorder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TicketRepository ticketRepository;
+    @Autowired
+    private ExhibitionRepository exhibitionRepository;
+    @Autowired
+    private ArtworkRepository artworkRepository;
+    @Autowired
+    private ArtistRepository artistRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private AssociationIdLoader associationIdLoader;
+
+    static boolean postgresAvailable() {
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            return connection.getMetaData().getDatabaseMajorVersion() >= 16;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        // simple: иначе драйвер отправляет $1 из текста EXPLAIN как параметры, которых у запроса нет
+        registry.add("spring.datasource.url", () -> URL + (URL.contains("?") ? "&" : "?")
+                + "currentSchema=" + SCHEMA + "&preferQueryMode=simple");
+        registry.add("spring.datasource.username", () -> USER);
+        registry.add("spring.datasource.password", () -> PASSWORD);
+    }
+
+    @BeforeEach
+    void disableSeqScan() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void ticketQueries() {
+        PageRequest page = PageRequest.of(0, 20);
+        assertUsesIndex("idx_tickets_user_id", () -> ticketRepository.findByUserId(1L));
+        assertUsesIndex("idx_tickets_user_id", () -> associationIdLoader.ticketIdsByUser(List.of(1L, 2L)));
+        assertUsesIndex("idx_tickets_exhibition_id", () -> ticketRepository.findByExhibitionId(1L, page));
+        assertUsesIndex("idx_tickets_exhibition_id", () -> ticketRepository.findSliceByExhibitionId(1L, page));
+        assertUsesIndex("idx_tickets_exhibition_id", () -> ticketRepository.countByExhibitionId(1L));
+        assertUsesIndex("idx_tickets_purchase_date", () -> ticketRepository.findByPurchaseDateGreaterThanEqualAndPurchaseDateLessThan(
+                LocalDate.now().atStartOfDay(), LocalDate.now().plusDays(1).atStartOfDay(), page));
+    }
+
+    @Test
+    void exhibitionQueries() {
+        PageRequest page = PageRequest.of(0, 20);
+        assertUsesIndex("idx_exhibitions_dates", () -> exhibitionRepository.findCurrentViews(LocalDate.now(), page));
+        assertUsesIndex("idx_exhibitions_dates", () -> exhibitionRepository.findUpcomingViews(LocalDate.now(), page));
+        assertUsesIndex("idx_exhibition_artwork_exhibition_id", () -> associationIdLoader.artworkIdsByExhibition(List.of(1L, 2L)));
+        assertUsesIndex("exhibition_artwork_pkey", () -> associationIdLoader.exhibitionIdsByArtwork(List.of(1L, 2L)));
+    }
+
+    @Test
+    void catalogQueries() {
+        assertUsesIndex("idx_artworks_category", () -> artworkRepository.findByCategory(ArtCategory.PAINTING, PageRequest.of(0, 20)));
+        assertUsesIndex("idx_artworks_artist_id", () -> associationIdLoader.artworkIdsByArtist(List.of(1L, 2L)));
+        assertUsesIndex("idx_artists_country", () -> artistRepository.findByCountry("Россия", PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void userQueries() {
+        assertUsesIndex("users_login_key", () -> userRepository.findByLogin("admin"));
+        assertUsesIndex("users_login_key", () -> userRepository.findExistingLogins(Set.of("admin", "user")));
+        assertUsesIndex("users_email_key", () -> userRepository.findByEmail("admin@example.com"));
+        assertUsesIndex("users_email_key", () -> userRepository.findExistingEmails(Set.of("admin@example.com")));
+        assertUsesIndex("roles_title_key", () -> roleRepository.findByTitle("ADMIN"));
+    }
+
+    private void assertUsesIndex(String index, Runnable query) {
+        recorder.clear();
+        query.run();
+        List<String> statements = recorder.statements();
+        assertFalse(statements.isEmpty(), "запрос не дошел до БД");
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN (GENERIC_PLAN, COSTS OFF) " + numberParameters(sql), String.class));
+            assertTrue(plan.contains(" " + index), () -> "ожидался " + index + " для\n" + sql + "\n" + plan);
+        }
+    }
+
+    // EXPLAIN (GENERIC_PLAN) принимает параметры только в виде $1, $2, ...
+    private static String numberParameters(String sql) {
+        StringBuilder result = new StringBuilder();
+        boolean literal = false;
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                literal = !literal;
+            }
+            if (c == '?' && !literal) {
+                result.append('$').append(++parameter);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    static class StatementRecorder implements StatementInspector {
+        private final List<String> statements = new ArrayList<>();
+
+        @Override
+        public synchronized String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        synchronized List<String> statements() {
+            return List.copyOf(statements);
+        }
+
+        synchronized void clear() {
+            statements.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementRecorderCustomizer(StatementRecorder recorder) {
+            return properties -> properties.put("hibernate.session_factory.statement_inspector", recorder);
+        }
+
+        // Схема теста каждый раз строится с нуля теми же миграциями, что и рабочая база
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.UserSearchDTO;
+import almetpt.artspace.model.ArtCategory;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.User;
+import almetpt.artspace.repository.projection.ArtworkView;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(SearchQueryExecutor.class)
+class SearchQueryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private SearchQueryExecutor executor;
+
+    @Test
+    void emitsOnlySuppliedPredicatesInFixedOrder() {
+        ArtworkSearchDTO search = new ArtworkSearchDTO();
+        search.setCategory(ArtCategory.PAINTING);
+        search.setTitle("море");
+
+        SearchQuery<Artwork> query = SearchQueries.artworks(search);
+
+        assertThat(query.select("a")).isEqualTo("SELECT a FROM Artwork a WHERE a.title LIKE :p0 AND a.category = :p1");
+        // Колонкам проекции нужен художник, COUNT без условия по нему обходится без join
+        assertThat(query.select(ArtworkRepository.VIEW_COLUMNS)).contains("FROM Artwork a LEFT JOIN a.artist art WHERE");
+        assertThat(query.count()).isEqualTo("SELECT count(a) FROM Artwork a WHERE a.title LIKE :p0 AND a.category = :p1");
+
+        ArtworkSearchDTO other = new ArtworkSearchDTO();
+        other.setTitle("лес");
+        other.setCategory(ArtCategory.SCULPTURE);
+        assertThat(SearchQueries.artworks(other).count()).isEqualTo(query.count());
+    }
+
+    @Test
+    void blankFiltersAreSkipped() {
+        UserSearchDTO search = new UserSearchDTO();
+        search.setLogin("  ");
+
+        assertThat(SearchQueries.users(search).count()).isEqualTo("SELECT count(u) FROM User u");
+
+        search.setRoleName("admin");
+        assertThat(SearchQueries.users(search).count())
+                .isEqualTo("SELECT count(u) FROM User u LEFT JOIN u.role r WHERE lower(r.title) LIKE lower(:p0)");
+    }
+
+    @Test
+    void filtersArtworksByArtistIdAndName() {
+        Artist shishkin = artist("Иван Шишкин");
+        Artist levitan = artist("Исаак Левитан");
+        for (int i = 0; i < 7; i++) {
+            artwork("Пейзаж " + i, i % 2 == 0 ? shishkin : levitan, LocalDate.of(1880 + i, 1, 1));
+        }
+        artwork("Без автора", null, LocalDate.of(1890, 1, 1));
+        entityManager.flush();
+        entityManager.clear();
+
+        ArtworkSearchDTO byId = new ArtworkSearchDTO();
+        byId.setArtistId(shishkin.getId());
+        Page<ArtworkView> page = executor.pageViews(SearchQueries.artworks(byId), ArtworkRepository.VIEW_COLUMNS,
+                ArtworkView.class, PageRequest.of(0, 3, Sort.by("title")));
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getContent()).extracting(ArtworkView::getTitle).containsExactly("Пейзаж 0", "Пейзаж 2", "Пейзаж 4");
+        assertThat(page.getContent()).extracting(ArtworkView::getArtistName).containsOnly("Иван Шишкин");
+
+        ArtworkSearchDTO byName = new ArtworkSearchDTO();
+        byName.setArtistName("Левитан");
+        byName.setCreatedAfter(LocalDate.of(1883, 1, 1));
+        SearchQuery<Artwork> query = SearchQueries.artworks(byName);
+        assertThat(executor.count(query)).isEqualTo(2);
+        Slice<Artwork> slice = executor.slice(query, Artwork.class, PageRequest.of(0, 1, Sort.by("title")));
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(slice.getContent()).extracting(Artwork::getTitle).containsExactly("Пейзаж 3");
+    }
+
+    @Test
+    void lastPageTotalNeedsNoCount() {
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setLogin("user" + i);
+            user.setPassword("hash");
+            user.setEmail("user" + i + "@example.com");
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+
+        UserSearchDTO search = new UserSearchDTO();
+        search.setLogin("USER");
+        Page<User> page = executor.page(SearchQueries.users(search), User.class, PageRequest.of(1, 2, Sort.by("login")));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(User::getLogin).containsExactly("user2");
+    }
+
+    private Artist artist(String name) {
+        Artist artist = new Artist();
+        artist.setName(name);
+        entityManager.persist(artist);
+        return artist;
+    }
+
+    private void artwork(String title, Artist artist, LocalDate creationDate) {
+        Artwork artwork = new Artwork();
+        artwork.setTitle(title);
+        artwork.setArtist(artist);
+        artwork.setCreationDate(creationDate);
+        entityManager.persist(artwork);
+    }
+}
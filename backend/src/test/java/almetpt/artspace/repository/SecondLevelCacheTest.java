@@ -0,0 +1,173 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.Role;
+import almetpt.artspace.model.Ticket;
+import almetpt.artspace.model.User;
+import almetpt.artspace.repository.projection.ExhibitionView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Каждый inTransaction() - отдельная транзакция и сессия, как отдельный HTTP-запрос: повторное чтение
+ * должно приходить из кэша второго уровня, а не из БД. Данные коммитятся, поэтому тест без общей транзакции.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(BulkDeleter.class)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ExhibitionRepository exhibitionRepository;
+    @Autowired
+    private BulkDeleter bulkDeleter;
+
+    private Statistics statistics;
+    private Exhibition exhibition;
+    private Ticket ticket;
+    private Artwork artwork;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Role role = new Role();
+            role.setTitle("VISITOR");
+            entityManager.persist(role);
+
+            User user = new User();
+            user.setLogin("visitor");
+            user.setPassword("hash");
+            user.setEmail("visitor@example.com");
+            user.setRole(role);
+            entityManager.persist(user);
+
+            Artist artist = new Artist();
+            artist.setName("Иван Шишкин");
+            entityManager.persist(artist);
+            artwork = new Artwork();
+            artwork.setTitle("Рожь");
+            artwork.setArtist(artist);
+            entityManager.persist(artwork);
+
+            exhibition = new Exhibition();
+            exhibition.setTitle("Передвижники");
+            exhibition.setStartDate(LocalDate.now().minusDays(1));
+            exhibition.setEndDate(LocalDate.now().plusDays(30));
+            entityManager.persist(exhibition);
+
+            ticket = new Ticket();
+            ticket.setUser(user);
+            ticket.setExhibition(exhibition);
+            ticket.setPurchaseDate(LocalDateTime.now());
+            ticket.setVisitDate(LocalDateTime.now().plusDays(1));
+            ticket.setPrice(BigDecimal.TEN);
+            ticket.setStatus(Ticket.TicketStatus.PURCHASED);
+            entityManager.persist(ticket);
+        });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("tickets", "exhibition_artwork", "exhibitions", "artworks", "artists", "users", "roles")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void ticketExhibitionIsReadFromCache() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Передвижники", inTransaction(() -> entityManager.find(Ticket.class, ticket.getId()).getExhibition().getTitle()));
+        }
+
+        // Выставка из БД только в первый раз (ее сохранение в той же фабрике тоже кладет ее в кэш)
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getDomainDataRegionStatistics("exhibitions").getHitCount());
+    }
+
+    @Test
+    void artworkArtistAndUserRoleAreReadFromCache() {
+        inTransaction(() -> entityManager.find(Artwork.class, artwork.getId()).getArtist().getName());
+        inTransaction(() -> entityManager.createQuery("SELECT u FROM User u", User.class).getResultList().get(0).getRole().getTitle());
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics("artists").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("roles").getHitCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void currentExhibitionsComeFromQueryCache() {
+        for (int i = 0; i < 3; i++) {
+            List<ExhibitionView> page = inTransaction(() -> exhibitionRepository.findCurrentViews(LocalDate.now(), PageRequest.of(0, 20)).getContent());
+            assertEquals(List.of("Передвижники"), page.stream().map(ExhibitionView::getTitle).toList());
+        }
+
+        assertEquals(2, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void queryCacheIsInvalidatedByUpdate() {
+        inTransaction(() -> exhibitionRepository.findCurrentViews(LocalDate.now(), PageRequest.of(0, 20)));
+        inTransaction(() -> { entityManager.find(Exhibition.class, exhibition.getId()).setTitle("Пейзаж"); return null; });
+
+        List<ExhibitionView> page = inTransaction(() -> exhibitionRepository.findCurrentViews(LocalDate.now(), PageRequest.of(0, 20)).getContent());
+
+        assertEquals("Пейзаж", page.get(0).getTitle());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void bulkDeleteEvictsEntityAndQueryResults() {
+        inTransaction(() -> exhibitionRepository.findCurrentViews(LocalDate.now(), PageRequest.of(0, 20)));
+        inTransaction(() -> entityManager.find(Exhibition.class, exhibition.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(Exhibition.class, exhibition.getId()));
+
+        bulkDeleter.delete(DeletePlans.EXHIBITIONS, List.of(exhibition.getId()));
+
+        assertFalse(entityManagerFactory.getCache().contains(Exhibition.class, exhibition.getId()));
+        assertNull(inTransaction(() -> entityManager.find(Exhibition.class, exhibition.getId())));
+        assertTrue(inTransaction(() -> exhibitionRepository.findCurrentViews(LocalDate.now(), PageRequest.of(0, 20)).isEmpty()));
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+}
@@ -0,0 +1,43 @@
+package almetpt.artspace.repository;
+
+import almetpt.artspace.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class UserRepositoryTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user(String login, String firstName, String lastName) {
+        User user = new User();
+        user.setLogin(login);
+        user.setPassword("hash");
+        user.setEmail(login + "@example.com");
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        entityManager.persist(user);
+        return user;
+    }
+
+    @Test
+    void fullNameIsGeneratedByDatabaseAndSearchable() {
+        User shishkin = user("shishkin", "Иван", "Шишкин");
+        user("aivazovsky", "Иван", "Айвазовский");
+        user("nameless", null, "Левитан");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(userRepository.findById(shishkin.getId()).orElseThrow().getFullName()).isEqualTo("Иван Шишкин");
+        assertThat(userRepository.findByFullNameContaining("ван Ши")).extracting(User::getLogin).containsExactly("shishkin");
+        assertThat(userRepository.findByFullNameContaining("Иван")).hasSize(2);
+        assertThat(userRepository.findByFullNameContaining(" Левитан")).extracting(User::getLogin).containsExactly("nameless");
+    }
+}
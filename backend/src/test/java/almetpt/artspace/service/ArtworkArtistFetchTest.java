@@ -0,0 +1,119 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.model.ArtCategory;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.repository.ArtworkRepository;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * У каждого из 100 произведений свой художник: без загрузки artist тем же запросом
+ * маппер выполнил бы по запросу на каждую строку страницы.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false"
+})
+@Import({AssociationIdLoader.class, ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        ExhibitionCalendar.class, CatalogResponseCache.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class})
+class ArtworkArtistFetchTest {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ArtworkService artworkService;
+    @Autowired
+    private ArtworkRepository artworkRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PAGE_SIZE + 20; i++) {
+            Artist artist = new Artist();
+            artist.setName("Художник " + i);
+            entityManager.persist(artist);
+
+            Artwork artwork = new Artwork();
+            artwork.setTitle("Картина " + i);
+            artwork.setCategory(ArtCategory.PAINTING);
+            artwork.setArtist(artist);
+            entityManager.persist(artwork);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void categoryPageLoadsArtistsInSameStatement() {
+        Page<ArtworkDTO> page = artworkService.findByCategory(ArtCategory.PAINTING, PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(PAGE_SIZE + 20, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(dto -> dto.getArtistName() != null));
+        // Страница с художниками, count и id выставок
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void titlePageLoadsArtistsInSameStatement() {
+        Page<ArtworkDTO> page = artworkService.findByTitle("Картина", PageRequest.of(1, PAGE_SIZE, Sort.by("id")));
+
+        assertEquals(20, page.getContent().size());
+        assertEquals("Художник 100", page.getContent().get(0).getArtistName());
+        // Последняя страница: count не нужен
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listAllLoadsArtistsInSameStatement() {
+        List<ArtworkDTO> artworks = artworkService.listAll();
+
+        assertEquals(PAGE_SIZE + 20, artworks.size());
+        assertTrue(artworks.stream().allMatch(dto -> dto.getArtistName() != null));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void artistNamePageFetchesArtists() {
+        Page<Artwork> page = artworkRepository.findByArtistNameContainingIgnoreCase("Художник", PageRequest.of(0, PAGE_SIZE));
+
+        assertEquals(PAGE_SIZE + 20, page.getTotalElements());
+        page.getContent().forEach(artwork -> assertNotNull(artwork.getArtist().getName()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,157 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.TicketDTO;
+import almetpt.artspace.exception.NotFoundException;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.mapper.TicketFieldMapperImpl;
+import almetpt.artspace.mapper.TicketMapper;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.Ticket;
+import almetpt.artspace.model.User;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.EntityIdAllocator;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false"
+})
+@Import({AssociationIdLoader.class, ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        TicketService.class, TicketMapper.class, TicketFieldMapperImpl.class, EntityIdAllocator.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        ExhibitionCalendar.class, CatalogResponseCache.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class})
+class BulkCreateTest {
+
+    private static final int ROWS = 120;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TicketService ticketService;
+    @Autowired
+    private ArtworkService artworkService;
+    @Autowired
+    private EntityIdAllocator entityIdAllocator;
+
+    private Statistics statistics;
+    private User user;
+    private Exhibition exhibition;
+    private Artist artist;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setLogin("visitor");
+        user.setPassword("hash");
+        user.setEmail("visitor@example.com");
+        entityManager.persist(user);
+
+        exhibition = new Exhibition();
+        exhibition.setTitle("Передвижники");
+        exhibition.setStartDate(LocalDate.now());
+        exhibition.setEndDate(LocalDate.now().plusDays(30));
+        entityManager.persist(exhibition);
+
+        artist = new Artist();
+        artist.setName("Иван Шишкин");
+        entityManager.persist(artist);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void ticketsAreInsertedInBatches() {
+        List<TicketDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            TicketDTO dto = new TicketDTO();
+            dto.setUserId(user.getId());
+            dto.setExhibitionId(exhibition.getId());
+            dto.setPurchaseDate(LocalDateTime.now());
+            dto.setVisitDate(LocalDateTime.now().plusDays(1));
+            dto.setPrice(BigDecimal.TEN);
+            dto.setStatus(Ticket.TicketStatus.PURCHASED);
+            dto.setTicketCode("T-" + i);
+            dtos.add(dto);
+        }
+
+        List<TicketDTO> created = ticketService.createAll(dtos);
+        entityManager.flush();
+
+        assertEquals(ROWS, created.size());
+        assertTrue(created.stream().allMatch(dto -> dto.getId() != null && exhibition.getId().equals(dto.getExhibitionId())));
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // Пользователь и выставка - по запросу на список, nextval - раз на 50 id, INSERT - пачками по 50
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void artworksGetArtistsLoadedOnce() {
+        List<ArtworkDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            ArtworkDTO dto = new ArtworkDTO();
+            dto.setTitle("Этюд " + i);
+            dto.setArtistId(i % 2 == 0 ? artist.getId() : null);
+            dtos.add(dto);
+        }
+
+        List<ArtworkDTO> created = artworkService.createAll(dtos);
+
+        assertEquals("Иван Шишкин", created.get(0).getArtistName());
+        assertNull(created.get(1).getArtistId());
+    }
+
+    @Test
+    void unknownRelationRejectsWholeRequest() {
+        TicketDTO dto = new TicketDTO();
+        dto.setUserId(-1L);
+        dto.setExhibitionId(exhibition.getId());
+
+        assertThrows(NotFoundException.class, () -> ticketService.createAll(List.of(dto)));
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void allocatedIdsDoNotCollideWithPersist() {
+        long[] ids = entityIdAllocator.next(Artist.class, 70);
+
+        Artist other = new Artist();
+        other.setName("Исаак Левитан");
+        entityManager.persist(other);
+
+        assertEquals(70, Arrays.stream(ids).distinct().count());
+        assertTrue(Arrays.stream(ids).noneMatch(id -> id == other.getId() || id == artist.getId()));
+    }
+}
@@ -0,0 +1,173 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.DeletionReport;
+import almetpt.artspace.exception.NotFoundException;
+import almetpt.artspace.mapper.ArtistFieldMapperImpl;
+import almetpt.artspace.mapper.ArtistMapper;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.model.Ticket;
+import almetpt.artspace.model.User;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false",
+        "bulk-delete.chunk-size=7"
+})
+@Import({AssociationIdLoader.class, ArtistService.class, ArtistMapper.class, ArtistFieldMapperImpl.class,
+        ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        ExhibitionService.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        ExhibitionCalendar.class, CatalogResponseCache.class})
+class CascadeDeleteTest {
+
+    private static final int TICKETS = 30;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ArtistService artistService;
+    @Autowired
+    private ArtworkService artworkService;
+    @Autowired
+    private ExhibitionService exhibitionService;
+
+    private Statistics statistics;
+    private Artist shishkin;
+    private Artwork rye;
+    private Exhibition exhibition;
+    private Exhibition other;
+
+    @BeforeEach
+    void setUp() {
+        User visitor = new User();
+        visitor.setLogin("visitor");
+        visitor.setPassword("hash");
+        visitor.setEmail("visitor@example.com");
+        entityManager.persist(visitor);
+
+        shishkin = artist("Иван Шишкин");
+        Artist levitan = artist("Исаак Левитан");
+        rye = artwork("Рожь", shishkin);
+        Artwork pines = artwork("Сосны", shishkin);
+        Artwork spring = artwork("Весна", levitan);
+
+        exhibition = exhibition("Передвижники", rye, pines, spring);
+        other = exhibition("Пейзаж", rye);
+        for (int i = 0; i < TICKETS; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setUser(visitor);
+            ticket.setExhibition(i < TICKETS - 1 ? exhibition : other);
+            ticket.setPurchaseDate(LocalDateTime.now());
+            ticket.setVisitDate(LocalDateTime.now().plusDays(1));
+            ticket.setPrice(BigDecimal.TEN);
+            ticket.setStatus(Ticket.TicketStatus.PURCHASED);
+            ticket.setTicketCode("T-" + i);
+            entityManager.persist(ticket);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void exhibitionTicketsAreDeletedInChunksWithoutLoading() {
+        DeletionReport report = exhibitionService.delete(exhibition.getId());
+
+        assertEquals(TICKETS - 1, report.deleted("tickets"));
+        assertEquals(3, report.deleted("exhibition_artwork"));
+        assertEquals(1, report.deleted("exhibitions"));
+        // 29 билетов пачками по 7 и последняя транзакция с самой выставкой
+        assertEquals(6, report.getTransactions());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, count("tickets"));
+        assertEquals(1, count("exhibition_artwork"));
+    }
+
+    @Test
+    void artistTakesArtworksAndTheirExhibitionLinks() {
+        DeletionReport report = artistService.delete(shishkin.getId());
+
+        assertEquals(List.of("exhibition_artwork", "artworks", "artists"), List.copyOf(report.getDeletedRows().keySet()));
+        assertEquals(2, report.deleted("artworks"));
+        assertEquals(3, report.deleted("exhibition_artwork"));
+        assertEquals(1, count("artworks"));
+        assertEquals(2, count("exhibitions"));
+    }
+
+    @Test
+    void artworkIsRemovedFromExhibitions() {
+        DeletionReport report = artworkService.deleteAll(List.of(rye.getId(), -1L));
+
+        assertEquals(1, report.deleted("artworks"));
+        assertEquals(2, report.deleted("exhibition_artwork"));
+    }
+
+    @Test
+    void missingEntityIsNotFound() {
+        assertThrows(NotFoundException.class, () -> exhibitionService.delete(-1L));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+
+    private Artist artist(String name) {
+        Artist artist = new Artist();
+        artist.setName(name);
+        entityManager.persist(artist);
+        return artist;
+    }
+
+    private Artwork artwork(String title, Artist artist) {
+        Artwork artwork = new Artwork();
+        artwork.setTitle(title);
+        artwork.setArtist(artist);
+        entityManager.persist(artwork);
+        return artwork;
+    }
+
+    private Exhibition exhibition(String title, Artwork... artworks) {
+        Exhibition exhibition = new Exhibition();
+        exhibition.setTitle(title);
+        exhibition.setStartDate(LocalDate.now());
+        exhibition.setEndDate(LocalDate.now().plusDays(30));
+        exhibition.getArtworks().addAll(List.of(artworks));
+        entityManager.persist(exhibition);
+        return exhibition;
+    }
+}
@@ -0,0 +1,137 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.ExhibitionDTO;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false"
+})
+@Import({AssociationIdLoader.class, ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        ExhibitionService.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        ExhibitionCalendar.class, CatalogResponseCache.class})
+class CatalogProjectionTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ArtworkService artworkService;
+    @Autowired
+    private ExhibitionService exhibitionService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Artist artist = new Artist();
+        artist.setName("Иван Шишкин");
+        entityManager.persist(artist);
+
+        Exhibition exhibition = new Exhibition();
+        exhibition.setTitle("Передвижники");
+        exhibition.setStartDate(LocalDate.now().minusDays(1));
+        exhibition.setEndDate(LocalDate.now().plusDays(10));
+        entityManager.persist(exhibition);
+
+        for (int i = 0; i < 20; i++) {
+            Artwork artwork = new Artwork();
+            artwork.setTitle("Картина " + i);
+            // Каждое второе произведение без автора: LEFT JOIN не должен его терять
+            artwork.setArtist(i % 2 == 0 ? artist : null);
+            entityManager.persist(artwork);
+            if (i < 5) {
+                exhibition.getArtworks().add(artwork);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listAllReadsProjectionsWithoutLoadingEntities() {
+        Page<ArtworkDTO> page = artworkService.listAll(PageRequest.of(0, 10, Sort.by("title")));
+
+        assertEquals(20, page.getTotalElements());
+        assertEquals(10, page.getContent().size());
+        ArtworkDTO first = page.getContent().get(0);
+        assertEquals("Картина 0", first.getTitle());
+        assertEquals("Иван Шишкин", first.getArtistName());
+        assertEquals(1, first.getExhibitionIds().size());
+        assertNull(page.getContent().get(1).getArtistName());
+
+        // Страница, count и id выставок
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void searchFiltersByArtistName() {
+        ArtworkSearchDTO searchDTO = new ArtworkSearchDTO();
+        searchDTO.setArtistName("Шишкин");
+
+        Page<ArtworkDTO> page = artworkService.search(searchDTO, PageRequest.of(0, 50), FieldSelection.ALL);
+
+        assertEquals(10, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(dto -> dto.getArtistId() != null));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    // С явной сортировкой текущие и предстоящие выставки читаются из БД, а не из ExhibitionCalendar
+    @Test
+    void currentExhibitionsContainArtworkIds() {
+        Page<ExhibitionDTO> page = exhibitionService.findCurrentExhibitions(PageRequest.of(0, 10, Sort.by("title")));
+
+        assertEquals(1, page.getTotalElements());
+        ExhibitionDTO exhibition = page.getContent().get(0);
+        assertEquals("Передвижники", exhibition.getTitle());
+        assertEquals(5, Set.copyOf(exhibition.getArtworkIds()).size());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void emptyPageSkipsIdQuery() {
+        Page<ExhibitionDTO> page = exhibitionService.findUpcomingExhibitions(PageRequest.of(0, 10, Sort.by("title")));
+
+        assertEquals(List.of(), page.getContent());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,152 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ExhibitionDTO;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.model.Exhibition;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Снимок пересобирается после коммита, поэтому данные коммитятся и тест работает без общей транзакции.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AssociationIdLoader.class, ExhibitionService.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class,
+        ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        ExhibitionCalendar.class, CatalogResponseCache.class})
+class ExhibitionCalendarTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ExhibitionService exhibitionService;
+    @Autowired
+    private ArtworkService artworkService;
+    @Autowired
+    private ExhibitionCalendar exhibitionCalendar;
+
+    private Statistics statistics;
+    private Artwork rye;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            rye = new Artwork();
+            rye.setTitle("Рожь");
+            entityManager.persist(rye);
+
+            LocalDate today = LocalDate.now();
+            exhibition("Пейзаж", today.minusDays(3), today.plusDays(3));
+            exhibition("Передвижники", today.minusDays(10), today).getArtworks().add(rye);
+            exhibition("Архив", today.minusDays(30), today.minusDays(1));
+            exhibition("Весна", today.plusDays(5), today.plusDays(20));
+            exhibition("Осень", today.plusDays(1), today.plusDays(10));
+        });
+        exhibitionCalendar.refresh();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("exhibition_artwork", "exhibitions", "artworks")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void pagesAreServedFromSnapshotInStartDateOrder() {
+        Page<ExhibitionDTO> first = exhibitionService.findCurrentExhibitions(PageRequest.of(0, 1));
+        Page<ExhibitionDTO> second = exhibitionService.findCurrentExhibitions(PageRequest.of(1, 1));
+        Page<ExhibitionDTO> upcoming = exhibitionService.findUpcomingExhibitions(PageRequest.of(0, 10));
+
+        assertEquals(2, first.getTotalElements());
+        assertEquals("Передвижники", first.getContent().get(0).getTitle());
+        assertEquals(List.of(rye.getId()), first.getContent().get(0).getArtworkIds());
+        assertEquals("Пейзаж", second.getContent().get(0).getTitle());
+        assertEquals(List.of("Осень", "Весна"), titles(upcoming));
+        assertTrue(exhibitionService.findCurrentExhibitions(PageRequest.of(5, 1)).isEmpty());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void snapshotIsRebuiltAfterCommittedChanges() {
+        ExhibitionDTO dto = new ExhibitionDTO();
+        dto.setTitle("Графика");
+        dto.setStartDate(LocalDate.now());
+        dto.setEndDate(LocalDate.now().plusDays(7));
+        ExhibitionDTO created = exhibitionService.create(dto);
+
+        assertEquals(List.of("Передвижники", "Пейзаж", "Графика"), titles(exhibitionService.findCurrentExhibitions(PageRequest.of(0, 10))));
+
+        dto.setId(created.getId());
+        dto.setStartDate(LocalDate.now().plusDays(2));
+        exhibitionService.update(dto);
+
+        assertEquals(List.of("Осень", "Графика", "Весна"), titles(exhibitionService.findUpcomingExhibitions(PageRequest.of(0, 10))));
+
+        exhibitionService.delete(created.getId());
+
+        assertEquals(List.of("Осень", "Весна"), titles(exhibitionService.findUpcomingExhibitions(PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void deletedArtworkLeavesExhibitionsInSnapshot() {
+        artworkService.delete(rye.getId());
+
+        assertEquals(List.of(), exhibitionService.findCurrentExhibitions(PageRequest.of(0, 1)).getContent().get(0).getArtworkIds());
+    }
+
+    private Exhibition exhibition(String title, LocalDate start, LocalDate end) {
+        Exhibition exhibition = new Exhibition();
+        exhibition.setTitle(title);
+        exhibition.setStartDate(start);
+        exhibition.setEndDate(end);
+        entityManager.persist(exhibition);
+        return exhibition;
+    }
+
+    private static List<String> titles(Page<ExhibitionDTO> page) {
+        return page.getContent().stream().map(ExhibitionDTO::getTitle).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.DeletionReport;
+import almetpt.artspace.exception.NotFoundException;
+import almetpt.artspace.mapper.GenericMapper;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.GenericRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GenericServiceDeleteTest {
+
+    private final BulkDeleter bulkDeleter = mock(BulkDeleter.class);
+    private final RecordingService service = new RecordingService(bulkDeleter);
+
+    @Test
+    void hooksRunForChunksCommittedBeforeFailure() {
+        when(bulkDeleter.delete(any(), anyCollection(), any())).thenAnswer(invocation -> {
+            BiConsumer<String, List<Long>> onDeleted = invocation.getArgument(2);
+            onDeleted.accept("artworks", List.of(1L, 2L));
+            throw new DataIntegrityViolationException("artists_pkey");
+        });
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.delete(10L));
+
+        assertEquals(List.of("artworks:[1, 2]", "finished"), service.events);
+    }
+
+    @Test
+    void nothingDeletedRunsNoHooks() {
+        when(bulkDeleter.delete(any(), anyCollection(), any())).thenReturn(new DeletionReport());
+
+        assertThrows(NotFoundException.class, () -> service.delete(10L));
+
+        assertEquals(List.of(), service.events);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static class RecordingService extends GenericService<Artwork, ArtworkDTO> {
+
+        private final List<String> events = new ArrayList<>();
+
+        RecordingService(BulkDeleter bulkDeleter) {
+            super(mock(GenericRepository.class), mock(GenericMapper.class), null, bulkDeleter);
+        }
+
+        @Override
+        protected void onDeleted(String table, List<Long> ids) {
+            events.add(table + ":" + ids);
+        }
+
+        @Override
+        protected void onDeleteFinished() {
+            events.add("finished");
+        }
+    }
+}
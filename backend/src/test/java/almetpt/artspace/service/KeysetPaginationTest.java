@@ -0,0 +1,190 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.CursorPage;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.exception.BadRequestException;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.model.ArtCategory;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false"
+})
+@Import({AssociationIdLoader.class, ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        ExhibitionCalendar.class, CatalogResponseCache.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class})
+class KeysetPaginationTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ArtworkService artworkService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Artist artist = new Artist();
+        artist.setName("Иван Шишкин");
+        entityManager.persist(artist);
+
+        for (int i = 0; i < 23; i++) {
+            Artwork artwork = new Artwork();
+            // Повторяющиеся названия и даты: порядок внутри группы задаёт id
+            artwork.setTitle("Картина " + (i % 7));
+            artwork.setCreationDate(LocalDate.of(1880, 1, 1).plusYears(i % 5));
+            artwork.setCategory(ArtCategory.values()[i % ArtCategory.values().length]);
+            artwork.setArtist(i % 2 == 0 ? artist : null);
+            entityManager.persist(artwork);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void scrollVisitsEveryRecordOnceWithConstantQueriesPerPage() {
+        List<ArtworkDTO> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorPage<ArtworkDTO> page = artworkService.scroll(Sort.by("title"), 5, after, FieldSelection.ALL);
+            // Страница записей с художником одним запросом и id выставок одним запросом, без COUNT
+            assertTrue(statistics.getPrepareStatementCount() <= 2, "запросов: " + statistics.getPrepareStatementCount());
+            seen.addAll(page.getContent());
+            after = page.getNextCursor();
+            assertEquals(after != null, page.isHasNext());
+            pages++;
+        } while (after != null);
+
+        assertEquals(5, pages);
+        assertEquals(23, seen.size());
+        assertEquals(23, seen.stream().map(ArtworkDTO::getId).distinct().count());
+        assertEquals(sorted(seen, Comparator.comparing(ArtworkDTO::getTitle)), seen);
+        assertTrue(seen.stream().filter(a -> a.getArtistId() != null).allMatch(a -> "Иван Шишкин".equals(a.getArtistName())));
+    }
+
+    @Test
+    void scrollSortsByDateDescendingAndEnum() {
+        List<ArtworkDTO> byDate = scrollAll(Sort.by(Sort.Direction.DESC, "creationDate"));
+        assertEquals(sorted(byDate, Comparator.comparing(ArtworkDTO::getCreationDate).reversed()), byDate);
+
+        List<ArtworkDTO> byCategory = scrollAll(Sort.by("category"));
+        assertEquals(23, byCategory.stream().map(ArtworkDTO::getId).distinct().count());
+        assertEquals(sorted(byCategory, Comparator.comparing(a -> a.getCategory().name())), byCategory);
+    }
+
+    @Test
+    void scrollKeepsRecordsWithNullSortKeyAtTheEnd() {
+        for (int i = 0; i < 3; i++) {
+            Artwork artwork = new Artwork();
+            artwork.setTitle("Без даты " + i);
+            entityManager.persist(artwork);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        for (Sort sort : List.of(Sort.by("creationDate"), Sort.by(Sort.Direction.DESC, "creationDate"))) {
+            List<ArtworkDTO> all = scrollAll(sort);
+            assertEquals(26, all.stream().map(ArtworkDTO::getId).distinct().count(), sort.toString());
+            assertTrue(all.subList(23, 26).stream().allMatch(a -> a.getCreationDate() == null), sort.toString());
+        }
+        List<ArtworkDTO> byArtist = scrollAll(Sort.by("artist.name"));
+        assertEquals(26, byArtist.stream().map(ArtworkDTO::getId).distinct().count());
+        assertTrue(byArtist.subList(12, 26).stream().allMatch(a -> a.getArtistId() == null));
+        // У всех записей описание пустое: страницы идут по id внутри NULL
+        List<ArtworkDTO> byDescription = scrollAll(Sort.by("description"));
+        assertEquals(sorted(byDescription, Comparator.comparing(a -> 0)), byDescription);
+        assertEquals(26, byDescription.size());
+    }
+
+    @Test
+    void rejectsUnsupportedSortBeforeQuery() {
+        statistics.clear();
+        assertThrows(BadRequestException.class, () -> artworkService.scroll(Sort.by("unknown"), 5, null, FieldSelection.ALL));
+        assertThrows(BadRequestException.class, () -> artworkService.scroll(Sort.by("artist"), 5, null, FieldSelection.ALL));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchScrollAppliesFilter() {
+        ArtworkSearchDTO searchDTO = new ArtworkSearchDTO();
+        searchDTO.setArtistName("Шишкин");
+        searchDTO.setCreatedAfter(LocalDate.of(1882, 1, 1));
+
+        List<ArtworkDTO> found = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ArtworkDTO> page = artworkService.search(searchDTO, Sort.by("title"), 2, after, FieldSelection.ALL);
+            found.addAll(page.getContent());
+            after = page.getNextCursor();
+        } while (after != null);
+
+        long expected = java.util.stream.IntStream.range(0, 23).filter(i -> i % 2 == 0 && i % 5 >= 2).count();
+        assertEquals(expected, found.size());
+        assertTrue(found.stream().allMatch(a -> !a.getCreationDate().isBefore(LocalDate.of(1882, 1, 1))));
+    }
+
+    @Test
+    void rejectsForeignOrTamperedCursor() {
+        String cursor = artworkService.scroll(Sort.by("title"), 5, null, FieldSelection.ALL).getNextCursor();
+
+        assertThrows(BadRequestException.class,
+                () -> artworkService.scroll(Sort.by("creationDate"), 5, cursor, FieldSelection.ALL));
+        assertThrows(BadRequestException.class,
+                () -> artworkService.scroll(Sort.by("title"), 5, cursor.substring(3), FieldSelection.ALL));
+        assertThrows(BadRequestException.class,
+                () -> artworkService.scroll(Sort.by("title"), 5, "не-курсор", FieldSelection.ALL));
+    }
+
+    private List<ArtworkDTO> scrollAll(Sort sort) {
+        List<ArtworkDTO> result = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ArtworkDTO> page = artworkService.scroll(sort, 4, after, FieldSelection.ALL);
+            result.addAll(page.getContent());
+            after = page.getNextCursor();
+        } while (after != null);
+        return result;
+    }
+
+    // Ожидаемый порядок: по ключу сортировки, при равенстве - по id
+    private static List<ArtworkDTO> sorted(List<ArtworkDTO> artworks, Comparator<ArtworkDTO> order) {
+        return artworks.stream().sorted(order.thenComparing(ArtworkDTO::getId)).toList();
+    }
+}
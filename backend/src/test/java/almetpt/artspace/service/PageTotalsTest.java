@@ -0,0 +1,128 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.dto.ArtworkDTO;
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.dto.EstimatedPage;
+import almetpt.artspace.dto.FieldSelection;
+import almetpt.artspace.dto.PageTotal;
+import almetpt.artspace.exception.BadRequestException;
+import almetpt.artspace.mapper.ArtworkFieldMapperImpl;
+import almetpt.artspace.mapper.ArtworkMapper;
+import almetpt.artspace.mapper.ExhibitionFieldMapperImpl;
+import almetpt.artspace.mapper.ExhibitionMapper;
+import almetpt.artspace.model.Artist;
+import almetpt.artspace.model.Artwork;
+import almetpt.artspace.repository.AssociationIdLoader;
+import almetpt.artspace.repository.BulkDeleter;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import almetpt.artspace.repository.SearchQueryExecutor;
+import almetpt.artspace.service.search.CatalogSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.search.enabled=false"
+})
+@Import({AssociationIdLoader.class, ArtworkService.class, ArtworkMapper.class, ArtworkFieldMapperImpl.class,
+        CatalogSearchIndex.class, SearchDocumentLoader.class, PageTotals.class, SearchQueryExecutor.class, BulkDeleter.class,
+        ExhibitionCalendar.class, CatalogResponseCache.class, ExhibitionMapper.class, ExhibitionFieldMapperImpl.class})
+class PageTotalsTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ArtworkService artworkService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Artist artist = new Artist();
+        artist.setName("Иван Шишкин");
+        entityManager.persist(artist);
+        for (int i = 0; i < 25; i++) {
+            Artwork artwork = new Artwork();
+            artwork.setTitle("Картина " + i);
+            artwork.setArtist(i < 15 ? artist : null);
+            entityManager.persist(artwork);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void noneReturnsSliceWithoutCount() {
+        Slice<ArtworkDTO> slice = artworkService.listAll(PageRequest.of(1, 10, Sort.by("id")), FieldSelection.ALL, PageTotal.NONE);
+
+        assertFalse(slice instanceof Page);
+        assertEquals(10, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        // Страница (11 строк) и id выставок
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void estimateCountsOncePerFilterAndReusesIt() {
+        ArtworkSearchDTO searchDTO = new ArtworkSearchDTO();
+        searchDTO.setArtistName("Шишкин");
+
+        Slice<ArtworkDTO> first = artworkService.search(searchDTO, PageRequest.of(0, 5, Sort.by("id")), FieldSelection.ALL, PageTotal.ESTIMATE);
+        EstimatedPage<ArtworkDTO> page = assertInstanceOf(EstimatedPage.class, first);
+        assertEquals(15, page.getTotalElements());
+        assertTrue(page.isTotalEstimated());
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        ArtworkSearchDTO sameFilter = new ArtworkSearchDTO();
+        sameFilter.setArtistName("Шишкин");
+        Slice<ArtworkDTO> second = artworkService.search(sameFilter, PageRequest.of(1, 5, Sort.by("id")), FieldSelection.ALL, PageTotal.ESTIMATE);
+        assertEquals(15, ((Page<ArtworkDTO>) second).getTotalElements());
+        // Тот же фильтр: COUNT взят из кэша
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void estimateOnLastPageIsExactWithoutCount() {
+        Slice<ArtworkDTO> last = artworkService.listAll(PageRequest.of(2, 10, Sort.by("id")), FieldSelection.ALL, PageTotal.ESTIMATE);
+
+        assertEquals(25, ((Page<ArtworkDTO>) last).getTotalElements());
+        assertFalse(last.hasNext());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exactKeepsCountQuery() {
+        Page<ArtworkDTO> page = artworkService.listAll(PageRequest.of(0, 10, Sort.by("id")), FieldSelection.ALL);
+
+        assertFalse(page instanceof EstimatedPage);
+        assertEquals(25, page.getTotalElements());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void parsesMode() {
+        assertEquals(PageTotal.EXACT, PageTotal.of(null));
+        assertEquals(PageTotal.ESTIMATE, PageTotal.of("Estimate"));
+        assertThrows(BadRequestException.class, () -> PageTotal.of("approx"));
+    }
+}
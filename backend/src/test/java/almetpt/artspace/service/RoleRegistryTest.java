@@ -0,0 +1,51 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.model.Role;
+import almetpt.artspace.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RoleRegistryTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final RoleRegistry registry = new RoleRegistry(roleRepository);
+
+    private static Role role(long id, String title) {
+        Role role = new Role();
+        role.setId(id);
+        role.setTitle(title);
+        return role;
+    }
+
+    @Test
+    void lookupsAreServedFromSnapshot() {
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, "ADMIN"), role(2L, "USER")));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(registry.findById(2L)).get().extracting(RoleRegistry.RoleEntry::title).isEqualTo("USER");
+            assertThat(registry.findByTitle("ADMIN")).get().extracting(RoleRegistry.RoleEntry::id).isEqualTo(1L);
+        }
+        assertThat(registry.findById(42L)).isEmpty();
+        assertThat(registry.getReference(42L)).isEmpty();
+
+        verify(roleRepository, times(1)).findAll();
+        verify(roleRepository, never()).findById(any());
+    }
+
+    @Test
+    void roleChangeReloadsSnapshot() {
+        when(roleRepository.findAll())
+                .thenReturn(List.of(role(1L, "ADMIN")))
+                .thenReturn(List.of(role(1L, "ADMIN"), role(3L, "ARTIST")));
+
+        assertThat(registry.findByTitle("ARTIST")).isEmpty();
+        registry.refreshAfterCommit();
+
+        assertThat(registry.findByTitle("ARTIST")).get().extracting(RoleRegistry.RoleEntry::id).isEqualTo(3L);
+        verify(roleRepository, times(2)).findAll();
+    }
+}
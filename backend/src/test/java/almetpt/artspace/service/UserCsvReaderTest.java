@@ -0,0 +1,66 @@
+package almetpt.artspace.service;
+
+import almetpt.artspace.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCsvReaderTest {
+
+    private static UserCsvReader reader(String csv) {
+        return new UserCsvReader(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Test
+    void readsRowsByHeaderNames() {
+        UserCsvReader reader = reader("email,login,password,first_name,birthDate\n" +
+                "anna@example.com,anna,secret,\"Анна, мл.\",2000-01-02\n");
+
+        assertTrue(reader.hasNext());
+        UserImportService.ImportRow row = reader.next();
+        assertFalse(reader.hasNext());
+
+        assertEquals(2, row.row());
+        assertNull(row.error());
+        assertEquals("anna", row.user().getLogin());
+        assertEquals("secret", row.user().getPassword());
+        assertEquals("Анна, мл.", row.user().getFirstName());
+        assertEquals(LocalDate.of(2000, 1, 2), row.user().getBirthDate());
+    }
+
+    @Test
+    void parsesQuotedValues() {
+        assertEquals(List.of("a", "b \"c\"", "", "d"), UserCsvReader.parseLine("a,\"b \"\"c\"\"\",,d"));
+    }
+
+    @Test
+    void skipsBlankLinesAndKeepsFileRowNumbers() {
+        UserCsvReader reader = reader("login,password,email\n\nbob,pw,bob@example.com\n");
+
+        UserImportService.ImportRow row = reader.next();
+
+        assertEquals(3, row.row());
+        assertEquals("bob", row.user().getLogin());
+        assertEquals("bob@example.com", row.user().getEmail());
+    }
+
+    @Test
+    void invalidBirthDateBecomesRowError() {
+        UserCsvReader reader = reader("login,password,email,birth_date\nbob,pw,bob@example.com,31.12.1999\n");
+
+        UserImportService.ImportRow row = reader.next();
+
+        assertEquals("bob", row.login());
+        assertNotNull(row.error());
+    }
+
+    @Test
+    void requiresMandatoryColumns() {
+        assertThrows(BadRequestException.class, () -> reader("login,email\nbob,bob@example.com\n"));
+    }
+}
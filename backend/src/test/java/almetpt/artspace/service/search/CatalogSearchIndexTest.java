@@ -0,0 +1,108 @@
+package almetpt.artspace.service.search;
+
+import almetpt.artspace.dto.ArtistSearchDTO;
+import almetpt.artspace.dto.ArtworkSearchDTO;
+import almetpt.artspace.model.ArtCategory;
+import almetpt.artspace.repository.SearchDocumentLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSearchIndexTest {
+
+    private final SearchDocumentLoader loader = mock(SearchDocumentLoader.class);
+    private final CatalogSearchIndex index = new CatalogSearchIndex(loader, true, 2);
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> artworks = new ArrayList<>();
+        artworks.add(new Object[]{1L, "Утро в сосновом лесу", "Медведи", "PAINTING", Date.valueOf("1889-01-01"), 10L});
+        artworks.add(new Object[]{2L, "Рожь", "Поле и сосны", "PAINTING", Date.valueOf("1878-01-01"), 10L});
+        artworks.add(new Object[]{3L, "Сосна", null, "SCULPTURE", null, 20L});
+        when(loader.artworks(eq(0L), anyInt())).thenReturn(artworks.subList(0, 2));
+        when(loader.artworks(eq(2L), anyInt())).thenReturn(artworks.subList(2, 3));
+        when(loader.artists(eq(0L), anyInt())).thenReturn(List.of(
+                new Object[]{10L, "Иван Шишкин", "Пейзажист", "Россия"},
+                new Object[]{20L, "Огюст Роден", null, "Франция"}));
+    }
+
+    @Test
+    void searchIsUnavailableUntilRebuilt() {
+        ArtworkSearchDTO search = new ArtworkSearchDTO();
+        search.setTitle("сосна");
+
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10))).isEmpty();
+        index.rebuild();
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10))).isPresent();
+    }
+
+    @Test
+    void artworkIsFoundByWordOnlyInDescription() {
+        index.rebuild();
+        ArtworkSearchDTO search = new ArtworkSearchDTO();
+        search.setDescription("медведи");
+
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10)).orElseThrow().ids()).containsExactly(1L);
+    }
+
+    @Test
+    void artistIsFoundByBiographyButNotByNameClause() {
+        index.rebuild();
+        ArtistSearchDTO search = new ArtistSearchDTO();
+        search.setBiography("пейзажист");
+        assertThat(index.searchArtists(search, PageRequest.of(0, 10)).orElseThrow().ids()).containsExactly(10L);
+
+        search.setBiography(null);
+        search.setName("пейзажист");
+        assertThat(index.searchArtists(search, PageRequest.of(0, 10)).orElseThrow().ids()).isEmpty();
+    }
+
+    @Test
+    void artworksAreFilteredByArtistNameAndCategory() {
+        index.rebuild();
+        ArtworkSearchDTO search = new ArtworkSearchDTO();
+        search.setTitle("сосн");
+        search.setArtistName("шишкин");
+
+        // "Рожь" упоминает сосны только в описании, а title ищется по названию
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10)).orElseThrow().ids()).containsExactly(1L);
+
+        search.setArtistName(null);
+        search.setCategory(ArtCategory.SCULPTURE);
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10)).orElseThrow().ids()).containsExactly(3L);
+
+        search.setCategory(null);
+        search.setCreatedAfter(LocalDate.of(1880, 1, 1));
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10)).orElseThrow().ids()).containsExactly(1L);
+    }
+
+    @Test
+    void queriesWithoutWordsFallBackToDatabase() {
+        index.rebuild();
+        ArtworkSearchDTO search = new ArtworkSearchDTO();
+        search.setTitle("%");
+
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void deletingArtistRemovesTheirArtworks() {
+        index.rebuild();
+        index.artistDeleted(10L);
+        ArtworkSearchDTO search = new ArtworkSearchDTO();
+        search.setTitle("сосн");
+
+        assertThat(index.searchArtworks(search, PageRequest.of(0, 10)).orElseThrow().ids()).containsExactly(3L);
+    }
+}
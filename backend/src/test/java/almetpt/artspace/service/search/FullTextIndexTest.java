@@ -0,0 +1,100 @@
+package almetpt.artspace.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FullTextIndexTest {
+
+    record Doc(String title, String description, String country) {
+    }
+
+    private final FullTextIndex<Doc> index = new FullTextIndex<>("test", List.of(
+            new FullTextIndex.Field<>("title", 2.0f, Doc::title),
+            new FullTextIndex.Field<>("description", 1.0f, Doc::description)));
+
+    private List<Long> search(String text) {
+        return index.search(List.of(new FullTextIndex.Clause(text, "title", "description")), null, 0, 10).ids();
+    }
+
+    @Test
+    void tokenizerNormalizesCaseAndYo() {
+        assertThat(Tokenizer.tokenize("Ёлки, МОРЕ и 3 медведя!")).containsExactly("елки", "море", "3", "медведя");
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        index.put(1, new Doc("Портрет", "Море на заднем плане", null));
+        index.put(2, new Doc("Море", "Вечер", null));
+        index.put(3, new Doc("Лес", "Сосны", null));
+
+        assertThat(search("море")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void allWordsAreRequiredAndLastWordMatchesAsPrefix() {
+        index.put(1, new Doc("Утро в сосновом лесу", null, null));
+        index.put(2, new Doc("Утро в горах", null, null));
+
+        assertThat(search("утро сосн")).containsExactly(1L);
+        assertThat(search("утро пустыня")).isEmpty();
+        // Префикс короче трех символов не раскрывается
+        assertThat(search("ут")).isEmpty();
+    }
+
+    @Test
+    void filterAndPagingApplyToRankedMatches() {
+        for (long id = 1; id <= 25; id++) {
+            index.put(id, new Doc("Пейзаж " + id, null, id % 2 == 0 ? "RU" : "FR"));
+        }
+        FullTextIndex.Hits hits = index.search(List.of(new FullTextIndex.Clause("пейзаж", "title")),
+                doc -> "RU".equals(doc.country()), 10, 5);
+
+        assertThat(hits.total()).isEqualTo(12);
+        assertThat(hits.ids()).hasSize(2);
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisibleImmediately() {
+        index.put(1, new Doc("Закат", null, null));
+        index.put(1, new Doc("Рассвет", null, null));
+        index.put(2, new Doc("Закат", null, null));
+        index.remove(2);
+
+        assertThat(search("закат")).isEmpty();
+        assertThat(search("рассвет")).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionKeepsLiveDocuments() {
+        for (long id = 0; id < 5000; id++) {
+            index.put(id, new Doc("Картина " + id, null, null));
+        }
+        for (long id = 0; id < 4000; id++) {
+            index.remove(id);
+        }
+
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(index.search(List.of(new FullTextIndex.Clause("картина", "title")), null, 0, 1).total()).isEqualTo(1000);
+        assertThat(search("4321")).containsExactly(4321L);
+    }
+
+    @Test
+    void bulkLoadDoesNotOverwriteConcurrentChanges() {
+        index.beginBulkLoad();
+        index.put(1, new Doc("Новое название", null, null));
+        index.remove(2);
+        index.load(Map.of(1L, new Doc("Старое название", null, null),
+                2L, new Doc("Удаленная работа", null, null),
+                3L, new Doc("Третья работа", null, null)));
+        index.endBulkLoad();
+
+        assertThat(search("новое")).containsExactly(1L);
+        assertThat(search("старое")).isEmpty();
+        assertThat(search("работа")).containsExactly(3L);
+    }
+}
@@ -0,0 +1,43 @@
+package almetpt.artspace.service.userdetails;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDetailsCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserDetailsCache cache = new UserDetailsCache(true, 100, Duration.ofMinutes(1), registry);
+    private final AtomicInteger dbLookups = new AtomicInteger();
+
+    private CustomUserDetails load(String login) {
+        dbLookups.incrementAndGet();
+        return new CustomUserDetails(1L, login, "hash", List.of());
+    }
+
+    @Test
+    void repeatedLookupsHitCacheInsteadOfDatabase() {
+        for (int i = 0; i < 10; i++) {
+            cache.get("user", this::load);
+        }
+
+        assertThat(dbLookups).hasValue(1);
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(9);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictForcesReload() {
+        cache.get("user", this::load);
+        cache.evictAfterCommit("user");
+        cache.get("user", this::load);
+
+        assertThat(dbLookups).hasValue(2);
+        assertThat(registry.get("cache.invalidations").counter().count()).isEqualTo(1);
+    }
+}
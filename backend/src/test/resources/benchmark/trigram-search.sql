@@ -0,0 +1,104 @@
+-- Бенчмарк поиска подстрок на PostgreSQL: планы и время до и после pg_trgm индексов.
+-- Таблицы создаются в отдельной схеме trgm_bench и повторяют колонки, по которым ищут репозитории;
+-- запросы - тот SQL, который Hibernate генерирует для UserRepository/ExhibitionRepository/ArtworkRepository.
+-- Запуск на локальной БД (около 3 ГБ места, несколько минут):
+--   psql -h localhost -p 5442 -U postgres -d local_db2 -f src/test/resources/benchmark/trigram-search.sql
+-- Ожидаемо: до индексов - Seq Scan (Parallel Seq Scan), после - Bitmap Index Scan по idx_*_trgm.
+
+\timing on
+SET client_min_messages = warning;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+DROP SCHEMA IF EXISTS trgm_bench CASCADE;
+CREATE SCHEMA trgm_bench;
+SET search_path = trgm_bench, public;
+
+-- Слова для имен и названий: случайные слоги, чтобы подстрока встречалась в малой доле строк
+CREATE FUNCTION bench_word(seed int) RETURNS text LANGUAGE sql IMMUTABLE AS $$
+    SELECT string_agg(substr('bcdfghklmnprstvz', 1 + (abs(hashint4(seed * 7 + i)) % 16), 1)
+                   || substr('aeiou', 1 + (abs(hashint4(seed * 13 + i)) % 5), 1), '')
+    FROM generate_series(1, 3 + abs(hashint4(seed)) % 3) AS i
+$$;
+
+CREATE TABLE users (
+    id         bigint PRIMARY KEY,
+    login      varchar(255) NOT NULL,
+    email      varchar(255) NOT NULL,
+    first_name varchar(255),
+    last_name  varchar(255),
+    full_name  text GENERATED ALWAYS AS (coalesce(first_name, '') || ' ' || coalesce(last_name, '')) STORED
+);
+INSERT INTO users (id, login, email, first_name, last_name)
+SELECT g, 'user' || g, bench_word(g) || g || '@example.com', initcap(bench_word(g % 20000)), initcap(bench_word(g % 50000 + 7))
+FROM generate_series(1, 3000000) AS g;
+
+CREATE TABLE exhibitions (
+    id       bigint PRIMARY KEY,
+    title    varchar(255) NOT NULL,
+    location varchar(255)
+);
+INSERT INTO exhibitions (id, title, location)
+SELECT g, initcap(bench_word(g % 100000)) || ' ' || bench_word(g % 7000 + 3), initcap(bench_word(g % 500 + 11))
+FROM generate_series(1, 1000000) AS g;
+
+CREATE TABLE artists (
+    id   bigint PRIMARY KEY,
+    name varchar(255) NOT NULL
+);
+INSERT INTO artists (id, name)
+SELECT g, initcap(bench_word(g)) || ' ' || initcap(bench_word(g + 1000000))
+FROM generate_series(1, 200000) AS g;
+
+CREATE TABLE artworks (
+    id        bigint PRIMARY KEY,
+    title     varchar(255) NOT NULL,
+    artist_id bigint REFERENCES artists (id)
+);
+INSERT INTO artworks (id, title, artist_id)
+SELECT g, initcap(bench_word(g % 300000)) || ' ' || bench_word(g % 9000 + 5), 1 + g % 200000
+FROM generate_series(1, 2000000) AS g;
+
+VACUUM ANALYZE;
+
+-- Значения параметров подставлены, как в custom-плане: условие ":x IS NULL" планировщик сворачивает
+PREPARE user_filter(text, text) AS
+    SELECT u.id, u.login FROM users u
+    WHERE ($1 IS NULL OR lower(u.login) LIKE lower(('%' || $1 || '%')))
+      AND ($2 IS NULL OR lower(u.last_name) LIKE lower(('%' || $2 || '%')))
+    ORDER BY u.id LIMIT 20;
+PREPARE user_full_name(text) AS
+    SELECT u.id FROM users u WHERE u.full_name LIKE ('%' || $1 || '%') LIMIT 20;
+PREPARE exhibition_filter(text, text) AS
+    SELECT e.id FROM exhibitions e
+    WHERE ($1 IS NULL OR lower(e.title) LIKE lower(('%' || $1 || '%')))
+      AND ($2 IS NULL OR lower(e.location) LIKE lower(('%' || $2 || '%')))
+    ORDER BY e.id LIMIT 20;
+PREPARE artworks_by_artist(text) AS
+    SELECT a.id, a.title FROM artworks a JOIN artists art ON art.id = a.artist_id
+    WHERE art.name LIKE ('%' || $1 || '%') ORDER BY a.title LIMIT 20;
+SET plan_cache_mode = force_custom_plan;
+
+\echo '=== Без индексов ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE user_filter(NULL, 'kabe');
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE user_full_name('Kabe');
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE exhibition_filter('tomu', NULL);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE artworks_by_artist('Rasi');
+
+-- Те же индексы, что создает TrigramIndexInitializer (src/main/resources/db/postgresql/trigram-indexes.sql)
+CREATE INDEX idx_users_login_trgm ON users USING gin (lower(login) gin_trgm_ops);
+CREATE INDEX idx_users_last_name_trgm ON users USING gin (lower(last_name) gin_trgm_ops);
+CREATE INDEX idx_users_full_name_trgm ON users USING gin (full_name gin_trgm_ops);
+CREATE INDEX idx_exhibitions_title_trgm ON exhibitions USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX idx_exhibitions_location_trgm ON exhibitions USING gin (lower(location) gin_trgm_ops);
+CREATE INDEX idx_artists_name_trgm ON artists USING gin (name gin_trgm_ops);
+-- из миграции V2__hot_path_indexes.sql
+CREATE INDEX idx_artworks_artist_id ON artworks (artist_id);
+ANALYZE;
+
+\echo '=== С pg_trgm индексами ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE user_filter(NULL, 'kabe');
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE user_full_name('Kabe');
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE exhibition_filter('tomu', NULL);
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) EXECUTE artworks_by_artist('Rasi');
+
+RESET search_path;
+DROP SCHEMA trgm_bench CASCADE;